@@ -12,13 +12,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.core.env.Environment;
 import parafarmaija.config.ApplicationProperties;
 import tech.jhipster.config.DefaultProfileUtil;
 import tech.jhipster.config.JHipsterConstants;
 
-@SpringBootApplication
+// The R2DBC connections are configured by ReactiveDatabaseConfiguration, so that the JDBC data source is still configured
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 @EnableConfigurationProperties({ LiquibaseProperties.class, ApplicationProperties.class })
 public class ParafarmacijaApp {
 
@@ -1,5 +1,10 @@
 package parafarmaija.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +14,861 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Rollup rollup = new Rollup();
+
+    private final TabelaImport tabelaImport = new TabelaImport();
+
+    private final DeltaSync deltaSync = new DeltaSync();
+
+    private final TurnoverStream turnoverStream = new TurnoverStream();
+
+    private final TurnoverPartitions turnoverPartitions = new TurnoverPartitions();
+
+    private final TurnoverRollup turnoverRollup = new TurnoverRollup();
+
+    private final Cache cache = new Cache();
+
+    private final CacheWarmup cacheWarmup = new CacheWarmup();
+
+    private final CacheInvalidation cacheInvalidation = new CacheInvalidation();
+
+    private final TokenCache tokenCache = new TokenCache();
+
+    private final Jwt jwt = new Jwt();
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
+    private final AuthenticationThrottling authenticationThrottling = new AuthenticationThrottling();
+
+    private final ForwardedHeaders forwardedHeaders = new ForwardedHeaders();
+
+    private final MailOutbox mailOutbox = new MailOutbox();
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    public Rollup getRollup() {
+        return rollup;
+    }
+
+    public TabelaImport getTabelaImport() {
+        return tabelaImport;
+    }
+
+    public DeltaSync getDeltaSync() {
+        return deltaSync;
+    }
+
+    public TurnoverStream getTurnoverStream() {
+        return turnoverStream;
+    }
+
+    public TurnoverPartitions getTurnoverPartitions() {
+        return turnoverPartitions;
+    }
+
+    public TurnoverRollup getTurnoverRollup() {
+        return turnoverRollup;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public CacheWarmup getCacheWarmup() {
+        return cacheWarmup;
+    }
+
+    public CacheInvalidation getCacheInvalidation() {
+        return cacheInvalidation;
+    }
+
+    public TokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    public Jwt getJwt() {
+        return jwt;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public AuthenticationThrottling getAuthenticationThrottling() {
+        return authenticationThrottling;
+    }
+
+    public ForwardedHeaders getForwardedHeaders() {
+        return forwardedHeaders;
+    }
+
+    public MailOutbox getMailOutbox() {
+        return mailOutbox;
+    }
+
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public static class Rollup {
+
+        /**
+         * Delay between two reconciliations of the in-memory region turnover with the database.
+         */
+        private Duration reconcileInterval = Duration.ofMinutes(5);
+
+        public Duration getReconcileInterval() {
+            return reconcileInterval;
+        }
+
+        public void setReconcileInterval(Duration reconcileInterval) {
+            this.reconcileInterval = reconcileInterval;
+        }
+    }
+
+    public static class TabelaImport {
+
+        /**
+         * Number of inserts sent to the database in a single JDBC batch.
+         */
+        private int batchSize = 25;
+
+        /**
+         * Number of rows committed in a single transaction.
+         */
+        private int chunkSize = 1000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class DeltaSync {
+
+        /**
+         * How long changes are kept in the change log, clients with an older sync token get all the entities again.
+         */
+        private Duration retention = Duration.ofDays(7);
+
+        /**
+         * How long a change may take to commit once it is written to the change log, the sync token stays behind the
+         * changes written more recently and they are sent again with the next call. It must also cover the clock skew
+         * between the instances.
+         */
+        private Duration commitLag = Duration.ofSeconds(30);
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public Duration getCommitLag() {
+            return commitLag;
+        }
+
+        public void setCommitLag(Duration commitLag) {
+            this.commitLag = commitLag;
+        }
+    }
+
+    public static class TurnoverStream {
+
+        /**
+         * Number of events buffered per subscriber, a subscriber with a full buffer is disconnected.
+         */
+        private int bufferSize = 16;
+
+        /**
+         * Delay during which the committed changes are coalesced into a single event.
+         */
+        private Duration coalesceInterval = Duration.ofMillis(500);
+
+        /**
+         * Delay between two heartbeats sent to keep the connections open.
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(30);
+
+        /**
+         * Time after which a subscription is closed, the clients then subscribe again.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /**
+         * Number of threads sending the events to the subscribers.
+         */
+        private int senderThreads = 4;
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public Duration getCoalesceInterval() {
+            return coalesceInterval;
+        }
+
+        public void setCoalesceInterval(Duration coalesceInterval) {
+            this.coalesceInterval = coalesceInterval;
+        }
+
+        public Duration getHeartbeatInterval() {
+            return heartbeatInterval;
+        }
+
+        public void setHeartbeatInterval(Duration heartbeatInterval) {
+            this.heartbeatInterval = heartbeatInterval;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+    }
+
+    public static class TurnoverPartitions {
+
+        /**
+         * Number of months ahead of the current one whose turnover partitions are created in advance, on PostgreSQL.
+         */
+        private int monthsAhead = 3;
+
+        public int getMonthsAhead() {
+            return monthsAhead;
+        }
+
+        public void setMonthsAhead(int monthsAhead) {
+            this.monthsAhead = monthsAhead;
+        }
+    }
+
+    public static class TurnoverRollup {
+
+        /**
+         * Maximum number of queued changes processed in a single transaction by the rollup refresher.
+         */
+        private int batchSize = 1000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Directory of the Ehcache disk tiers, required as soon as a cache has one.
+         */
+        private String diskDirectory;
+
+        /**
+         * Settings of individual caches by cache name, the caches not listed use {@code jhipster.cache.ehcache}.
+         */
+        private Map<String, CacheSettings> caches = new LinkedHashMap<>();
+
+        public String getDiskDirectory() {
+            return diskDirectory;
+        }
+
+        public void setDiskDirectory(String diskDirectory) {
+            this.diskDirectory = diskDirectory;
+        }
+
+        public Map<String, CacheSettings> getCaches() {
+            return caches;
+        }
+
+        public void setCaches(Map<String, CacheSettings> caches) {
+            this.caches = caches;
+        }
+    }
+
+    public static class CacheSettings {
+
+        /**
+         * Number of entries kept on heap, {@code jhipster.cache.ehcache.max-entries} if not set.
+         */
+        private Long heapEntries;
+
+        /**
+         * Size of the off-heap tier in megabytes, none if 0. It has to fit in {@code -XX:MaxDirectMemorySize}.
+         */
+        private long offHeapMb;
+
+        /**
+         * Size of the disk tier in megabytes, none if 0. It has to be larger than the off-heap tier.
+         */
+        private long diskMb;
+
+        /**
+         * Whether the disk tier is kept across restarts.
+         */
+        private boolean diskPersistent;
+
+        /**
+         * Time an entry stays in the cache once written, {@code jhipster.cache.ehcache.time-to-live-seconds} if not set.
+         */
+        private Duration timeToLive;
+
+        /**
+         * Time an entry stays in the cache once last read or written, not used if not set. Ehcache cannot bound both: an
+         * entry read more often than that outlives its time to live.
+         */
+        private Duration timeToIdle;
+
+        public Long getHeapEntries() {
+            return heapEntries;
+        }
+
+        public void setHeapEntries(Long heapEntries) {
+            this.heapEntries = heapEntries;
+        }
+
+        public long getOffHeapMb() {
+            return offHeapMb;
+        }
+
+        public void setOffHeapMb(long offHeapMb) {
+            this.offHeapMb = offHeapMb;
+        }
+
+        public long getDiskMb() {
+            return diskMb;
+        }
+
+        public void setDiskMb(long diskMb) {
+            this.diskMb = diskMb;
+        }
+
+        public boolean isDiskPersistent() {
+            return diskPersistent;
+        }
+
+        public void setDiskPersistent(boolean diskPersistent) {
+            this.diskPersistent = diskPersistent;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public Duration getTimeToIdle() {
+            return timeToIdle;
+        }
+
+        public void setTimeToIdle(Duration timeToIdle) {
+            this.timeToIdle = timeToIdle;
+        }
+    }
+
+    public static class CacheWarmup {
+
+        /**
+         * Whether the caches are warmed up on startup, before the application reports it is ready.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of the most recently modified activated users preloaded in the users by login cache.
+         */
+        private int users = 100;
+
+        /**
+         * Number of the most recent tabelas, and of the most recent grafikons, preloaded in their entity caches.
+         */
+        private int entities = 1000;
+
+        /**
+         * Number of threads the warm-up tasks run on.
+         */
+        private int threads = 4;
+
+        /**
+         * Maximum duration of the warm-up, the application starts anyway once it is elapsed.
+         */
+        private Duration timeout = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getUsers() {
+            return users;
+        }
+
+        public void setUsers(int users) {
+            this.users = users;
+        }
+
+        public int getEntities() {
+            return entities;
+        }
+
+        public void setEntities(int entities) {
+            this.entities = entities;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class CacheInvalidation {
+
+        /**
+         * Whether the cache invalidations are broadcast to the other instances, only effective on PostgreSQL.
+         */
+        private boolean enabled = true;
+
+        /**
+         * PostgreSQL channel the invalidations are notified on, shared by all the instances.
+         */
+        private String channel = "cache_invalidation";
+
+        /**
+         * Delay between two broadcasts of the pending invalidations.
+         */
+        private Duration flushInterval = Duration.ofMillis(100);
+
+        /**
+         * Above this number of keys of a cache in a broadcast, the whole cache is cleared instead.
+         */
+        private int maxKeysPerCache = 500;
+
+        /**
+         * Delay before listening again after the listening connection was lost.
+         */
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getMaxKeysPerCache() {
+            return maxKeysPerCache;
+        }
+
+        public void setMaxKeysPerCache(int maxKeysPerCache) {
+            this.maxKeysPerCache = maxKeysPerCache;
+        }
+
+        public Duration getReconnectDelay() {
+            return reconnectDelay;
+        }
+
+        public void setReconnectDelay(Duration reconnectDelay) {
+            this.reconnectDelay = reconnectDelay;
+        }
+    }
+
+    public static class TokenCache {
+
+        /**
+         * Maximum number of validated JWT tokens kept until they expire, {@code 0} to validate every request again.
+         */
+        private int maxEntries = 10000;
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    public static class Jwt {
+
+        /**
+         * Algorithm signing the tokens: HS512 with the shared JHipster secret, or RS256, ES256 and the other RSA and EC
+         * algorithms with the rotated key ring.
+         */
+        private String algorithm = "HS512";
+
+        /**
+         * Duration a key of the ring signs the tokens, before a new one takes over.
+         */
+        private Duration rotationInterval = Duration.ofDays(30);
+
+        /**
+         * Delay between the creation of a key and the first token it signs, during which it is only published.
+         */
+        private Duration publishDelay = Duration.ofMinutes(5);
+
+        /**
+         * Delay between two reloads of the key ring, must not be longer than the publish delay.
+         */
+        private Duration reloadInterval = Duration.ofMinutes(1);
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public Duration getRotationInterval() {
+            return rotationInterval;
+        }
+
+        public void setRotationInterval(Duration rotationInterval) {
+            this.rotationInterval = rotationInterval;
+        }
+
+        public Duration getPublishDelay() {
+            return publishDelay;
+        }
+
+        public void setPublishDelay(Duration publishDelay) {
+            this.publishDelay = publishDelay;
+        }
+
+        public Duration getReloadInterval() {
+            return reloadInterval;
+        }
+
+        public void setReloadInterval(Duration reloadInterval) {
+            this.reloadInterval = reloadInterval;
+        }
+    }
+
+    public static class PasswordHashing {
+
+        /**
+         * BCrypt cost factor, the passwords hashed with another cost are hashed again on the next login.
+         */
+        private int cost = 10;
+
+        /**
+         * Number of threads hashing the passwords.
+         */
+        private int threads = 4;
+
+        /**
+         * Number of password hashes waiting for a thread, at least 1, beyond which the requests are rejected with a 503.
+         */
+        private int queueCapacity = 100;
+
+        public int getCost() {
+            return cost;
+        }
+
+        public void setCost(int cost) {
+            this.cost = cost;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public static class AuthenticationThrottling {
+
+        /**
+         * Whether the authentication attempts are limited per client address and per login.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of attempts a client address can make in a burst.
+         */
+        private int addressCapacity = 20;
+
+        /**
+         * Delay after which a client address gets one more attempt, up to its capacity.
+         */
+        private Duration addressRefillPeriod = Duration.ofSeconds(3);
+
+        /**
+         * Number of attempts which can be made in a burst for a login or email.
+         */
+        private int loginCapacity = 5;
+
+        /**
+         * Delay after which a login or email gets one more attempt, up to its capacity.
+         */
+        private Duration loginRefillPeriod = Duration.ofSeconds(20);
+
+        /**
+         * Maximum number of client addresses, and of logins, whose attempts are tracked.
+         */
+        private int maxEntries = 100000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getAddressCapacity() {
+            return addressCapacity;
+        }
+
+        public void setAddressCapacity(int addressCapacity) {
+            this.addressCapacity = addressCapacity;
+        }
+
+        public Duration getAddressRefillPeriod() {
+            return addressRefillPeriod;
+        }
+
+        public void setAddressRefillPeriod(Duration addressRefillPeriod) {
+            this.addressRefillPeriod = addressRefillPeriod;
+        }
+
+        public int getLoginCapacity() {
+            return loginCapacity;
+        }
+
+        public void setLoginCapacity(int loginCapacity) {
+            this.loginCapacity = loginCapacity;
+        }
+
+        public Duration getLoginRefillPeriod() {
+            return loginRefillPeriod;
+        }
+
+        public void setLoginRefillPeriod(Duration loginRefillPeriod) {
+            this.loginRefillPeriod = loginRefillPeriod;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    public static class ForwardedHeaders {
+
+        /**
+         * Addresses or CIDR ranges of the proxies whose forwarded headers are trusted, when the
+         * {@code server.forward-headers-strategy} is {@code framework}.
+         */
+        private List<String> trustedProxies = new ArrayList<>(
+            List.of("10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "127.0.0.0/8", "169.254.0.0/16", "::1", "fc00::/7")
+        );
+
+        public List<String> getTrustedProxies() {
+            return trustedProxies;
+        }
+
+        public void setTrustedProxies(List<String> trustedProxies) {
+            this.trustedProxies = trustedProxies;
+        }
+    }
+
+    public static class MailOutbox {
+
+        /**
+         * Number of workers sending the emails.
+         */
+        private int threads = 2;
+
+        /**
+         * Number of emails queued in memory, the others wait in the database until the queue is empty.
+         */
+        private int queueCapacity = 1000;
+
+        /**
+         * Maximum number of emails sent over a single SMTP connection.
+         */
+        private int batchSize = 50;
+
+        /**
+         * Delay between two polls of the emails due in the database.
+         */
+        private Duration pollInterval = Duration.ofSeconds(10);
+
+        /**
+         * Duration a worker has to send the emails it claimed, before they are sent again.
+         */
+        private Duration lease = Duration.ofMinutes(5);
+
+        /**
+         * Number of attempts to send an email, before it is kept as failed.
+         */
+        private int maxAttempts = 8;
+
+        /**
+         * Delay before the first retry of an email, doubled at every retry.
+         */
+        private Duration initialBackoff = Duration.ofSeconds(30);
+
+        /**
+         * Maximum delay between two retries of an email.
+         */
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+
+    public static class VirtualThreads {
+
+        /**
+         * Number of threads which may wait for a database connection, the others are rejected right away.
+         */
+        private int maxWaitingConnections = 200;
+
+        public int getMaxWaitingConnections() {
+            return maxWaitingConnections;
+        }
+
+        public void setMaxWaitingConnections(int maxWaitingConnections) {
+            this.maxWaitingConnections = maxWaitingConnections;
+        }
+    }
+}
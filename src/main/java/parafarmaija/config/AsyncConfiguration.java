@@ -8,6 +8,10 @@ import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
 import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -23,13 +27,32 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     private final TaskExecutionProperties taskExecutionProperties;
 
-    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    private final Environment env;
+
+    public AsyncConfiguration(
+        TaskExecutionProperties taskExecutionProperties,
+        ApplicationProperties applicationProperties,
+        Environment env
+    ) {
         this.taskExecutionProperties = taskExecutionProperties;
+        this.applicationProperties = applicationProperties;
+        this.env = env;
     }
 
+    /**
+     * Executor of the async tasks, which starts a virtual thread for each task with the "virtual-threads" profile.
+     */
     @Override
     @Bean(name = "taskExecutor")
     public Executor getAsyncExecutor() {
+        if (env.acceptsProfiles(Profiles.of(Constants.SPRING_PROFILE_VIRTUAL_THREADS))) {
+            log.debug("Creating Async Task Executor on virtual threads");
+            return new ExceptionHandlingAsyncTaskExecutor(
+                new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor(taskExecutionProperties.getThreadNamePrefix()))
+            );
+        }
         log.debug("Creating Async Task Executor");
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(taskExecutionProperties.getPool().getCoreSize());
@@ -39,6 +62,46 @@ public class AsyncConfiguration implements AsyncConfigurer {
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
 
+    /**
+     * Executor sending the turnover stream events, kept apart so that slow clients cannot hold the async task threads.
+     */
+    @Bean(name = "turnoverStreamExecutor")
+    public Executor turnoverStreamExecutor() {
+        log.debug("Creating Turnover Stream Task Executor");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(applicationProperties.getTurnoverStream().getSenderThreads());
+        executor.setMaxPoolSize(applicationProperties.getTurnoverStream().getSenderThreads());
+        executor.setThreadNamePrefix("turnover-stream-");
+        return new ExceptionHandlingAsyncTaskExecutor(executor);
+    }
+
+    /**
+     * Executor hashing the passwords, bounded so that login bursts cannot take all the CPU from the other requests.
+     */
+    @Bean(name = "passwordHashingExecutor")
+    public AsyncTaskExecutor passwordHashingExecutor() {
+        log.debug("Creating Password Hashing Task Executor");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(applicationProperties.getPasswordHashing().getThreads());
+        executor.setMaxPoolSize(applicationProperties.getPasswordHashing().getThreads());
+        executor.setQueueCapacity(applicationProperties.getPasswordHashing().getQueueCapacity());
+        executor.setThreadNamePrefix("password-hashing-");
+        return new ExceptionHandlingAsyncTaskExecutor(executor);
+    }
+
+    /**
+     * Executor running the workers of the mail outbox, kept apart so that email bursts cannot hold the async task threads.
+     */
+    @Bean(name = "mailOutboxExecutor")
+    public Executor mailOutboxExecutor() {
+        log.debug("Creating Mail Outbox Task Executor");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(applicationProperties.getMailOutbox().getThreads());
+        executor.setMaxPoolSize(applicationProperties.getMailOutbox().getThreads());
+        executor.setThreadNamePrefix("mail-outbox-");
+        return new ExceptionHandlingAsyncTaskExecutor(executor);
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
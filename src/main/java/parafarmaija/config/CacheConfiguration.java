@@ -1,9 +1,16 @@
 package parafarmaija.config;
 
+import java.io.File;
 import java.time.Duration;
+import javax.cache.Caching;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
@@ -15,24 +22,46 @@ import org.springframework.context.annotation.*;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
 
+/**
+ * Configuration of the Ehcache caches, through JCache.
+ * <p>
+ * Every cache is sized from {@code jhipster.cache.ehcache} unless it has its own settings under
+ * {@code application.cache.caches}: heap entries, off-heap and disk tiers, time to live and time to idle. The cache
+ * manager is created here rather than by Spring Boot, so that it gets the persistence directory the disk tiers need.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfiguration {
 
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cacheProperties;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
+    }
 
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+    @Bean
+    public javax.cache.CacheManager jCacheCacheManager(ObjectProvider<JCacheManagerCustomizer> cacheManagerCustomizers) {
+        cacheProperties
+            .getCaches()
+            .forEach((cacheName, settings) -> {
+                if (settings.getDiskMb() > 0 && cacheProperties.getDiskDirectory() == null) {
+                    throw new IllegalStateException(
+                        "The " + cacheName + " cache has a disk tier but application.cache.disk-directory is not set"
+                    );
+                }
+            });
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        ConfigurationBuilder configuration = ConfigurationBuilder.newConfigurationBuilder();
+        if (cacheProperties.getDiskDirectory() != null) {
+            configuration = configuration.withService(new DefaultPersistenceConfiguration(new File(cacheProperties.getDiskDirectory())));
+        }
+        javax.cache.CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), configuration.build());
+        cacheManagerCustomizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+        return cacheManager;
     }
 
     @Bean
@@ -45,11 +74,17 @@ public class CacheConfiguration {
         return cm -> {
             createCache(cm, parafarmaija.repository.UserRepository.USERS_BY_LOGIN_CACHE);
             createCache(cm, parafarmaija.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, parafarmaija.repository.UserRepository.UNKNOWN_LOGINS_CACHE);
+            createCache(cm, parafarmaija.repository.UserRepository.UNKNOWN_EMAILS_CACHE);
             createCache(cm, parafarmaija.domain.User.class.getName());
             createCache(cm, parafarmaija.domain.Authority.class.getName());
             createCache(cm, parafarmaija.domain.User.class.getName() + ".authorities");
             createCache(cm, parafarmaija.domain.Grafikon.class.getName());
             createCache(cm, parafarmaija.domain.Tabela.class.getName());
+            createCache(cm, parafarmaija.domain.Region.class.getName());
+            createCache(cm, parafarmaija.service.QueryResultCache.TABELA_PAGES_CACHE);
+            createCache(cm, parafarmaija.service.QueryResultCache.GRAFIKON_PAGES_CACHE);
+            createCache(cm, parafarmaija.service.QueryResultCache.TURNOVER_AGGREGATES_CACHE);
             // jhipster-needle-ehcache-add-entry
         };
     }
@@ -59,8 +94,37 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, jcacheConfiguration(cacheName));
+        }
+    }
+
+    private javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(String cacheName) {
+        ApplicationProperties.CacheSettings settings = cacheProperties
+            .getCaches()
+            .getOrDefault(cacheName, new ApplicationProperties.CacheSettings());
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(
+            settings.getHeapEntries() != null ? settings.getHeapEntries() : ehcache.getMaxEntries()
+        );
+        if (settings.getOffHeapMb() > 0) {
+            resourcePools = resourcePools.offheap(settings.getOffHeapMb(), MemoryUnit.MB);
+        }
+        if (settings.getDiskMb() > 0) {
+            resourcePools = resourcePools.disk(settings.getDiskMb(), MemoryUnit.MB, settings.isDiskPersistent());
+        }
+        Duration timeToLive = settings.getTimeToLive() != null
+            ? settings.getTimeToLive()
+            : Duration.ofSeconds(ehcache.getTimeToLiveSeconds());
+        ExpiryPolicy<Object, Object> expiry;
+        if (settings.getTimeToIdle() == null) {
+            expiry = ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive);
+        } else {
+            Duration timeToIdle = settings.getTimeToIdle();
+            Duration firstExpiry = timeToIdle.compareTo(timeToLive) < 0 ? timeToIdle : timeToLive;
+            expiry = ExpiryPolicyBuilder.expiry().create(firstExpiry).update(firstExpiry).access(timeToIdle).build();
         }
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, resourcePools).withExpiry(expiry).build()
+        );
     }
 
     @Autowired(required = false)
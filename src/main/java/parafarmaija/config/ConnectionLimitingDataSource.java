@@ -0,0 +1,144 @@
+package parafarmaija.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Data source bounding the number of threads holding or waiting for a connection of its target.
+ * <p>
+ * Virtual threads are not bounded by a thread pool, so without it any number of them could pile up inside the
+ * connection pool and the JDBC driver. At most {@code maxConnections} connections are open at once, a thread waits
+ * for one up to the timeout, and is rejected right away when {@code maxWaiting} threads are already waiting.
+ * <p>
+ * Waiting threads are measured by the {@value #WAITING_METER_NAME} gauge, and rejected ones counted by the
+ * {@value #REJECTED_METER_NAME} meter.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    public static final String WAITING_METER_NAME = "jdbc.connections.limiter.waiting";
+
+    public static final String REJECTED_METER_NAME = "jdbc.connections.limiter.rejected";
+
+    private final Semaphore permits;
+
+    private final long timeoutNanos;
+
+    private final int maxWaiting;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Counter rejected;
+
+    public ConnectionLimitingDataSource(
+        DataSource targetDataSource,
+        int maxConnections,
+        Duration timeout,
+        int maxWaiting,
+        MeterRegistry meterRegistry
+    ) {
+        super(targetDataSource);
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("At least one connection must be allowed, not " + maxConnections);
+        }
+        this.permits = new Semaphore(maxConnections, true);
+        this.timeoutNanos = timeout.toNanos();
+        this.maxWaiting = maxWaiting;
+        Gauge.builder(WAITING_METER_NAME, waiting, AtomicInteger::get).register(meterRegistry);
+        this.rejected = meterRegistry.counter(REJECTED_METER_NAME);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            throw new SQLTransientConnectionException("More than " + maxWaiting + " threads are waiting for a connection");
+        }
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                rejected.increment();
+                throw new SQLTransientConnectionException(
+                    "Connection is not available, request timed out after " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms"
+                );
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionLimitingDataSource.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "close":
+                        if (closed.compareAndSet(false, true)) {
+                            try {
+                                return invoke(connection, method, args);
+                            } finally {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    default:
+                        return invoke(connection, method, args);
+                }
+            }
+        );
+    }
+
+    private static Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package parafarmaija.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+
+/**
+ * Configuration of the R2DBC connections of the reactive read endpoints, from the {@code spring.r2dbc} properties.
+ * <p>
+ * They read the same schema as JPA, which keeps all the writes. The pool is kept out of the context: Spring Boot does
+ * not configure the JDBC data source when there is an R2DBC {@link ConnectionFactory} bean, which is also why the
+ * R2DBC auto-configuration is excluded.
+ * <p>
+ * Without {@code spring.r2dbc.url}, the connections are made to the JDBC data source, with its credentials: Heroku for
+ * instance only provides the JDBC url.
+ */
+@Configuration
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveDatabaseConfiguration implements DisposableBean {
+
+    private static final String JDBC_URL_PREFIX = "jdbc:";
+
+    private static final String R2DBC_URL_PREFIX = "r2dbc:";
+
+    private final Logger log = LoggerFactory.getLogger(ReactiveDatabaseConfiguration.class);
+
+    private final ConnectionPool connectionPool;
+
+    public ReactiveDatabaseConfiguration(R2dbcProperties properties, DataSourceProperties dataSourceProperties) {
+        String url = properties.getUrl();
+        String username = properties.getUsername();
+        String password = properties.getPassword();
+        if (!StringUtils.hasText(url)) {
+            url = toR2dbcUrl(dataSourceProperties.getUrl());
+            username = dataSourceProperties.getUsername();
+            password = dataSourceProperties.getPassword();
+        }
+        if (!StringUtils.hasText(url)) {
+            throw new IllegalStateException("spring.r2dbc.url or spring.datasource.url must be set for the reactive read endpoints");
+        }
+        log.debug("Configuring R2DBC connection pool for {}", url);
+        ConnectionFactoryBuilder builder = ConnectionFactoryBuilder.withUrl(url);
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(username).to(builder::username);
+        map.from(password).to(builder::password);
+        R2dbcProperties.Pool pool = properties.getPool();
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration.builder(builder.build()).name("R2dbc");
+        map.from(pool.getInitialSize()).to(configuration::initialSize);
+        map.from(pool.getMaxSize()).to(configuration::maxSize);
+        map.from(pool.getMaxIdleTime()).to(configuration::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(configuration::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(configuration::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(configuration::maxCreateConnectionTime);
+        map.from(pool.getValidationQuery()).whenHasText().to(configuration::validationQuery);
+        map.from(pool.getValidationDepth()).to(configuration::validationDepth);
+        this.connectionPool = new ConnectionPool(configuration.build());
+    }
+
+    /**
+     * Convert a PostgreSQL JDBC url to the R2DBC url of the same database.
+     *
+     * @param jdbcUrl the JDBC url, such as {@code jdbc:postgresql://host:5432/database?sslmode=require}.
+     * @return the R2DBC url, or {@code null} if it is not a JDBC url.
+     */
+    static String toR2dbcUrl(String jdbcUrl) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith(JDBC_URL_PREFIX)) {
+            return null;
+        }
+        // The PostgreSQL driver names the option sslMode, unlike the JDBC one
+        return R2DBC_URL_PREFIX + jdbcUrl.substring(JDBC_URL_PREFIX.length()).replace("sslmode=", "sslMode=");
+    }
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,43 @@
+package parafarmaija.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the virtual threads of Java 21 and later, through reflection as the application is compiled for Java 11.
+ */
+final class VirtualThreads {
+
+    private static final int MINIMUM_JAVA_VERSION = 21;
+
+    private VirtualThreads() {}
+
+    static boolean isSupported() {
+        return Runtime.version().feature() >= MINIMUM_JAVA_VERSION;
+    }
+
+    /**
+     * Create an executor starting a new virtual thread for each task.
+     *
+     * @param namePrefix the prefix of the names of the threads, followed by their number.
+     * @return the executor.
+     * @throws IllegalStateException if the Java runtime has no virtual threads.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException(
+                "Virtual threads need Java " + MINIMUM_JAVA_VERSION + " or later, this is Java " + Runtime.version().feature()
+            );
+        }
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+}
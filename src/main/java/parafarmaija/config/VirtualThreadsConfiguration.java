@@ -0,0 +1,74 @@
+package parafarmaija.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuration of the "virtual-threads" profile, which runs the requests and the async tasks on virtual threads.
+ * <p>
+ * Undertow dispatches each request to a new virtual thread instead of its worker pool, and the async task executor
+ * is configured by {@link AsyncConfiguration}. As the number of threads is not bounded anymore, the Hikari data source
+ * is wrapped in a {@link ConnectionLimitingDataSource}, bounded by the size of the pool and its connection timeout.
+ */
+@Configuration
+@Profile(Constants.SPRING_PROFILE_VIRTUAL_THREADS)
+public class VirtualThreadsConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(VirtualThreadsConfiguration.class);
+
+    // Size of the Hikari pool when it is not configured, as Hikari only resolves it once the pool is started
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean(name = "requestExecutor")
+    public ExecutorService requestExecutor() {
+        log.debug("Creating Request Executor on virtual threads");
+        return VirtualThreads.newThreadPerTaskExecutor("request-");
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> virtualThreadsUndertowCustomizer(
+        @Qualifier("requestExecutor") ExecutorService requestExecutor
+    ) {
+        return factory ->
+            factory.addDeploymentInfoCustomizers(deploymentInfo -> {
+                deploymentInfo.setExecutor(requestExecutor);
+                deploymentInfo.setAsyncExecutor(requestExecutor);
+            });
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+        ObjectProvider<ApplicationProperties> applicationProperties,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource)) {
+                    return bean;
+                }
+                HikariDataSource dataSource = (HikariDataSource) bean;
+                int maximumPoolSize = dataSource.getMaximumPoolSize() > 0 ? dataSource.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+                return new ConnectionLimitingDataSource(
+                    dataSource,
+                    maximumPoolSize,
+                    Duration.ofMillis(dataSource.getConnectionTimeout()),
+                    applicationProperties.getObject().getVirtualThreads().getMaxWaitingConnections(),
+                    meterRegistry.getObject()
+                );
+            }
+        };
+    }
+}
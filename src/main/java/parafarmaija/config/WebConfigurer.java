@@ -5,20 +5,25 @@ import static java.net.URLDecoder.decode;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.List;
 import javax.servlet.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.server.*;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.boot.web.servlet.server.ConfigurableServletWebServerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
+import parafarmaija.web.filter.TrustedProxiesForwardedHeaderFilter;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.JHipsterProperties;
 
@@ -96,4 +101,23 @@ public class WebConfigurer implements ServletContextInitializer, WebServerFactor
         }
         return new CorsFilter(source);
     }
+
+    /**
+     * Handle the forwarded headers of the trusted proxies only, instead of the {@link
+     * org.springframework.web.filter.ForwardedHeaderFilter} Spring Boot registers with the {@code framework} strategy.
+     */
+    @Bean
+    @ConditionalOnProperty(value = "server.forward-headers-strategy", havingValue = "framework")
+    public FilterRegistrationBean<TrustedProxiesForwardedHeaderFilter> trustedProxiesForwardedHeaderFilter(
+        ApplicationProperties applicationProperties
+    ) {
+        List<String> trustedProxies = applicationProperties.getForwardedHeaders().getTrustedProxies();
+        log.debug("Registering forwarded headers filter, trusting the proxies {}", trustedProxies);
+        FilterRegistrationBean<TrustedProxiesForwardedHeaderFilter> registration = new FilterRegistrationBean<>(
+            new TrustedProxiesForwardedHeaderFilter(trustedProxies)
+        );
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC, DispatcherType.ERROR);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
 }
@@ -0,0 +1,91 @@
+package parafarmaija.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+
+/**
+ * An entry of the change log, recording that an entity was inserted, updated or deleted.
+ * <p>
+ * The ids are increasing, so the id of the last entry read is used as the sync token of delta-sync clients.
+ */
+@Entity
+@Table(name = "entity_change")
+public class EntityChange implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "entity_name", length = 50, nullable = false)
+    private String entityName;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public void setEntityName(String entityName) {
+        this.entityName = entityName;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EntityChange)) {
+            return false;
+        }
+        return id != null && id.equals(((EntityChange) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "EntityChange{" +
+            "id=" + getId() +
+            ", entityName='" + getEntityName() + "'" +
+            ", entityId=" + getEntityId() +
+            ", changedAt='" + getChangedAt() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,138 @@
+package parafarmaija.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+
+/**
+ * A key of the JWT key ring, signing the tokens between {@code activeFrom} and {@code activeUntil}, and verifying
+ * them until {@code expiresAt}.
+ * <p>
+ * The private key is stored encrypted, the public key is published on the JWKS endpoint.
+ */
+@Entity
+@Table(name = "jwt_signing_key")
+public class JwtSigningKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "kid", length = 36, nullable = false, unique = true, updatable = false)
+    private String kid;
+
+    @Column(name = "algorithm", length = 10, nullable = false, updatable = false)
+    private String algorithm;
+
+    @Column(name = "public_key", length = 4000, nullable = false, updatable = false)
+    private String publicKey;
+
+    @Column(name = "private_key", length = 4000, nullable = false, updatable = false)
+    private String privateKey;
+
+    @Column(name = "active_from", nullable = false)
+    private Instant activeFrom;
+
+    @Column(name = "active_until", nullable = false)
+    private Instant activeUntil;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getKid() {
+        return kid;
+    }
+
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public String getPrivateKey() {
+        return privateKey;
+    }
+
+    public void setPrivateKey(String privateKey) {
+        this.privateKey = privateKey;
+    }
+
+    public Instant getActiveFrom() {
+        return activeFrom;
+    }
+
+    public void setActiveFrom(Instant activeFrom) {
+        this.activeFrom = activeFrom;
+    }
+
+    public Instant getActiveUntil() {
+        return activeUntil;
+    }
+
+    public void setActiveUntil(Instant activeUntil) {
+        this.activeUntil = activeUntil;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof JwtSigningKey)) {
+            return false;
+        }
+        return id != null && id.equals(((JwtSigningKey) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "JwtSigningKey{" +
+            "id=" + getId() +
+            ", kid='" + getKid() + "'" +
+            ", algorithm='" + getAlgorithm() + "'" +
+            ", activeFrom='" + getActiveFrom() + "'" +
+            ", activeUntil='" + getActiveUntil() + "'" +
+            ", expiresAt='" + getExpiresAt() + "'" +
+            "}";
+    }
+}
@@ -1,5 +1,8 @@
 package parafarmaija.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import java.io.Serializable;
 import javax.persistence.*;
 import org.hibernate.annotations.Cache;
@@ -8,6 +11,7 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 /**
  * A Tabela.
  */
+@JsonPropertyOrder({ "id", "region", "promet", "version" })
 @Entity
 @Table(name = "tabela")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
@@ -21,12 +25,18 @@ public class Tabela implements Serializable {
     @Column(name = "id")
     private Long id;
 
-    @Column(name = "region")
-    private String region;
+    @ManyToOne
+    @JoinColumn(name = "region_id")
+    @JsonIgnore
+    private Region region;
 
     @Column(name = "promet")
     private Integer promet;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -42,19 +52,42 @@ public class Tabela implements Serializable {
         this.id = id;
     }
 
-    public String getRegion() {
+    @JsonIgnore
+    public Region getRegion() {
         return this.region;
     }
 
-    public Tabela region(String region) {
+    public Tabela region(Region region) {
         this.setRegion(region);
         return this;
     }
 
-    public void setRegion(String region) {
+    @JsonIgnore
+    public void setRegion(Region region) {
         this.region = region;
     }
 
+    /**
+     * Get the name of the region, which is what the REST API exposes as {@code region}.
+     */
+    @JsonProperty("region")
+    public String getRegionName() {
+        return this.region == null ? null : this.region.getName();
+    }
+
+    public Tabela regionName(String regionName) {
+        this.setRegionName(regionName);
+        return this;
+    }
+
+    /**
+     * Set the region by name. The region is not resolved yet, this is done when the tabela is saved.
+     */
+    @JsonProperty("region")
+    public void setRegionName(String regionName) {
+        this.region = regionName == null ? null : new Region().name(regionName);
+    }
+
     public Integer getPromet() {
         return this.promet;
     }
@@ -68,6 +101,19 @@ public class Tabela implements Serializable {
         this.promet = promet;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Tabela version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -92,8 +138,9 @@ public class Tabela implements Serializable {
     public String toString() {
         return "Tabela{" +
             "id=" + getId() +
-            ", region='" + getRegion() + "'" +
+            ", region='" + getRegionName() + "'" +
             ", promet=" + getPromet() +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,148 @@
+package parafarmaija.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import java.io.Serializable;
+import java.time.LocalDate;
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A TurnoverEntry, the turnover of a region on a given date.
+ * <p>
+ * On PostgreSQL the table is partitioned by month of {@code entry_date}, so queries should always bound the date.
+ */
+@JsonPropertyOrder({ "id", "region", "entryDate", "amount" })
+@Entity
+@Table(name = "turnover_entry")
+public class TurnoverEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    @Column(name = "id")
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "region_id")
+    @JsonIgnore
+    private Region region;
+
+    @NotNull
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate entryDate;
+
+    @NotNull
+    @Column(name = "amount", nullable = false)
+    private Long amount;
+
+    // jhipster-needle-entity-add-field - JHipster will add fields here
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public TurnoverEntry id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @JsonIgnore
+    public Region getRegion() {
+        return this.region;
+    }
+
+    public TurnoverEntry region(Region region) {
+        this.setRegion(region);
+        return this;
+    }
+
+    @JsonIgnore
+    public void setRegion(Region region) {
+        this.region = region;
+    }
+
+    /**
+     * Get the name of the region, which is what the REST API exposes as {@code region}.
+     */
+    @JsonProperty("region")
+    public String getRegionName() {
+        return this.region == null ? null : this.region.getName();
+    }
+
+    public TurnoverEntry regionName(String regionName) {
+        this.setRegionName(regionName);
+        return this;
+    }
+
+    /**
+     * Set the region by name. The region is not resolved yet, this is done when the entry is saved.
+     */
+    @JsonProperty("region")
+    public void setRegionName(String regionName) {
+        this.region = regionName == null ? null : new Region().name(regionName);
+    }
+
+    public LocalDate getEntryDate() {
+        return this.entryDate;
+    }
+
+    public TurnoverEntry entryDate(LocalDate entryDate) {
+        this.setEntryDate(entryDate);
+        return this;
+    }
+
+    public void setEntryDate(LocalDate entryDate) {
+        this.entryDate = entryDate;
+    }
+
+    public Long getAmount() {
+        return this.amount;
+    }
+
+    public TurnoverEntry amount(Long amount) {
+        this.setAmount(amount);
+        return this;
+    }
+
+    public void setAmount(Long amount) {
+        this.amount = amount;
+    }
+
+    // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TurnoverEntry)) {
+            return false;
+        }
+        return id != null && id.equals(((TurnoverEntry) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TurnoverEntry{" +
+            "id=" + getId() +
+            ", region='" + getRegionName() + "'" +
+            ", entryDate='" + getEntryDate() + "'" +
+            ", amount=" + getAmount() +
+            "}";
+    }
+}
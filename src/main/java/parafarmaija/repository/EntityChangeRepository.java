@@ -0,0 +1,67 @@
+package parafarmaija.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import parafarmaija.domain.EntityChange;
+
+/**
+ * Spring Data SQL repository for the EntityChange entity.
+ */
+@Repository
+public interface EntityChangeRepository extends JpaRepository<EntityChange, Long> {
+    /**
+     * Get the id of the last change written to the log, which may not be committed yet.
+     */
+    @Query("select max(entityChange.id) from EntityChange entityChange")
+    Optional<Long> findLastId();
+
+    /**
+     * Get the id of the last change written to the log until a date.
+     *
+     * @param date the date after which changes are ignored.
+     * @return the id of the last change written until the date.
+     */
+    @Query("select max(entityChange.id) from EntityChange entityChange where entityChange.changedAt <= :date")
+    Optional<Long> findLastIdUntil(@Param("date") Instant date);
+
+    /**
+     * Get the id of the first change still in the log.
+     */
+    @Query("select min(entityChange.id) from EntityChange entityChange")
+    Optional<Long> findFirstId();
+
+    /**
+     * Get the ids of the entities of a type changed in a range of the change log.
+     *
+     * @param entityName the name of the entity type.
+     * @param after the id of the last change already read, excluded.
+     * @param until the id of the last change to read, included.
+     * @return the distinct ids of the changed entities.
+     */
+    @Query(
+        "select distinct entityChange.entityId from EntityChange entityChange where entityChange.entityName = :entityName " +
+        "and entityChange.id > :after and entityChange.id <= :until"
+    )
+    List<Long> findChangedEntityIds(
+        @Param("entityName") String entityName,
+        @Param("after") Long after,
+        @Param("until") Long until
+    );
+
+    /**
+     * Delete the changes older than a date, always keeping the last one so that the range of the log stays known.
+     *
+     * @param date the date before which changes are deleted.
+     * @return the number of deleted changes.
+     */
+    @Modifying
+    @Query(
+        "delete from EntityChange entityChange where entityChange.changedAt < :date " +
+        "and entityChange.id < (select max(lastChange.id) from EntityChange lastChange)"
+    )
+    int deleteByChangedAtBefore(@Param("date") Instant date);
+}
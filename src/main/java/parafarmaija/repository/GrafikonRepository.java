@@ -1,5 +1,13 @@
 package parafarmaija.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 import parafarmaija.domain.Grafikon;
@@ -9,4 +17,30 @@ import parafarmaija.domain.Grafikon;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface GrafikonRepository extends JpaRepository<Grafikon, Long> {}
+public interface GrafikonRepository extends GrafikonRepositoryWithConditionalUpdates, JpaRepository<Grafikon, Long> {
+    /**
+     * Get a page of grafikons, without counting them.
+     */
+    Slice<Grafikon> findAllBy(Pageable pageable);
+
+    /**
+     * Get a page of the grafikons with an id greater than the given one, without counting them.
+     */
+    Slice<Grafikon> findAllByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * Stream all the grafikons in id order through a forward-only cursor.
+     * <p>
+     * The rows are fetched from the database in batches, read-only and without going through the second-level cache.
+     * The stream must be consumed inside a transaction, and closed.
+     */
+    @Query("select grafikon from Grafikon grafikon left join fetch grafikon.region order by grafikon.id")
+    @QueryHints(
+        {
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"),
+        }
+    )
+    Stream<Grafikon> streamAll();
+}
@@ -0,0 +1,42 @@
+package parafarmaija.repository;
+
+import java.util.Collection;
+import parafarmaija.domain.Grafikon;
+
+/**
+ * Single-statement updates of the Grafikon entity.
+ * <p>
+ * The updates increment the version of the grafikon. When the new version is known without reading the row back, that is
+ * when a single version was expected, it is set on the given grafikon, otherwise its version is reset to {@code null}.
+ */
+public interface GrafikonRepositoryWithConditionalUpdates {
+    /**
+     * Overwrite all the columns of an existing grafikon with a single {@code UPDATE ... WHERE id = ?}, without loading it first.
+     *
+     * @param grafikon the new state of the grafikon, with its id.
+     * @return the number of updated rows, {@code 0} if there is no grafikon with this id.
+     */
+    default int updateIfExists(Grafikon grafikon) {
+        return updateIfExists(grafikon, null);
+    }
+
+    /**
+     * Overwrite all the columns of an existing grafikon with a single {@code UPDATE ... WHERE id = ? AND version IN (...)},
+     * without loading it first.
+     *
+     * @param grafikon the new state of the grafikon, with its id.
+     * @param expectedVersions the versions the grafikon may have, or {@code null} to update it whatever its version.
+     * @return the number of updated rows, {@code 0} if there is no grafikon with this id and one of these versions.
+     */
+    int updateIfExists(Grafikon grafikon, Collection<Long> expectedVersions);
+
+    /**
+     * Overwrite the non-null columns of an existing grafikon with a single {@code UPDATE ... WHERE id = ?}, without loading
+     * it first.
+     *
+     * @param grafikon the columns to update, with the id of the grafikon.
+     * @param expectedVersions the versions the grafikon may have, or {@code null} to update it whatever its version.
+     * @return the number of updated rows, {@code 0} if there is no grafikon with this id and one of these versions.
+     */
+    int partialUpdateIfExists(Grafikon grafikon, Collection<Long> expectedVersions);
+}
@@ -0,0 +1,145 @@
+package parafarmaija.repository;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.TypedParameterValue;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import parafarmaija.domain.Grafikon;
+
+/**
+ * Implementation of {@link GrafikonRepositoryWithConditionalUpdates}.
+ * <p>
+ * The statements are native so that Hibernate does not invalidate the whole Grafikon region of the second-level cache, as
+ * it does for bulk HQL statements: only the entry of the updated grafikon is evicted, now and once the transaction commits,
+ * so that a concurrent read cannot put the previous state back. An instance of the grafikon already loaded in the
+ * persistence context is refreshed.
+ * <p>
+ * Every update increments the optimistic locking version of the grafikon. A region given by name only is resolved first.
+ */
+public class GrafikonRepositoryWithConditionalUpdatesImpl implements GrafikonRepositoryWithConditionalUpdates {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final RegionRepository regionRepository;
+
+    public GrafikonRepositoryWithConditionalUpdatesImpl(RegionRepository regionRepository) {
+        this.regionRepository = regionRepository;
+    }
+
+    @Override
+    @Transactional
+    public int updateIfExists(Grafikon grafikon, Collection<Long> expectedVersions) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("region_id", regionId(grafikon));
+        columns.put("promet", grafikon.getPromet());
+        return update(grafikon, columns, expectedVersions);
+    }
+
+    @Override
+    @Transactional
+    public int partialUpdateIfExists(Grafikon grafikon, Collection<Long> expectedVersions) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        if (grafikon.getRegion() != null) {
+            columns.put("region_id", regionId(grafikon));
+        }
+        if (grafikon.getPromet() != null) {
+            columns.put("promet", grafikon.getPromet());
+        }
+        if (columns.isEmpty()) {
+            // Nothing to write, only tell whether the grafikon exists.
+            grafikon.setVersion(null);
+            String jpql = "select count(grafikon) from Grafikon grafikon where grafikon.id = :id";
+            if (expectedVersions == null) {
+                return entityManager.createQuery(jpql, Long.class).setParameter("id", grafikon.getId()).getSingleResult().intValue();
+            }
+            if (expectedVersions.isEmpty()) {
+                return 0;
+            }
+            return entityManager
+                .createQuery(jpql + " and grafikon.version in :versions", Long.class)
+                .setParameter("id", grafikon.getId())
+                .setParameter("versions", expectedVersions)
+                .getSingleResult()
+                .intValue();
+        }
+        return update(grafikon, columns, expectedVersions);
+    }
+
+    private int update(Grafikon grafikon, Map<String, Object> columns, Collection<Long> expectedVersions) {
+        grafikon.setVersion(null);
+        if (expectedVersions != null && expectedVersions.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("update grafikon set ");
+        columns.keySet().forEach(column -> sql.append(column).append(" = :").append(column).append(", "));
+        sql.append("version = version + 1 where id = :id");
+        if (expectedVersions != null) {
+            sql.append(" and version in (:versions)");
+        }
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        columns.forEach(query::setParameter);
+        query.setParameter("id", grafikon.getId());
+        if (expectedVersions != null) {
+            query.setParameter("versions", expectedVersions);
+        }
+        // A query space matching no entity keeps Hibernate from evicting every cached grafikon.
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace("");
+        int updated = query.executeUpdate();
+        if (updated > 0) {
+            if (expectedVersions != null && expectedVersions.size() == 1) {
+                grafikon.setVersion(expectedVersions.iterator().next() + 1);
+            }
+            refreshIfManaged(grafikon.getId());
+            evict(grafikon.getId());
+        }
+        return updated;
+    }
+
+    /**
+     * Get the id of the region of the grafikon, as a typed parameter so that no region is bound as a {@code bigint} null.
+     */
+    private TypedParameterValue regionId(Grafikon grafikon) {
+        if (grafikon.getRegion() != null && grafikon.getRegion().getId() == null) {
+            grafikon.setRegion(regionRepository.getOrCreate(grafikon.getRegion().getName()));
+        }
+        return new TypedParameterValue(StandardBasicTypes.LONG, grafikon.getRegion() == null ? null : grafikon.getRegion().getId());
+    }
+
+    /**
+     * Keep an instance of the grafikon already loaded in the persistence context in sync with the updated row.
+     */
+    private void refreshIfManaged(Long id) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityKey key = session.generateEntityKey(id, session.getFactory().getMetamodel().entityPersister(Grafikon.class));
+        Object managed = session.getPersistenceContextInternal().getEntity(key);
+        if (managed != null) {
+            entityManager.refresh(managed);
+        }
+    }
+
+    private void evict(Long id) {
+        entityManager.getEntityManagerFactory().getCache().evict(Grafikon.class, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        entityManager.getEntityManagerFactory().getCache().evict(Grafikon.class, id);
+                    }
+                }
+            );
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package parafarmaija.repository;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+import parafarmaija.domain.JwtSigningKey;
+
+/**
+ * Spring Data SQL repository for the JwtSigningKey entity.
+ */
+@Repository
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, Long> {
+    List<JwtSigningKey> findAllByExpiresAtAfterOrderByActiveFromAsc(Instant instant);
+
+    List<JwtSigningKey> findAllByExpiresAtBefore(Instant instant);
+}
@@ -0,0 +1,34 @@
+package parafarmaija.repository;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import parafarmaija.domain.MailOutboxMessage;
+
+/**
+ * Spring Data SQL repository for the MailOutboxMessage entity.
+ */
+@Repository
+public interface MailOutboxMessageRepository extends JpaRepository<MailOutboxMessage, Long> {
+    @Query("select m.id from MailOutboxMessage m where m.failed = false and m.nextAttemptAt <= :now order by m.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Claim a message for sending, so that no other worker sends it before the end of the lease.
+     *
+     * @return {@code 1} if the message was claimed, {@code 0} if it is not due anymore.
+     */
+    @Modifying
+    @Query(
+        "update MailOutboxMessage m set m.nextAttemptAt = :leaseEnd where m.id = :id and m.failed = false and m.nextAttemptAt <= :now"
+    )
+    int claim(@Param("id") Long id, @Param("now") Instant now, @Param("leaseEnd") Instant leaseEnd);
+
+    long countByFailedIsFalse();
+
+    @Query("select min(m.createdDate) from MailOutboxMessage m where m.failed = false")
+    Instant findOldestPendingCreatedDate();
+}
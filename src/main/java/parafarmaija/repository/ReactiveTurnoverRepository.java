@@ -0,0 +1,207 @@
+package parafarmaija.repository;
+
+import io.r2dbc.spi.Row;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import parafarmaija.domain.Grafikon;
+import parafarmaija.domain.Tabela;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive, read-only SQL repository for the tabelas and grafikons, on the R2DBC connections.
+ * <p>
+ * It does not take part in the JPA transactions, so it only reads committed rows. The region of a row is joined by
+ * the queries, so the entities it returns carry the name of their region, but not its id.
+ */
+@Repository
+public class ReactiveTurnoverRepository {
+
+    private static final String TABELA_TABLE = "tabela";
+
+    private static final String GRAFIKON_TABLE = "grafikon";
+
+    private static final String SELECT =
+        "select e.id, e.promet, e.version, r.name as region from %s e left join region r on r.id = e.region_id";
+
+    private static final String AGGREGATE =
+        "select r.name as region, count(e.promet) as promet_count, coalesce(sum(e.promet), 0) as promet_sum, " +
+        "min(e.promet) as promet_min, max(e.promet) as promet_max, avg(cast(e.promet as double precision)) as promet_average " +
+        "from %s e left join region r on r.id = e.region_id group by e.region_id, r.name order by r.name nulls first";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveTurnoverRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Get a page of tabelas in id order, after the given id.
+     *
+     * @param afterId the id of the last tabela already read, or an empty {@link Optional} for the first page.
+     * @param limit the maximum number of tabelas.
+     * @return the tabelas.
+     */
+    public Flux<Tabela> findTabelasAfter(Optional<Long> afterId, int limit) {
+        return findAfter(TABELA_TABLE, afterId, limit, ReactiveTurnoverRepository::toTabela);
+    }
+
+    public Mono<Tabela> findTabela(Long id) {
+        return findById(TABELA_TABLE, id, ReactiveTurnoverRepository::toTabela);
+    }
+
+    /**
+     * Stream all the tabelas in id order, as they are read from the database.
+     */
+    public Flux<Tabela> streamTabelas() {
+        return databaseClient
+            .sql(String.format(SELECT, TABELA_TABLE) + " order by e.id")
+            .map(ReactiveTurnoverRepository::toTabela)
+            .all();
+    }
+
+    /**
+     * Get the turnover of the tabelas aggregated per region, ordered by region.
+     */
+    public Flux<RegionTurnover> aggregateTabelasByRegion() {
+        return aggregateByRegion(TABELA_TABLE);
+    }
+
+    /**
+     * Get a page of grafikons in id order, after the given id.
+     *
+     * @param afterId the id of the last grafikon already read, or an empty {@link Optional} for the first page.
+     * @param limit the maximum number of grafikons.
+     * @return the grafikons.
+     */
+    public Flux<Grafikon> findGrafikonsAfter(Optional<Long> afterId, int limit) {
+        return findAfter(GRAFIKON_TABLE, afterId, limit, ReactiveTurnoverRepository::toGrafikon);
+    }
+
+    public Mono<Grafikon> findGrafikon(Long id) {
+        return findById(GRAFIKON_TABLE, id, ReactiveTurnoverRepository::toGrafikon);
+    }
+
+    /**
+     * Stream all the grafikons in id order, as they are read from the database.
+     */
+    public Flux<Grafikon> streamGrafikons() {
+        return databaseClient
+            .sql(String.format(SELECT, GRAFIKON_TABLE) + " order by e.id")
+            .map(ReactiveTurnoverRepository::toGrafikon)
+            .all();
+    }
+
+    /**
+     * Get the turnover of the grafikons aggregated per region, ordered by region.
+     */
+    public Flux<RegionTurnover> aggregateGrafikonsByRegion() {
+        return aggregateByRegion(GRAFIKON_TABLE);
+    }
+
+    private <T> Flux<T> findAfter(String table, Optional<Long> afterId, int limit, Function<Row, T> mapper) {
+        String select = String.format(SELECT, table);
+        DatabaseClient.GenericExecuteSpec spec = afterId.isPresent()
+            ? databaseClient.sql(select + " where e.id > :afterId order by e.id limit :limit").bind("afterId", afterId.get())
+            : databaseClient.sql(select + " order by e.id limit :limit");
+        return spec.bind("limit", limit).map(mapper).all();
+    }
+
+    private <T> Mono<T> findById(String table, Long id, Function<Row, T> mapper) {
+        return databaseClient.sql(String.format(SELECT, table) + " where e.id = :id").bind("id", id).map(mapper).one();
+    }
+
+    private Flux<RegionTurnover> aggregateByRegion(String table) {
+        return databaseClient
+            .sql(String.format(AGGREGATE, table))
+            .map(row ->
+                new RegionTurnover(
+                    row.get("region", String.class),
+                    row.get("promet_count", Number.class).longValue(),
+                    row.get("promet_sum", Number.class).longValue(),
+                    toInteger(row.get("promet_min", Number.class)),
+                    toInteger(row.get("promet_max", Number.class)),
+                    toDouble(row.get("promet_average", Number.class))
+                )
+            )
+            .all();
+    }
+
+    private static Tabela toTabela(Row row) {
+        return new Tabela()
+            .id(row.get("id", Long.class))
+            .regionName(row.get("region", String.class))
+            .promet(row.get("promet", Integer.class))
+            .version(row.get("version", Long.class));
+    }
+
+    private static Grafikon toGrafikon(Row row) {
+        return new Grafikon()
+            .id(row.get("id", Long.class))
+            .regionName(row.get("region", String.class))
+            .promet(row.get("promet", Integer.class))
+            .version(row.get("version", Long.class));
+    }
+
+    private static Integer toInteger(Number number) {
+        return number == null ? null : number.intValue();
+    }
+
+    private static Double toDouble(Number number) {
+        return number == null ? null : number.doubleValue();
+    }
+
+    /**
+     * Turnover ({@code promet}) aggregated per region, by name. The count and the sum are 0 for a region without any
+     * turnover, while the other aggregates are {@code null}.
+     */
+    public static final class RegionTurnover {
+
+        private final String region;
+
+        private final long count;
+
+        private final long sum;
+
+        private final Integer min;
+
+        private final Integer max;
+
+        private final Double average;
+
+        RegionTurnover(String region, long count, long sum, Integer min, Integer max, Double average) {
+            this.region = region;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+            this.average = average;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public Integer getMin() {
+            return min;
+        }
+
+        public Integer getMax() {
+            return max;
+        }
+
+        public Double getAverage() {
+            return average;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package parafarmaija.repository;
+
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+import parafarmaija.domain.Region;
+
+/**
+ * Spring Data SQL repository for the Region entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface RegionRepository extends RegionRepositoryWithLookup, JpaRepository<Region, Long> {
+    Optional<Region> findOneByName(String name);
+}
@@ -0,0 +1,18 @@
+package parafarmaija.repository;
+
+import parafarmaija.domain.Region;
+
+/**
+ * Lookup of the {@link Region} entities by name.
+ */
+public interface RegionRepositoryWithLookup {
+    /**
+     * Get the region of a name, creating it if it does not exist yet.
+     * <p>
+     * A created region is part of the current transaction, which must be active: it is rolled back with it.
+     *
+     * @param name the name of the region.
+     * @return the region, managed by the current persistence context if any.
+     */
+    Region getOrCreate(String name);
+}
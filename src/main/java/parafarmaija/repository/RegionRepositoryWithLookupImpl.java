@@ -0,0 +1,117 @@
+package parafarmaija.repository;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.FlushModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import parafarmaija.domain.Region;
+
+/**
+ * Implementation of {@link RegionRepositoryWithLookup}.
+ * <p>
+ * Regions are never renamed nor deleted, so the ids of the most recently looked up names are kept in memory and these
+ * lookups only load the region by id, from the second-level cache. Missing regions are inserted in the current
+ * transaction: on PostgreSQL, {@code on conflict do nothing} makes a concurrent writer of the same new region wait for
+ * the other one to complete, and then read the region it inserted. The id of an inserted region is only kept once its
+ * transaction commits.
+ */
+public class RegionRepositoryWithLookupImpl implements RegionRepositoryWithLookup {
+
+    /**
+     * Maximum number of region ids kept in memory, the least recently used are dropped first.
+     */
+    static final int MAX_CACHED_IDS = 10000;
+
+    private static final String INSERT_POSTGRESQL =
+        "insert into region (id, name) values (nextval('sequence_generator'), :name) on conflict (name) do nothing";
+
+    private static final String INSERT =
+        "insert into region (id, name) select next value for sequence_generator, :name " +
+        "where not exists (select 1 from region where name = :name)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<String, Long> idsByName = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > MAX_CACHED_IDS;
+            }
+        }
+    );
+
+    @Override
+    public Region getOrCreate(String name) {
+        Long id = idsByName.get(name);
+        if (id != null) {
+            Region region = entityManager.find(Region.class, id);
+            if (region != null) {
+                return region;
+            }
+            // Removed behind our back, forget it and start over.
+            idsByName.remove(name, id);
+        }
+        boolean inserted = insert(name) > 0;
+        id = findId(name).orElseThrow(() -> new IllegalStateException("Region " + name + " was neither found nor inserted"));
+        if (inserted) {
+            rememberOnCommit(name, id);
+        } else {
+            idsByName.put(name, id);
+        }
+        return entityManager.find(Region.class, id);
+    }
+
+    private int insert(String name) {
+        Query query = entityManager.createNativeQuery(isPostgreSQL() ? INSERT_POSTGRESQL : INSERT).setParameter("name", name);
+        // Called while Hibernate persists the entities referencing the region, which must not be flushed yet.
+        query.setFlushMode(FlushModeType.COMMIT);
+        // A query space matching no entity keeps Hibernate from evicting every cached region.
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace("");
+        return query.executeUpdate();
+    }
+
+    private Optional<Long> findId(String name) {
+        return entityManager
+            .createQuery("select region.id from Region region where region.name = :name", Long.class)
+            .setParameter("name", name)
+            .setFlushMode(FlushModeType.COMMIT)
+            .getResultStream()
+            .findFirst();
+    }
+
+    /**
+     * Keep the id of an inserted region once the transaction commits, or forget the region if it rolls back, as it may
+     * have been put in the second-level cache by then.
+     */
+    private void rememberOnCommit(String name, Long id) {
+        EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        idsByName.put(name, id);
+                    } else {
+                        entityManagerFactory.getCache().evict(Region.class, id);
+                    }
+                }
+            }
+        );
+    }
+
+    private boolean isPostgreSQL() {
+        SessionFactoryImplementor sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        return sessionFactory.getJdbcServices().getDialect() instanceof PostgreSQL81Dialect;
+    }
+}
@@ -1,6 +1,17 @@
 package parafarmaija.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import parafarmaija.domain.Tabela;
 
@@ -9,4 +20,82 @@ import parafarmaija.domain.Tabela;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface TabelaRepository extends JpaRepository<Tabela, Long> {}
+public interface TabelaRepository extends TabelaRepositoryWithConditionalUpdates, JpaRepository<Tabela, Long> {
+    /**
+     * Get a page of tabelas, without counting them.
+     */
+    Slice<Tabela> findAllBy(Pageable pageable);
+
+    /**
+     * Get a page of the tabelas with an id greater than the given one, without counting them.
+     */
+    Slice<Tabela> findAllByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * Stream all the tabelas in id order through a forward-only cursor.
+     * <p>
+     * The rows are fetched from the database in batches, read-only and without going through the second-level cache.
+     * The stream must be consumed inside a transaction, and closed.
+     */
+    @Query("select tabela from Tabela tabela left join fetch tabela.region order by tabela.id")
+    @QueryHints(
+        {
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"),
+        }
+    )
+    Stream<Tabela> streamAll();
+
+    /**
+     * Get the turnover of every tabela, with the name of its region, without loading the entities.
+     */
+    @Query("select tabela.id as id, region.name as region, tabela.promet as promet from Tabela tabela left join tabela.region region")
+    List<TabelaTurnover> findAllTurnover();
+
+    /**
+     * Get the turnover of the tabelas with the given ids, with the name of their region.
+     */
+    @Query(
+        "select tabela.id as id, region.name as region, tabela.promet as promet from Tabela tabela left join tabela.region region " +
+        "where tabela.id in :ids"
+    )
+    List<TabelaTurnover> findAllTurnoverByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Get the turnover aggregated per region id, grouping on the {@code region_id} foreign key without joining the regions.
+     */
+    @Query(
+        "select tabela.region.id as regionId, count(tabela.promet) as count, sum(tabela.promet) as sum, min(tabela.promet) as min, " +
+        "max(tabela.promet) as max, avg(tabela.promet) as average from Tabela tabela group by tabela.region.id"
+    )
+    List<RegionTurnover> aggregateByRegion();
+
+    /**
+     * Projection of the turnover ({@code promet}) of a tabela.
+     */
+    interface TabelaTurnover {
+        Long getId();
+
+        String getRegion();
+
+        Integer getPromet();
+    }
+
+    /**
+     * Projection of the turnover ({@code promet}) aggregated per region.
+     */
+    interface RegionTurnover {
+        Long getRegionId();
+
+        Long getCount();
+
+        Long getSum();
+
+        Integer getMin();
+
+        Integer getMax();
+
+        Double getAverage();
+    }
+}
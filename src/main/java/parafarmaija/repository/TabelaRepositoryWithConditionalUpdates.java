@@ -0,0 +1,42 @@
+package parafarmaija.repository;
+
+import java.util.Collection;
+import parafarmaija.domain.Tabela;
+
+/**
+ * Single-statement updates of the Tabela entity.
+ * <p>
+ * The updates increment the version of the tabela. When the new version is known without reading the row back, that is
+ * when a single version was expected, it is set on the given tabela, otherwise its version is reset to {@code null}.
+ */
+public interface TabelaRepositoryWithConditionalUpdates {
+    /**
+     * Overwrite all the columns of an existing tabela with a single {@code UPDATE ... WHERE id = ?}, without loading it first.
+     *
+     * @param tabela the new state of the tabela, with its id.
+     * @return the number of updated rows, {@code 0} if there is no tabela with this id.
+     */
+    default int updateIfExists(Tabela tabela) {
+        return updateIfExists(tabela, null);
+    }
+
+    /**
+     * Overwrite all the columns of an existing tabela with a single {@code UPDATE ... WHERE id = ? AND version IN (...)},
+     * without loading it first.
+     *
+     * @param tabela the new state of the tabela, with its id.
+     * @param expectedVersions the versions the tabela may have, or {@code null} to update it whatever its version.
+     * @return the number of updated rows, {@code 0} if there is no tabela with this id and one of these versions.
+     */
+    int updateIfExists(Tabela tabela, Collection<Long> expectedVersions);
+
+    /**
+     * Overwrite the non-null columns of an existing tabela with a single {@code UPDATE ... WHERE id = ?}, without loading
+     * it first.
+     *
+     * @param tabela the columns to update, with the id of the tabela.
+     * @param expectedVersions the versions the tabela may have, or {@code null} to update it whatever its version.
+     * @return the number of updated rows, {@code 0} if there is no tabela with this id and one of these versions.
+     */
+    int partialUpdateIfExists(Tabela tabela, Collection<Long> expectedVersions);
+}
@@ -0,0 +1,145 @@
+package parafarmaija.repository;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.TypedParameterValue;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import parafarmaija.domain.Tabela;
+
+/**
+ * Implementation of {@link TabelaRepositoryWithConditionalUpdates}.
+ * <p>
+ * The statements are native so that Hibernate does not invalidate the whole Tabela region of the second-level cache, as
+ * it does for bulk HQL statements: only the entry of the updated tabela is evicted, now and once the transaction commits,
+ * so that a concurrent read cannot put the previous state back. An instance of the tabela already loaded in the
+ * persistence context is refreshed.
+ * <p>
+ * Every update increments the optimistic locking version of the tabela. A region given by name only is resolved first.
+ */
+public class TabelaRepositoryWithConditionalUpdatesImpl implements TabelaRepositoryWithConditionalUpdates {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final RegionRepository regionRepository;
+
+    public TabelaRepositoryWithConditionalUpdatesImpl(RegionRepository regionRepository) {
+        this.regionRepository = regionRepository;
+    }
+
+    @Override
+    @Transactional
+    public int updateIfExists(Tabela tabela, Collection<Long> expectedVersions) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("region_id", regionId(tabela));
+        columns.put("promet", tabela.getPromet());
+        return update(tabela, columns, expectedVersions);
+    }
+
+    @Override
+    @Transactional
+    public int partialUpdateIfExists(Tabela tabela, Collection<Long> expectedVersions) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        if (tabela.getRegion() != null) {
+            columns.put("region_id", regionId(tabela));
+        }
+        if (tabela.getPromet() != null) {
+            columns.put("promet", tabela.getPromet());
+        }
+        if (columns.isEmpty()) {
+            // Nothing to write, only tell whether the tabela exists.
+            tabela.setVersion(null);
+            String jpql = "select count(tabela) from Tabela tabela where tabela.id = :id";
+            if (expectedVersions == null) {
+                return entityManager.createQuery(jpql, Long.class).setParameter("id", tabela.getId()).getSingleResult().intValue();
+            }
+            if (expectedVersions.isEmpty()) {
+                return 0;
+            }
+            return entityManager
+                .createQuery(jpql + " and tabela.version in :versions", Long.class)
+                .setParameter("id", tabela.getId())
+                .setParameter("versions", expectedVersions)
+                .getSingleResult()
+                .intValue();
+        }
+        return update(tabela, columns, expectedVersions);
+    }
+
+    private int update(Tabela tabela, Map<String, Object> columns, Collection<Long> expectedVersions) {
+        tabela.setVersion(null);
+        if (expectedVersions != null && expectedVersions.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("update tabela set ");
+        columns.keySet().forEach(column -> sql.append(column).append(" = :").append(column).append(", "));
+        sql.append("version = version + 1 where id = :id");
+        if (expectedVersions != null) {
+            sql.append(" and version in (:versions)");
+        }
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        columns.forEach(query::setParameter);
+        query.setParameter("id", tabela.getId());
+        if (expectedVersions != null) {
+            query.setParameter("versions", expectedVersions);
+        }
+        // A query space matching no entity keeps Hibernate from evicting every cached tabela.
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace("");
+        int updated = query.executeUpdate();
+        if (updated > 0) {
+            if (expectedVersions != null && expectedVersions.size() == 1) {
+                tabela.setVersion(expectedVersions.iterator().next() + 1);
+            }
+            refreshIfManaged(tabela.getId());
+            evict(tabela.getId());
+        }
+        return updated;
+    }
+
+    /**
+     * Get the id of the region of the tabela, as a typed parameter so that no region is bound as a {@code bigint} null.
+     */
+    private TypedParameterValue regionId(Tabela tabela) {
+        if (tabela.getRegion() != null && tabela.getRegion().getId() == null) {
+            tabela.setRegion(regionRepository.getOrCreate(tabela.getRegion().getName()));
+        }
+        return new TypedParameterValue(StandardBasicTypes.LONG, tabela.getRegion() == null ? null : tabela.getRegion().getId());
+    }
+
+    /**
+     * Keep an instance of the tabela already loaded in the persistence context in sync with the updated row.
+     */
+    private void refreshIfManaged(Long id) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityKey key = session.generateEntityKey(id, session.getFactory().getMetamodel().entityPersister(Tabela.class));
+        Object managed = session.getPersistenceContextInternal().getEntity(key);
+        if (managed != null) {
+            entityManager.refresh(managed);
+        }
+    }
+
+    private void evict(Long id) {
+        entityManager.getEntityManagerFactory().getCache().evict(Tabela.class, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        entityManager.getEntityManagerFactory().getCache().evict(Tabela.class, id);
+                    }
+                }
+            );
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package parafarmaija.repository;
+
+import java.time.LocalDate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import parafarmaija.domain.TurnoverEntry;
+
+/**
+ * Spring Data SQL repository for the TurnoverEntry entity.
+ * <p>
+ * The queries bound {@code entryDate} with plain comparisons on the column, so that PostgreSQL only scans the
+ * partitions of the months in range.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface TurnoverEntryRepository extends JpaRepository<TurnoverEntry, Long> {
+    /**
+     * Get a page of the entries of a date range.
+     *
+     * @param from the first date of the range, included.
+     * @param to the end of the range, excluded.
+     * @param pageable the pagination information.
+     * @return the page of entries.
+     */
+    @Query(
+        value = "select entry from TurnoverEntry entry left join fetch entry.region " +
+        "where entry.entryDate >= :from and entry.entryDate < :to",
+        countQuery = "select count(entry) from TurnoverEntry entry where entry.entryDate >= :from and entry.entryDate < :to"
+    )
+    Page<TurnoverEntry> findAllInRange(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    /**
+     * Get a page of the entries of a region in a date range.
+     *
+     * @param regionId the id of the region.
+     * @param from the first date of the range, included.
+     * @param to the end of the range, excluded.
+     * @param pageable the pagination information.
+     * @return the page of entries.
+     */
+    @Query(
+        value = "select entry from TurnoverEntry entry left join fetch entry.region " +
+        "where entry.region.id = :regionId and entry.entryDate >= :from and entry.entryDate < :to",
+        countQuery = "select count(entry) from TurnoverEntry entry " +
+        "where entry.region.id = :regionId and entry.entryDate >= :from and entry.entryDate < :to"
+    )
+    Page<TurnoverEntry> findAllInRangeByRegionId(
+        @Param("regionId") Long regionId,
+        @Param("from") LocalDate from,
+        @Param("to") LocalDate to,
+        Pageable pageable
+    );
+}
@@ -0,0 +1,223 @@
+package parafarmaija.repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.stereotype.Repository;
+
+/**
+ * SQL repository for the turnover rollups.
+ * <p>
+ * {@code turnover_daily_rollup} holds the turnover per region and day, {@code turnover_monthly_rollup} the turnover per
+ * region and month, computed from the daily one. The days whose entries changed since the last refresh are queued in
+ * {@code turnover_rollup_change}: refreshing recomputes these days, then their months, and only then removes them from
+ * the queue.
+ */
+@Repository
+public class TurnoverRollupRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Try to take the PostgreSQL advisory lock of the refreshes, until the end of the current transaction.
+     *
+     * @param key the key of the lock.
+     * @return {@code true} if the lock was taken, {@code false} if another transaction holds it.
+     */
+    public boolean tryAdvisoryLock(long key) {
+        return (Boolean) entityManager
+            .createNativeQuery("select pg_try_advisory_xact_lock(:key)")
+            .setParameter("key", key)
+            .getSingleResult();
+    }
+
+    /**
+     * Get the oldest changes queued since the last refresh.
+     *
+     * @param limit the maximum number of changes.
+     * @return the changes, oldest first.
+     */
+    public List<RollupChange> findPendingChanges(int limit) {
+        List<?> rows = entityManager
+            .createNativeQuery("select id, entry_date from turnover_rollup_change order by id")
+            .setMaxResults(limit)
+            .getResultList();
+        return rows
+            .stream()
+            .map(Object[].class::cast)
+            .map(row -> new RollupChange(((Number) row[0]).longValue(), toLocalDate(row[1])))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Remove changes from the queue once their days are refreshed.
+     *
+     * @param ids the ids of the changes.
+     * @return the number of changes removed.
+     */
+    public int deleteChanges(Collection<Long> ids) {
+        return entityManager
+            .createNativeQuery("delete from turnover_rollup_change where id in (:ids)")
+            .setParameter("ids", ids)
+            .executeUpdate();
+    }
+
+    /**
+     * Recompute the daily rollup of some days from the turnover entries.
+     *
+     * @param days the days to recompute.
+     */
+    public void refreshDays(Collection<LocalDate> days) {
+        entityManager
+            .createNativeQuery("delete from turnover_daily_rollup where entry_date in (:days)")
+            .setParameter("days", days)
+            .executeUpdate();
+        entityManager
+            .createNativeQuery(
+                "insert into turnover_daily_rollup (region_id, entry_date, entry_count, amount_sum) " +
+                "select region_id, entry_date, count(*), sum(amount) from turnover_entry " +
+                "where entry_date in (:days) group by region_id, entry_date"
+            )
+            .setParameter("days", days)
+            .executeUpdate();
+    }
+
+    /**
+     * Recompute the monthly rollup of a month from its daily rollup.
+     *
+     * @param month the month to recompute.
+     */
+    public void refreshMonth(YearMonth month) {
+        entityManager
+            .createNativeQuery("delete from turnover_monthly_rollup where month_start = :month")
+            .setParameter("month", month.atDay(1))
+            .executeUpdate();
+        entityManager
+            .createNativeQuery(
+                "insert into turnover_monthly_rollup (region_id, month_start, entry_count, amount_sum) " +
+                "select region_id, cast(:month as date), sum(entry_count), sum(amount_sum) from turnover_daily_rollup " +
+                "where entry_date >= :month and entry_date < :next group by region_id"
+            )
+            .setParameter("month", month.atDay(1))
+            .setParameter("next", month.plusMonths(1).atDay(1))
+            .executeUpdate();
+    }
+
+    /**
+     * Get the turnover per region and day of a date range.
+     *
+     * @param from the first day of the range, included.
+     * @param to the end of the range, excluded.
+     * @return the totals, in no particular order.
+     */
+    public List<RollupTotal> findDailyTotals(LocalDate from, LocalDate to) {
+        return findTotals(
+            "select region_id, entry_date, entry_count, amount_sum from turnover_daily_rollup " +
+            "where entry_date >= :from and entry_date < :to",
+            from,
+            to
+        );
+    }
+
+    /**
+     * Get the turnover per region and month of a range of whole months.
+     *
+     * @param from the first day of the first month of the range, included.
+     * @param to the first day of the month ending the range, excluded.
+     * @return the totals, in no particular order, dated by the first day of their month.
+     */
+    public List<RollupTotal> findMonthlyTotals(LocalDate from, LocalDate to) {
+        return findTotals(
+            "select region_id, month_start, entry_count, amount_sum from turnover_monthly_rollup " +
+            "where month_start >= :from and month_start < :to",
+            from,
+            to
+        );
+    }
+
+    private List<RollupTotal> findTotals(String sql, LocalDate from, LocalDate to) {
+        List<?> rows = entityManager.createNativeQuery(sql).setParameter("from", from).setParameter("to", to).getResultList();
+        return rows
+            .stream()
+            .map(Object[].class::cast)
+            .map(row ->
+                new RollupTotal(
+                    row[0] == null ? null : ((Number) row[0]).longValue(),
+                    toLocalDate(row[1]),
+                    ((Number) row[2]).longValue(),
+                    ((Number) row[3]).longValue()
+                )
+            )
+            .collect(Collectors.toList());
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date ? ((Date) value).toLocalDate() : (LocalDate) value;
+    }
+
+    /**
+     * A queued change of the entries of a day.
+     */
+    public static final class RollupChange {
+
+        private final long id;
+
+        private final LocalDate entryDate;
+
+        public RollupChange(long id, LocalDate entryDate) {
+            this.id = id;
+            this.entryDate = entryDate;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public LocalDate getEntryDate() {
+            return entryDate;
+        }
+    }
+
+    /**
+     * The turnover of a region over a day or a month.
+     */
+    public static final class RollupTotal {
+
+        private final Long regionId;
+
+        private final LocalDate date;
+
+        private final long count;
+
+        private final long sum;
+
+        public RollupTotal(Long regionId, LocalDate date, long count, long sum) {
+            this.regionId = regionId;
+            this.date = date;
+            this.count = count;
+            this.sum = sum;
+        }
+
+        public Long getRegionId() {
+            return regionId;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package parafarmaija.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import parafarmaija.config.ApplicationProperties;
+
+/**
+ * Token buckets limiting the authentication attempts per client address and per login.
+ * <p>
+ * Every attempt takes a token from the bucket of its address and, when it has one, from the bucket of its login.
+ * Buckets refill at a steady rate up to their capacity, so bursts are allowed but credential stuffing is slowed down
+ * to the refill rate. Buckets are kept in memory, bounded: once full, the buckets which refilled completely are
+ * dropped first since they are the same as new ones, then arbitrary buckets are.
+ * <p>
+ * The client address is the remote address of the request. Behind a proxy, it is only the address of the client with
+ * the {@code framework} forward headers strategy, which resolves it behind the trusted proxies.
+ */
+@Component
+public class AuthenticationThrottle {
+
+    public static final String THROTTLED_METER_NAME = "security.authentication.throttled";
+
+    private final boolean enabled;
+
+    private final int maxEntries;
+
+    private final Clock clock;
+
+    private final Buckets addressBuckets;
+
+    private final Buckets loginBuckets;
+
+    @Autowired
+    public AuthenticationThrottle(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this(applicationProperties.getAuthenticationThrottling(), meterRegistry, Clock.systemUTC());
+    }
+
+    AuthenticationThrottle(ApplicationProperties.AuthenticationThrottling properties, MeterRegistry meterRegistry, Clock clock) {
+        this.enabled = properties.isEnabled();
+        this.maxEntries = properties.getMaxEntries();
+        this.clock = clock;
+        this.addressBuckets =
+            new Buckets(properties.getAddressCapacity(), properties.getAddressRefillPeriod(), throttledCounter(meterRegistry, "address"));
+        this.loginBuckets =
+            new Buckets(properties.getLoginCapacity(), properties.getLoginRefillPeriod(), throttledCounter(meterRegistry, "login"));
+    }
+
+    private static Counter throttledCounter(MeterRegistry meterRegistry, String key) {
+        return Counter
+            .builder(THROTTLED_METER_NAME)
+            .description("Number of authentication attempts rejected because of too many attempts")
+            .tag("key", key)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Take a token for an authentication attempt.
+     *
+     * @param address the address of the client.
+     * @param login the login or email the attempt is for, {@code null} if it is not for a particular user.
+     * @throws AuthenticationThrottledException if the address or the login has no token left.
+     */
+    public void acquire(String address, String login) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.millis();
+        addressBuckets.acquire(address, now);
+        if (login != null) {
+            loginBuckets.acquire(login.toLowerCase(Locale.ENGLISH), now);
+        }
+    }
+
+    int size() {
+        return addressBuckets.buckets.size() + loginBuckets.buckets.size();
+    }
+
+    private final class Buckets {
+
+        private final int capacity;
+
+        private final long refillMillis;
+
+        private final Counter throttledCounter;
+
+        private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+        private Buckets(int capacity, Duration refillPeriod, Counter throttledCounter) {
+            this.capacity = capacity;
+            this.refillMillis = refillPeriod.toMillis();
+            this.throttledCounter = throttledCounter;
+        }
+
+        private void acquire(String key, long now) {
+            Bucket bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= maxEntries) {
+                    evict(now);
+                }
+                bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+            }
+            long waitMillis = bucket.acquire(now, capacity, refillMillis);
+            if (waitMillis > 0) {
+                throttledCounter.increment();
+                throw new AuthenticationThrottledException(Duration.ofMillis(waitMillis));
+            }
+        }
+
+        private void evict(long now) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now, capacity, refillMillis));
+            Iterator<String> keys = buckets.keySet().iterator();
+            while (buckets.size() >= maxEntries && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+
+        private long refilledAt;
+
+        private Bucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        /**
+         * @return {@code 0} if a token was taken, else the delay until the next token.
+         */
+        private synchronized long acquire(long now, int capacity, long refillMillis) {
+            refill(now, capacity, refillMillis);
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) * refillMillis));
+        }
+
+        private synchronized boolean isFull(long now, int capacity, long refillMillis) {
+            refill(now, capacity, refillMillis);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now, int capacity, long refillMillis) {
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (double) (now - refilledAt) / refillMillis);
+                refilledAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package parafarmaija.security;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when too many authentication attempts were made from an address or for a login.
+ */
+public class AuthenticationThrottledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public AuthenticationThrottledException(Duration retryAfter) {
+        super("Too many authentication attempts, retry after " + retryAfter);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,121 @@
+package parafarmaija.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt {@link PasswordEncoder} hashing on a dedicated bounded executor.
+ * <p>
+ * The calling thread waits for the hash, but at most as many hashes as the executor has threads are computed at once,
+ * so a burst of logins cannot take all the CPU from the other requests. Once the executor queue is full, a
+ * {@link TaskRejectedException} is thrown instead of waiting. Passwords hashed with another cost than the configured
+ * one are reported to be upgraded, so they are hashed again on the next successful login.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    public static final String HASHING_METER_NAME = "security.password.hashing";
+
+    public static final String WAIT_METER_NAME = "security.password.hashing.wait";
+
+    public static final String REJECTED_METER_NAME = "security.password.hashing.rejected";
+
+    private static final Pattern BCRYPT_COST_PATTERN = Pattern.compile("\\A\\$2[abxy]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+
+    private final int cost;
+
+    private final AsyncTaskExecutor executor;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Timer waitTimer;
+
+    private final Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(int cost, AsyncTaskExecutor executor, MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(cost);
+        this.cost = cost;
+        this.executor = executor;
+        this.encodeTimer = Timer
+            .builder(HASHING_METER_NAME)
+            .description("Duration of the password hashes")
+            .tag("operation", "encode")
+            .register(meterRegistry);
+        this.matchesTimer = Timer
+            .builder(HASHING_METER_NAME)
+            .description("Duration of the password hashes")
+            .tag("operation", "matches")
+            .register(meterRegistry);
+        this.waitTimer = Timer
+            .builder(WAIT_METER_NAME)
+            .description("Time the password hashes waited for a hashing thread")
+            .register(meterRegistry);
+        this.rejectedCounter = Counter
+            .builder(REJECTED_METER_NAME)
+            .description("Number of password hashes rejected because the hashing queue was full")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST_PATTERN.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != cost;
+    }
+
+    private <T> T hash(Timer timer, Callable<T> hashing) {
+        long submitted = System.nanoTime();
+        Future<T> result;
+        try {
+            result =
+                executor.submit(() -> {
+                    long started = System.nanoTime();
+                    waitTimer.record(started - submitted, TimeUnit.NANOSECONDS);
+                    T hash = hashing.call();
+                    timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    return hash;
+                });
+        } catch (TaskRejectedException e) {
+            rejectedCounter.increment();
+            throw e;
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new IllegalStateException("Interrupted while waiting for the password hash", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
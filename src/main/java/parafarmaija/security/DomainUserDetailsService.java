@@ -25,8 +25,11 @@ public class DomainUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final UnknownUserCache unknownUserCache;
+
+    public DomainUserDetailsService(UserRepository userRepository, UnknownUserCache unknownUserCache) {
         this.userRepository = userRepository;
+        this.unknownUserCache = unknownUserCache;
     }
 
     @Override
@@ -35,15 +38,15 @@ public class DomainUserDetailsService implements UserDetailsService {
         log.debug("Authenticating {}", login);
 
         if (new EmailValidator().isValid(login, null)) {
-            return userRepository
-                .findOneWithAuthoritiesByEmailIgnoreCase(login)
+            return unknownUserCache
+                .findByEmail(login, userRepository::findOneWithAuthoritiesByEmailIgnoreCase)
                 .map(user -> createSpringSecurityUser(login, user))
                 .orElseThrow(() -> new UsernameNotFoundException("User with email " + login + " was not found in the database"));
         }
 
         String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
-        return userRepository
-            .findOneWithAuthoritiesByLogin(lowercaseLogin)
+        return unknownUserCache
+            .findByLogin(lowercaseLogin, userRepository::findOneWithAuthoritiesByLogin)
             .map(user -> createSpringSecurityUser(lowercaseLogin, user))
             .orElseThrow(() -> new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database"));
     }
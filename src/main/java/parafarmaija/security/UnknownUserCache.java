@@ -0,0 +1,91 @@
+package parafarmaija.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import parafarmaija.repository.UserRepository;
+
+/**
+ * Short-lived cache of the logins and emails which do not belong to any user.
+ * <p>
+ * Lookups of unknown users are answered from here rather than from the database, so that failed logins and password
+ * resets for random logins or emails do not all reach it. Entries are keyed in lower case and evicted with the other
+ * user caches when a user is saved.
+ */
+@Component
+public class UnknownUserCache {
+
+    public static final String METER_NAME = "security.authentication.unknown-users";
+
+    private final Cache unknownLogins;
+
+    private final Cache unknownEmails;
+
+    private final Counter loginHits;
+
+    private final Counter loginMisses;
+
+    private final Counter emailHits;
+
+    private final Counter emailMisses;
+
+    public UnknownUserCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.unknownLogins = Objects.requireNonNull(cacheManager.getCache(UserRepository.UNKNOWN_LOGINS_CACHE));
+        this.unknownEmails = Objects.requireNonNull(cacheManager.getCache(UserRepository.UNKNOWN_EMAILS_CACHE));
+        this.loginHits = counter(meterRegistry, "login", "hit");
+        this.loginMisses = counter(meterRegistry, "login", "miss");
+        this.emailHits = counter(meterRegistry, "email", "hit");
+        this.emailMisses = counter(meterRegistry, "email", "miss");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String type, String result) {
+        return Counter
+            .builder(METER_NAME)
+            .description("Number of user lookups answered from the cache of unknown users (hit) or from the database (miss)")
+            .tag("type", type)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Look up a user by login, unless the login is known not to belong to any user.
+     *
+     * @param login the login.
+     * @param lookup the database lookup.
+     * @return the result of the lookup, empty if the login is unknown.
+     */
+    public <T> Optional<T> findByLogin(String login, Function<String, Optional<T>> lookup) {
+        return find(unknownLogins, loginHits, loginMisses, login, lookup);
+    }
+
+    /**
+     * Look up a user by email, unless the email is known not to belong to any user.
+     *
+     * @param email the email.
+     * @param lookup the database lookup.
+     * @return the result of the lookup, empty if the email is unknown.
+     */
+    public <T> Optional<T> findByEmail(String email, Function<String, Optional<T>> lookup) {
+        return find(unknownEmails, emailHits, emailMisses, email, lookup);
+    }
+
+    private <T> Optional<T> find(Cache cache, Counter hits, Counter misses, String value, Function<String, Optional<T>> lookup) {
+        String key = value.toLowerCase(Locale.ENGLISH);
+        if (cache.get(key) != null) {
+            hits.increment();
+            return Optional.empty();
+        }
+        misses.increment();
+        Optional<T> result = lookup.apply(value);
+        if (result.isEmpty()) {
+            cache.put(key, Boolean.TRUE);
+        }
+        return result;
+    }
+}
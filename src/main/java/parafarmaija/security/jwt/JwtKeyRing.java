@@ -0,0 +1,435 @@
+package parafarmaija.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ObjectUtils;
+import parafarmaija.config.ApplicationProperties;
+import parafarmaija.domain.JwtSigningKey;
+import parafarmaija.repository.JwtSigningKeyRepository;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Key ring of the asymmetric JWT signatures.
+ * <p>
+ * With an RSA or EC {@code application.jwt.algorithm}, such as RS256 or ES256, the tokens are signed with the private
+ * key of the current key of the ring, and carry its id in their {@code kid} header. They are verified with the public
+ * key of that id, which is also published on the JWKS endpoint, so that they can be verified without the application.
+ * With an HMAC algorithm, the default, the ring is disabled and the tokens are signed with the shared secret.
+ * <p>
+ * The keys are stored in the {@code jwt_signing_key} table, shared by all the instances, with their private keys
+ * encrypted by the JWT secret. Each instance keeps them in memory by id, reloaded every
+ * {@code application.jwt.reload-interval}, or as soon as a token with an unknown id is presented. A new key is created
+ * every {@code application.jwt.rotation-interval}. It only starts signing after {@code application.jwt.publish-delay},
+ * once all the instances and the JWKS caches know it, and keeps verifying until the last token it signed expires.
+ */
+@Component
+public class JwtKeyRing extends SigningKeyResolverAdapter {
+
+    private final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private static final String KEY_ENCRYPTION = "AES/GCM/NoPadding";
+
+    private static final int KEY_ENCRYPTION_IV_BYTES = 12;
+
+    private static final int KEY_ENCRYPTION_TAG_BITS = 128;
+
+    /**
+     * The rotation is checked every hour, so a new key is created when the current one ends within the next hour.
+     */
+    private static final Duration ROTATION_CHECK_INTERVAL = Duration.ofHours(1);
+
+    /**
+     * Minimum delay between two reloads caused by tokens with an unknown id.
+     */
+    private static final Duration MIN_RELOAD_INTERVAL = Duration.ofSeconds(10);
+
+    private final JwtSigningKeyRepository jwtSigningKeyRepository;
+
+    private final SignatureAlgorithm algorithm;
+
+    private final Duration rotationInterval;
+
+    private final Duration publishDelay;
+
+    private final Duration reloadInterval;
+
+    private final Duration tokenValidity;
+
+    private final SecretKey encryptionKey;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final List<Runnable> removalListeners = new CopyOnWriteArrayList<>();
+
+    private volatile Map<String, RingKey> keys = Collections.emptyMap();
+
+    private volatile Instant lastReload = Instant.EPOCH;
+
+    public JwtKeyRing(
+        JwtSigningKeyRepository jwtSigningKeyRepository,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        this.jwtSigningKeyRepository = jwtSigningKeyRepository;
+        String algorithm = applicationProperties.getJwt().getAlgorithm();
+        Duration publishDelay = applicationProperties.getJwt().getPublishDelay();
+        Duration reloadInterval = applicationProperties.getJwt().getReloadInterval();
+        try {
+            this.algorithm = SignatureAlgorithm.forName(algorithm);
+        } catch (SignatureException e) {
+            throw new IllegalStateException("Unsupported JWT algorithm: " + algorithm, e);
+        }
+        if (!this.algorithm.isHmac() && !this.algorithm.isRsa() && !this.algorithm.isEllipticCurve()) {
+            throw new IllegalStateException("Unsupported JWT algorithm: " + algorithm);
+        }
+        if (publishDelay.compareTo(reloadInterval) < 0) {
+            throw new IllegalStateException("The JWT keys publish delay must not be shorter than their reload interval");
+        }
+        this.rotationInterval = applicationProperties.getJwt().getRotationInterval();
+        this.publishDelay = publishDelay;
+        this.reloadInterval = reloadInterval;
+        JHipsterProperties.Security.Authentication.Jwt jwt = jHipsterProperties.getSecurity().getAuthentication().getJwt();
+        this.tokenValidity = Duration.ofSeconds(Math.max(jwt.getTokenValidityInSeconds(), jwt.getTokenValidityInSecondsForRememberMe()));
+        String secret = ObjectUtils.isEmpty(jwt.getBase64Secret()) ? jwt.getSecret() : jwt.getBase64Secret();
+        this.encryptionKey = new SecretKeySpec(sha256("jwt-key-ring:" + secret), "AES");
+    }
+
+    /**
+     * Whether the tokens are signed by the key ring, rather than with the shared secret.
+     *
+     * @return {@code true} with an asymmetric algorithm.
+     */
+    public boolean isEnabled() {
+        return !algorithm.isHmac();
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Get how long the published keys may be cached, so that a key is known before it signs any token.
+     *
+     * @return the duration.
+     */
+    public Duration getPublicKeysMaxAge() {
+        return publishDelay.minus(reloadInterval);
+    }
+
+    /**
+     * Register a callback run when keys are removed from the ring, so that what was verified with them is dropped.
+     *
+     * @param listener the callback.
+     */
+    public void addRemovalListener(Runnable listener) {
+        removalListeners.add(listener);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (isEnabled()) {
+            getSigningKey();
+        }
+    }
+
+    /**
+     * Get the key currently signing the tokens, the key with the latest start among the active ones.
+     * <p>
+     * When there is none, typically on the first start, a key is created and starts signing right away.
+     *
+     * @return the key.
+     */
+    public SigningKey getSigningKey() {
+        RingKey current = findSigningKey();
+        if (current == null) {
+            synchronized (this) {
+                reload();
+                current = findSigningKey();
+                if (current == null) {
+                    createKey(Instant.now());
+                    reload();
+                    current = Objects.requireNonNull(findSigningKey());
+                }
+            }
+        }
+        return new SigningKey(current.kid, current.privateKey);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes") // The raw header is the signature of SigningKeyResolver in jjwt 0.11
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            throw new SignatureException("The JWT has no key id");
+        }
+        RingKey key = keys.get(kid);
+        Instant now = Instant.now();
+        if (key == null && lastReload.plus(MIN_RELOAD_INTERVAL).isBefore(now)) {
+            reload();
+            key = keys.get(kid);
+        }
+        if (key == null || !key.expiresAt.isAfter(now)) {
+            throw new SignatureException("Unknown JWT key id: " + kid);
+        }
+        if (!algorithm.getValue().equals(header.getAlgorithm())) {
+            throw new SignatureException("Unexpected JWT algorithm: " + header.getAlgorithm());
+        }
+        return key.publicKey;
+    }
+
+    /**
+     * Get the public keys, as a JSON Web Key Set.
+     *
+     * @return the keys.
+     */
+    public List<Map<String, Object>> getPublicKeys() {
+        Instant now = Instant.now();
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        for (RingKey key : keys.values()) {
+            if (key.expiresAt.isAfter(now)) {
+                jwks.add(toJwk(key));
+            }
+        }
+        return jwks;
+    }
+
+    /**
+     * The keys should be reloaded, to know the keys created by the other instances.
+     * <p>
+     * This is scheduled to get fired every {@code application.jwt.reload-interval}.
+     */
+    @Scheduled(fixedDelayString = "${application.jwt.reload-interval:PT1M}")
+    public void reload() {
+        if (!isEnabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Map<String, RingKey> newKeys = new LinkedHashMap<>();
+        for (JwtSigningKey entity : jwtSigningKeyRepository.findAllByExpiresAtAfterOrderByActiveFromAsc(now)) {
+            if (!algorithm.getValue().equals(entity.getAlgorithm())) {
+                continue;
+            }
+            try {
+                newKeys.put(entity.getKid(), toRingKey(entity));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Could not read the JWT key {}: {}", entity.getKid(), e.toString());
+            }
+        }
+        boolean removed = !newKeys.keySet().containsAll(keys.keySet());
+        keys = Collections.unmodifiableMap(newKeys);
+        lastReload = now;
+        if (removed) {
+            removalListeners.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * A new key should be created before the current one stops signing, and the expired keys removed.
+     * <p>
+     * This is scheduled to get fired every hour. Several instances may rotate at the same time, their keys are then
+     * all valid.
+     */
+    @Scheduled(cron = "0 0 * * * ?")
+    public void rotate() {
+        if (!isEnabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<JwtSigningKey> expired = jwtSigningKeyRepository.findAllByExpiresAtBefore(now);
+        if (!expired.isEmpty()) {
+            jwtSigningKeyRepository.deleteAll(expired);
+            log.info("Removed {} expired JWT keys", expired.size());
+        }
+        reload();
+        Instant lastActiveUntil = keys
+            .values()
+            .stream()
+            .map(key -> key.activeUntil)
+            .max(Comparator.naturalOrder())
+            .orElse(now);
+        if (!lastActiveUntil.isAfter(now.plus(publishDelay).plus(ROTATION_CHECK_INTERVAL))) {
+            createKey(now.plus(publishDelay));
+            reload();
+        }
+    }
+
+    private RingKey findSigningKey() {
+        Instant now = Instant.now();
+        RingKey current = null;
+        for (RingKey key : keys.values()) {
+            boolean active = !key.activeFrom.isAfter(now) && key.activeUntil.isAfter(now);
+            if (active && (current == null || key.activeFrom.isAfter(current.activeFrom))) {
+                current = key;
+            }
+        }
+        return current;
+    }
+
+    private void createKey(Instant activeFrom) {
+        KeyPair keyPair = Keys.keyPairFor(algorithm);
+        JwtSigningKey entity = new JwtSigningKey();
+        entity.setKid(UUID.randomUUID().toString());
+        entity.setAlgorithm(algorithm.getValue());
+        entity.setPublicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        entity.setPrivateKey(encrypt(keyPair.getPrivate().getEncoded()));
+        entity.setActiveFrom(activeFrom);
+        entity.setActiveUntil(activeFrom.plus(rotationInterval));
+        entity.setExpiresAt(entity.getActiveUntil().plus(tokenValidity));
+        jwtSigningKeyRepository.save(entity);
+        log.info("Created the JWT key {}, signing from {}", entity.getKid(), activeFrom);
+    }
+
+    private RingKey toRingKey(JwtSigningKey entity) throws GeneralSecurityException {
+        KeyFactory keyFactory = KeyFactory.getInstance(algorithm.isRsa() ? "RSA" : "EC");
+        PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(entity.getPublicKey())));
+        PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decrypt(entity.getPrivateKey())));
+        return new RingKey(entity, publicKey, privateKey);
+    }
+
+    private Map<String, Object> toJwk(RingKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        if (key.publicKey instanceof RSAPublicKey) {
+            RSAPublicKey rsaKey = (RSAPublicKey) key.publicKey;
+            jwk.put("kty", "RSA");
+            jwk.put("n", encoder.encodeToString(unsigned(rsaKey.getModulus(), 0)));
+            jwk.put("e", encoder.encodeToString(unsigned(rsaKey.getPublicExponent(), 0)));
+        } else {
+            ECPublicKey ecKey = (ECPublicKey) key.publicKey;
+            int fieldBytes = (ecKey.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-" + ecKey.getParams().getCurve().getField().getFieldSize());
+            jwk.put("x", encoder.encodeToString(unsigned(ecKey.getW().getAffineX(), fieldBytes)));
+            jwk.put("y", encoder.encodeToString(unsigned(ecKey.getW().getAffineY(), fieldBytes)));
+        }
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getValue());
+        jwk.put("kid", key.kid);
+        return jwk;
+    }
+
+    /**
+     * Big-endian bytes of a positive integer, without sign byte, left-padded to a length.
+     */
+    private static byte[] unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        int start = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        int size = Math.max(bytes.length - start, length);
+        byte[] result = new byte[size];
+        System.arraycopy(bytes, start, result, size - (bytes.length - start), bytes.length - start);
+        return result;
+    }
+
+    private String encrypt(byte[] privateKey) {
+        try {
+            byte[] iv = new byte[KEY_ENCRYPTION_IV_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(KEY_ENCRYPTION);
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(KEY_ENCRYPTION_TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(privateKey);
+            byte[] ivAndEncrypted = ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array();
+            return Base64.getEncoder().encodeToString(ivAndEncrypted);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt the JWT key", e);
+        }
+    }
+
+    private byte[] decrypt(String privateKey) throws GeneralSecurityException {
+        byte[] bytes = Base64.getDecoder().decode(privateKey);
+        Cipher cipher = Cipher.getInstance(KEY_ENCRYPTION);
+        GCMParameterSpec parameters = new GCMParameterSpec(KEY_ENCRYPTION_TAG_BITS, bytes, 0, KEY_ENCRYPTION_IV_BYTES);
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, parameters);
+        return cipher.doFinal(bytes, KEY_ENCRYPTION_IV_BYTES, bytes.length - KEY_ENCRYPTION_IV_BYTES);
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * The private key signing the tokens, and its id.
+     */
+    public static final class SigningKey {
+
+        private final String kid;
+
+        private final PrivateKey privateKey;
+
+        private SigningKey(String kid, PrivateKey privateKey) {
+            this.kid = kid;
+            this.privateKey = privateKey;
+        }
+
+        public String getKid() {
+            return kid;
+        }
+
+        public PrivateKey getPrivateKey() {
+            return privateKey;
+        }
+    }
+
+    /**
+     * A key of the ring, decoded.
+     */
+    private static final class RingKey {
+
+        private final String kid;
+
+        private final Instant activeFrom;
+
+        private final Instant activeUntil;
+
+        private final Instant expiresAt;
+
+        private final PublicKey publicKey;
+
+        private final PrivateKey privateKey;
+
+        private RingKey(JwtSigningKey entity, PublicKey publicKey, PrivateKey privateKey) {
+            this.kid = entity.getKid();
+            this.activeFrom = entity.getActiveFrom();
+            this.activeUntil = entity.getActiveUntil();
+            this.expiresAt = entity.getExpiresAt();
+            this.publicKey = publicKey;
+            this.privateKey = privateKey;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package parafarmaija.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Bounded cache of the principals of the tokens which passed validation, until their expiration.
+ * <p>
+ * Entries are keyed by the SHA-256 hash of the whole token, signature included, so only the exact token which was
+ * validated can hit its entry, and the tokens themselves are not kept as keys. Once full, expired entries are purged
+ * first, then arbitrary entries are evicted.
+ */
+class TokenCache {
+
+    private final int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    TokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Get the principal of a validated token.
+     *
+     * @param token the token.
+     * @return the principal, {@code null} if the token is not in the cache or has expired.
+     */
+    User get(String token) {
+        if (maxEntries <= 0) {
+            return null;
+        }
+        String hash = hash(token);
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(hash, entry);
+            return null;
+        }
+        return entry.principal;
+    }
+
+    /**
+     * Store the principal of a validated token.
+     *
+     * @param token the token.
+     * @param principal its principal.
+     * @param expiration its expiration, tokens without one are not cached.
+     */
+    void put(String token, User principal, Date expiration) {
+        if (maxEntries <= 0 || expiration == null) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(hash(token), new Entry(principal, expiration.getTime()));
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        Iterator<String> hashes = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && hashes.hasNext()) {
+            hashes.next();
+            hashes.remove();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final User principal;
+
+        private final long expiresAt;
+
+        private Entry(User principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -17,6 +18,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
+import parafarmaija.config.ApplicationProperties;
 import parafarmaija.management.SecurityMetersService;
 import tech.jhipster.config.JHipsterProperties;
 
@@ -39,7 +41,21 @@ public class TokenProvider {
 
     private final SecurityMetersService securityMetersService;
 
+    private final TokenCache tokenCache;
+
+    private final JwtKeyRing keyRing;
+
     public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService) {
+        this(jHipsterProperties, securityMetersService, null, new ApplicationProperties());
+    }
+
+    @Autowired
+    public TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        SecurityMetersService securityMetersService,
+        JwtKeyRing keyRing,
+        ApplicationProperties applicationProperties
+    ) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -54,12 +70,20 @@ public class TokenProvider {
             keyBytes = secret.getBytes(StandardCharsets.UTF_8);
         }
         key = Keys.hmacShaKeyFor(keyBytes);
-        jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.keyRing = keyRing != null && keyRing.isEnabled() ? keyRing : null;
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
 
         this.securityMetersService = securityMetersService;
+        this.tokenCache = new TokenCache(applicationProperties.getTokenCache().getMaxEntries());
+        if (this.keyRing != null) {
+            log.debug("Using the {} JWT key ring", this.keyRing.getAlgorithm());
+            jwtParser = Jwts.parserBuilder().setSigningKeyResolver(this.keyRing).build();
+            this.keyRing.addRemovalListener(tokenCache::clear);
+        } else {
+            jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
+        }
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
@@ -73,32 +97,45 @@ public class TokenProvider {
             validity = new Date(now + this.tokenValidityInMilliseconds);
         }
 
-        return Jwts
+        JwtBuilder builder = Jwts
             .builder()
             .setSubject(authentication.getName())
             .claim(AUTHORITIES_KEY, authorities)
-            .signWith(key, SignatureAlgorithm.HS512)
-            .setExpiration(validity)
-            .compact();
+            .setExpiration(validity);
+        if (keyRing != null) {
+            JwtKeyRing.SigningKey signingKey = keyRing.getSigningKey();
+            builder.setHeaderParam(JwsHeader.KEY_ID, signingKey.getKid()).signWith(signingKey.getPrivateKey(), keyRing.getAlgorithm());
+        } else {
+            builder.signWith(key, SignatureAlgorithm.HS512);
+        }
+        return builder.compact();
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
-
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "", authorities);
-
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        User principal = tokenCache.get(token);
+        if (principal == null) {
+            principal = parsePrincipal(token);
+        }
+        return new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
     }
 
+    /**
+     * Validate a token.
+     * <p>
+     * The principals of the valid tokens are cached until the tokens expire, so that a token sent again is neither
+     * verified nor parsed again, by this method or by {@link #getAuthentication(String)}.
+     *
+     * @param authToken the token.
+     * @return {@code true} if the token is valid.
+     */
     public boolean validateToken(String authToken) {
+        if (tokenCache.get(authToken) != null) {
+            this.securityMetersService.trackTokenCacheHit();
+            return true;
+        }
+        this.securityMetersService.trackTokenCacheMiss();
         try {
-            jwtParser.parseClaimsJws(authToken);
+            parsePrincipal(authToken);
 
             return true;
         } catch (ExpiredJwtException e) {
@@ -123,4 +160,18 @@ public class TokenProvider {
 
         return false;
     }
+
+    private User parsePrincipal(String token) {
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+
+        Collection<? extends GrantedAuthority> authorities = Arrays
+            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+            .filter(auth -> !auth.trim().isEmpty())
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toList());
+
+        User principal = new User(claims.getSubject(), "", authorities);
+        tokenCache.put(token, principal, claims.getExpiration());
+        return principal;
+    }
 }
@@ -0,0 +1,613 @@
+package parafarmaija.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import parafarmaija.config.ApplicationProperties;
+import parafarmaija.domain.Grafikon;
+import parafarmaija.domain.Tabela;
+
+/**
+ * Service broadcasting the cache invalidations to the other instances of the application.
+ * <p>
+ * Every instance has its own local caches. The committed updates and deletes of cached entities, the evictions of the
+ * user caches and the invalidations of the query result caches are collected, and sent every
+ * {@code application.cache-invalidation.flush-interval} as PostgreSQL notifications on the
+ * {@code application.cache-invalidation.channel} channel. The notifications are batched up to the PostgreSQL payload
+ * limit, and a cache with more than {@code application.cache-invalidation.max-keys-per-cache} keys in a batch is
+ * cleared as a whole instead. Each instance listens to the channel on a dedicated connection, and evicts the received
+ * keys from its caches, ignoring its own notifications. Notifications sent while the listening connection was lost
+ * are missed, so all the caches are cleared once it is back.
+ * <p>
+ * The received invalidations of tabelas and grafikons are also published as a remote {@link EntitiesChangedEvent}, so
+ * that the state derived from them, such as the region turnover, is updated on every instance.
+ * <p>
+ * On other databases, such as H2 in development and tests, the invalidations stay local: nothing is broadcast.
+ */
+@Service
+public class CacheInvalidationBus {
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    public static final String MESSAGES_METER_NAME = "cache.invalidation.messages";
+
+    /**
+     * PostgreSQL rejects notification payloads of 8000 bytes or more.
+     */
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+
+    private static final Map<String, Class<?>> CHANGE_TRACKED_ENTITIES = Map.of(
+        Tabela.class.getName(),
+        Tabela.class,
+        Grafikon.class.getName(),
+        Grafikon.class
+    );
+
+    private static final Set<String> QUERY_CACHES = Set.of(
+        QueryResultCache.TABELA_PAGES_CACHE,
+        QueryResultCache.GRAFIKON_PAGES_CACHE,
+        QueryResultCache.TURNOVER_AGGREGATES_CACHE
+    );
+
+    private final CacheManager cacheManager;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final QueryResultCache queryResultCache;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final DataSourceProperties dataSourceProperties;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean enabled;
+
+    private final String channel;
+
+    private final int maxKeysPerCache;
+
+    private final Duration reconnectDelay;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Counter sentCounter;
+
+    private final Counter receivedCounter;
+
+    private final Object lock = new Object();
+
+    private Set<Invalidation> pendingInvalidations = new LinkedHashSet<>();
+
+    private volatile boolean broadcasting;
+
+    private Thread listenerThread;
+
+    public CacheInvalidationBus(
+        CacheManager cacheManager,
+        EntityManagerFactory entityManagerFactory,
+        QueryResultCache queryResultCache,
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        DataSourceProperties dataSourceProperties,
+        ObjectMapper objectMapper,
+        ApplicationEventPublisher eventPublisher,
+        MeterRegistry registry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.queryResultCache = queryResultCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dataSourceProperties = dataSourceProperties;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        ApplicationProperties.CacheInvalidation cacheInvalidation = applicationProperties.getCacheInvalidation();
+        this.enabled = cacheInvalidation.isEnabled();
+        this.channel = cacheInvalidation.getChannel();
+        this.maxKeysPerCache = cacheInvalidation.getMaxKeysPerCache();
+        this.reconnectDelay = cacheInvalidation.getReconnectDelay();
+        this.sentCounter = messagesCounter("sent", registry);
+        this.receivedCounter = messagesCounter("received", registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || !isPostgreSQL()) {
+            log.info("Cache invalidations are not broadcast, they only apply to this instance");
+            return;
+        }
+        if (!CHANNEL_PATTERN.matcher(channel).matches()) {
+            throw new IllegalStateException("Invalid cache invalidation channel: " + channel);
+        }
+        EntityCommitListener listener = new EntityCommitListener();
+        EventListenerRegistry registry = sessionFactory().getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+        broadcasting = true;
+        listenerThread = new Thread(new NotificationListener(), "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        log.info("Broadcasting the cache invalidations on the {} channel", channel);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        broadcasting = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread.join(POLL_TIMEOUT_MILLIS * 2L);
+        }
+    }
+
+    /**
+     * Evicts a key from a cache on the other instances.
+     * <p>
+     * Within a transaction, the eviction is only broadcast once the transaction has committed.
+     *
+     * @param cacheName the name of the cache: a Spring cache, or the name of a cached entity.
+     * @param key the key of the cache, or the id of the entity.
+     */
+    public void evict(String cacheName, Object key) {
+        add(new Invalidation(cacheName, String.valueOf(key)));
+    }
+
+    /**
+     * Clears a cache on the other instances.
+     * <p>
+     * Within a transaction, the clear is only broadcast once the transaction has committed.
+     *
+     * @param cacheName the name of the cache: a Spring cache, a query result cache, or the name of a cached entity.
+     */
+    public void clear(String cacheName) {
+        add(new Invalidation(cacheName, null));
+    }
+
+    @EventListener
+    public void onEntitiesChanged(EntitiesChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        // Also covers the native writes, which Hibernate raises no event for.
+        Set<Long> tabelaIds = event.getIds(Tabela.class);
+        if (!tabelaIds.isEmpty()) {
+            tabelaIds.forEach(id -> evict(Tabela.class.getName(), id));
+            clear(QueryResultCache.TABELA_PAGES_CACHE);
+        }
+        Set<Long> grafikonIds = event.getIds(Grafikon.class);
+        if (!grafikonIds.isEmpty()) {
+            grafikonIds.forEach(id -> evict(Grafikon.class.getName(), id));
+            clear(QueryResultCache.GRAFIKON_PAGES_CACHE);
+        }
+    }
+
+    /**
+     * Sends the invalidations collected since the previous call.
+     * <p>
+     * This is scheduled to get fired every {@code application.cache-invalidation.flush-interval}.
+     */
+    @Scheduled(fixedDelayString = "${application.cache-invalidation.flush-interval:PT0.1S}")
+    public void flush() {
+        Set<Invalidation> invalidations;
+        synchronized (lock) {
+            if (pendingInvalidations.isEmpty()) {
+                return;
+            }
+            invalidations = pendingInvalidations;
+            pendingInvalidations = new LinkedHashSet<>();
+        }
+        List<String> payloads = toPayloads(invalidations);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                payloads.forEach(payload -> jdbcTemplate.queryForList("select pg_notify(?, ?)", channel, payload))
+            );
+            sentCounter.increment(payloads.size());
+            log.debug("Broadcast {} cache invalidations in {} notifications", invalidations.size(), payloads.size());
+        } catch (DataAccessException e) {
+            log.warn("Could not broadcast {} cache invalidations, retrying: {}", invalidations.size(), e.getMessage());
+            synchronized (lock) {
+                invalidations.addAll(pendingInvalidations);
+                pendingInvalidations = invalidations;
+            }
+        }
+    }
+
+    /**
+     * Batches invalidations in notification payloads.
+     *
+     * @param invalidations the invalidations.
+     * @return the payloads, each under {@link #MAX_PAYLOAD_BYTES}.
+     */
+    List<String> toPayloads(Collection<Invalidation> invalidations) {
+        // A null set of keys clears the whole cache.
+        Map<String, Set<String>> keysByCache = new LinkedHashMap<>();
+        for (Invalidation invalidation : invalidations) {
+            if (invalidation.key == null) {
+                keysByCache.put(invalidation.cacheName, null);
+            } else if (!keysByCache.containsKey(invalidation.cacheName) || keysByCache.get(invalidation.cacheName) != null) {
+                Set<String> keys = keysByCache.computeIfAbsent(invalidation.cacheName, cacheName -> new LinkedHashSet<>());
+                keys.add(invalidation.key);
+                if (keys.size() > maxKeysPerCache) {
+                    keysByCache.put(invalidation.cacheName, null);
+                }
+            }
+        }
+
+        int emptyPayloadBytes = byteLength(toPayload(objectMapper.createArrayNode()));
+        List<String> payloads = new ArrayList<>();
+        ArrayNode entries = objectMapper.createArrayNode();
+        int payloadBytes = emptyPayloadBytes;
+        for (Map.Entry<String, Set<String>> cacheKeys : keysByCache.entrySet()) {
+            List<ArrayNode> cacheEntries = new ArrayList<>();
+            if (cacheKeys.getValue() == null) {
+                cacheEntries.add(objectMapper.createArrayNode().add(cacheKeys.getKey()));
+            } else {
+                cacheKeys.getValue().forEach(key -> cacheEntries.add(objectMapper.createArrayNode().add(cacheKeys.getKey()).add(key)));
+            }
+            for (ArrayNode entry : cacheEntries) {
+                // Separated from the previous entry by a comma.
+                int entryBytes = byteLength(entry.toString()) + 1;
+                if (emptyPayloadBytes + entryBytes > MAX_PAYLOAD_BYTES) {
+                    entry = objectMapper.createArrayNode().add(cacheKeys.getKey());
+                    entryBytes = byteLength(entry.toString()) + 1;
+                }
+                if (!entries.isEmpty() && payloadBytes + entryBytes > MAX_PAYLOAD_BYTES) {
+                    payloads.add(toPayload(entries));
+                    entries = objectMapper.createArrayNode();
+                    payloadBytes = emptyPayloadBytes;
+                }
+                entries.add(entry);
+                payloadBytes += entryBytes;
+            }
+        }
+        if (!entries.isEmpty()) {
+            payloads.add(toPayload(entries));
+        }
+        return payloads;
+    }
+
+    /**
+     * Applies the invalidations of a notification payload sent by another instance.
+     *
+     * @param payload the payload.
+     */
+    void receive(String payload) {
+        JsonNode message;
+        try {
+            message = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring a malformed cache invalidation notification: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(message.path("node").asText())) {
+            return;
+        }
+        receivedCounter.increment();
+        Map<Class<?>, Set<Long>> changedIds = new HashMap<>();
+        Set<Class<?>> unknownChanges = new HashSet<>();
+        for (JsonNode entry : message.path("invalidations")) {
+            String cacheName = entry.path(0).asText();
+            String key = entry.has(1) ? entry.get(1).asText() : null;
+            apply(cacheName, key);
+            Class<?> entityClass = CHANGE_TRACKED_ENTITIES.get(cacheName);
+            if (entityClass != null && key == null) {
+                unknownChanges.add(entityClass);
+            } else if (entityClass != null) {
+                try {
+                    changedIds.computeIfAbsent(entityClass, type -> new HashSet<>()).add(Long.valueOf(key));
+                } catch (NumberFormatException e) {
+                    unknownChanges.add(entityClass);
+                }
+            }
+        }
+        publishRemoteChanges(changedIds, unknownChanges);
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    private void add(Invalidation invalidation) {
+        if (!broadcasting) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        addPending(invalidation);
+                    }
+                }
+            );
+        } else {
+            addPending(invalidation);
+        }
+    }
+
+    private void addPending(Invalidation invalidation) {
+        synchronized (lock) {
+            pendingInvalidations.add(invalidation);
+        }
+    }
+
+    private void apply(String cacheName, String key) {
+        try {
+            if (QUERY_CACHES.contains(cacheName)) {
+                queryResultCache.invalidate(cacheName);
+                return;
+            }
+            SessionFactoryImplementor sessionFactory = sessionFactory();
+            EntityPersister persister = sessionFactory.getMetamodel().entityPersisters().get(cacheName);
+            if (persister != null) {
+                evictEntity(sessionFactory, persister, key);
+                return;
+            }
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                log.debug("Ignoring the invalidation of the unknown {} cache", cacheName);
+            } else if (key == null) {
+                cache.clear();
+            } else {
+                cache.evict(key);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not invalidate the {} cache: {}", cacheName, e.getMessage());
+        }
+    }
+
+    private void publishRemoteChanges(Map<Class<?>, Set<Long>> changedIds, Set<Class<?>> unknownChanges) {
+        if (changedIds.isEmpty() && unknownChanges.isEmpty()) {
+            return;
+        }
+        try {
+            eventPublisher.publishEvent(EntitiesChangedEvent.remote(changedIds, unknownChanges));
+        } catch (RuntimeException e) {
+            log.warn("Could not apply the changes of another instance: {}", e.getMessage());
+        }
+    }
+
+    private void evictEntity(SessionFactoryImplementor sessionFactory, EntityPersister persister, String key) {
+        Serializable id = key == null ? null : toId(persister, key);
+        if (id == null) {
+            sessionFactory.getCache().evictEntityData(persister.getEntityName());
+        } else {
+            sessionFactory.getCache().evictEntityData(persister.getEntityName(), id);
+        }
+        // The cached collections of the entity are not always written with it, such as the authorities of a user.
+        for (CollectionPersister collectionPersister : sessionFactory.getMetamodel().collectionPersisters().values()) {
+            if (collectionPersister.hasCache() && collectionPersister.getOwnerEntityPersister() == persister) {
+                if (id == null) {
+                    sessionFactory.getCache().evictCollectionData(collectionPersister.getRole());
+                } else {
+                    sessionFactory.getCache().evictCollectionData(collectionPersister.getRole(), id);
+                }
+            }
+        }
+    }
+
+    private static Serializable toId(EntityPersister persister, String key) {
+        Class<?> idType = persister.getIdentifierType().getReturnedClass();
+        if (Long.class.equals(idType)) {
+            return Long.valueOf(key);
+        }
+        if (Integer.class.equals(idType)) {
+            return Integer.valueOf(key);
+        }
+        return key;
+    }
+
+    /**
+     * Clears all the caches, once notifications may have been missed.
+     */
+    private void clearAll() {
+        QUERY_CACHES.forEach(queryResultCache::invalidate);
+        sessionFactory().getCache().evictAllRegions();
+        cacheManager.getCacheNames().forEach(cacheName -> Objects.requireNonNull(cacheManager.getCache(cacheName)).clear());
+        publishRemoteChanges(Collections.emptyMap(), new HashSet<>(CHANGE_TRACKED_ENTITIES.values()));
+    }
+
+    private String toPayload(ArrayNode entries) {
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("node", nodeId);
+        message.set("invalidations", entries);
+        return message.toString();
+    }
+
+    private static int byteLength(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private SessionFactoryImplementor sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    private boolean isPostgreSQL() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(
+                Objects.requireNonNull(jdbcTemplate.getDataSource()),
+                DatabaseMetaData::getDatabaseProductName
+            );
+            return POSTGRESQL.equals(product);
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not read the database product name: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static Counter messagesCounter(String direction, MeterRegistry registry) {
+        return Counter
+            .builder(MESSAGES_METER_NAME)
+            .description("Number of cache invalidation notifications.")
+            .tag("direction", direction)
+            .register(registry);
+    }
+
+    /**
+     * An invalidation of a key of a cache, or of the whole cache if the key is {@code null}.
+     */
+    static final class Invalidation {
+
+        private final String cacheName;
+
+        private final String key;
+
+        Invalidation(String cacheName, String key) {
+            this.cacheName = cacheName;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Invalidation)) {
+                return false;
+            }
+            Invalidation other = (Invalidation) o;
+            return cacheName.equals(other.cacheName) && Objects.equals(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(cacheName, key);
+        }
+    }
+
+    /**
+     * Collects the committed updates and deletes of the cached entities, new entities are in no cache yet.
+     */
+    private final class EntityCommitListener implements PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            evict(event.getPersister().getEntityName(), event.getId());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            evict(event.getPersister().getEntityName(), event.getId());
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+            // Nothing was committed, so the other instances have nothing to evict.
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+            // Nothing was committed, so the other instances have nothing to evict.
+        }
+
+        @Override
+        @SuppressWarnings("deprecation") // Still the abstract method of PostActionEventListener in Hibernate 5.6
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return persister.canWriteToCache();
+        }
+    }
+
+    /**
+     * Listens to the notifications of the other instances on a dedicated connection, reconnecting when it is lost.
+     */
+    private final class NotificationListener implements Runnable {
+
+        @Override
+        public void run() {
+            boolean missedNotifications = false;
+            while (broadcasting) {
+                try (
+                    Connection connection = DriverManager.getConnection(
+                        dataSourceProperties.determineUrl(),
+                        dataSourceProperties.determineUsername(),
+                        dataSourceProperties.determinePassword()
+                    );
+                    Statement statement = connection.createStatement()
+                ) {
+                    connection.setAutoCommit(true);
+                    statement.execute("LISTEN " + channel);
+                    if (missedNotifications) {
+                        log.info("Listening to the cache invalidations again, clearing the caches");
+                        clearAll();
+                    }
+                    PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                    while (broadcasting) {
+                        PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                        if (notifications != null) {
+                            Arrays.stream(notifications).forEach(notification -> receive(notification.getParameter()));
+                        }
+                    }
+                } catch (SQLException e) {
+                    if (broadcasting) {
+                        log.warn("Lost the cache invalidation connection, reconnecting in {}: {}", reconnectDelay, e.getMessage());
+                        missedNotifications = true;
+                        sleep();
+                    }
+                }
+            }
+        }
+
+        private void sleep() {
+            try {
+                Thread.sleep(reconnectDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                broadcasting = false;
+            }
+        }
+    }
+}
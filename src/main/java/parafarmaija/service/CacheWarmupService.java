@@ -0,0 +1,154 @@
+package parafarmaija.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.IntSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import parafarmaija.config.ApplicationProperties;
+import parafarmaija.domain.User;
+import parafarmaija.repository.GrafikonRepository;
+import parafarmaija.repository.RegionRepository;
+import parafarmaija.repository.TabelaRepository;
+import parafarmaija.repository.UserRepository;
+
+/**
+ * Service warming up the caches on startup.
+ * <p>
+ * Spring Boot runs it before publishing the {@code ApplicationReadyEvent}, so the readiness probe only reports the
+ * application as accepting traffic once the warm-up is over. The users most recently modified are loaded in the users
+ * by login cache, and the regions and the most recent tabelas and grafikons in their entity caches. The tasks run in
+ * parallel, each in its own read-only transaction. A warm-up failing or running past
+ * {@code application.cache-warmup.timeout} is only logged, it never prevents the application from starting.
+ */
+@Service
+public class CacheWarmupService implements ApplicationRunner {
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    public static final String WARMUP_METER_NAME = "cache.warmup";
+
+    private final UserRepository userRepository;
+
+    private final RegionRepository regionRepository;
+
+    private final TabelaRepository tabelaRepository;
+
+    private final GrafikonRepository grafikonRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+
+    private final int users;
+
+    private final int entities;
+
+    private final int threads;
+
+    private final Duration timeout;
+
+    public CacheWarmupService(
+        UserRepository userRepository,
+        RegionRepository regionRepository,
+        TabelaRepository tabelaRepository,
+        GrafikonRepository grafikonRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.userRepository = userRepository;
+        this.regionRepository = regionRepository;
+        this.tabelaRepository = tabelaRepository;
+        this.grafikonRepository = grafikonRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        ApplicationProperties.CacheWarmup cacheWarmup = applicationProperties.getCacheWarmup();
+        this.enabled = cacheWarmup.isEnabled();
+        this.users = cacheWarmup.getUsers();
+        this.entities = cacheWarmup.getEntities();
+        this.threads = cacheWarmup.getThreads();
+        this.timeout = cacheWarmup.getTimeout();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Preload the caches.
+     *
+     * @return {@code true} if all the warm-up tasks completed in time.
+     */
+    public boolean warmUp() {
+        Map<String, IntSupplier> tasks = new LinkedHashMap<>();
+        tasks.put("users", this::loadUsers);
+        tasks.put("regions", () -> regionRepository.findAll().size());
+        tasks.put("tabelas", () -> tabelaRepository.findAllBy(mostRecent(entities)).getNumberOfElements());
+        tasks.put("grafikons", () -> grafikonRepository.findAllBy(mostRecent(entities)).getNumberOfElements());
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("cache-warmup-"));
+        try {
+            CompletableFuture<?>[] futures = tasks
+                .entrySet()
+                .stream()
+                .map(task -> CompletableFuture.runAsync(() -> runTask(task.getKey(), task.getValue()), executor))
+                .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(futures).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            log.info("Warmed up the caches in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } catch (TimeoutException e) {
+            log.warn("Cache warm-up not completed after {}, starting anyway", timeout);
+        } catch (ExecutionException e) {
+            log.warn("Cache warm-up failed, starting anyway: {}", e.getCause().toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        return false;
+    }
+
+    private int loadUsers() {
+        PageRequest pageable = PageRequest.of(0, users, Sort.by(Sort.Direction.DESC, "lastModifiedDate"));
+        int loaded = 0;
+        for (User user : userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable)) {
+            // Goes through the cache, so that the user is stored in it.
+            userRepository.findOneWithAuthoritiesByLogin(user.getLogin());
+            loaded++;
+        }
+        return loaded;
+    }
+
+    private void runTask(String name, IntSupplier task) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Integer loaded = transactionTemplate.execute(status -> task.getAsInt());
+        long nanos = sample.stop(
+            Timer.builder(WARMUP_METER_NAME).description("Time spent warming up a cache.").tag("task", name).register(meterRegistry)
+        );
+        log.debug("Warmed up {} with {} entries in {} ms", name, loaded, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    private static PageRequest mostRecent(int size) {
+        return PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "id"));
+    }
+}
@@ -0,0 +1,307 @@
+package parafarmaija.service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import parafarmaija.config.ApplicationProperties;
+import parafarmaija.domain.Grafikon;
+import parafarmaija.domain.Tabela;
+import parafarmaija.repository.EntityChangeRepository;
+import parafarmaija.repository.GrafikonRepository;
+import parafarmaija.repository.TabelaRepository;
+import parafarmaija.service.dto.EntityChangesDTO;
+
+/**
+ * Service for the delta-sync of tabelas and grafikons.
+ * <p>
+ * Every insert, update and delete of a tabela or a grafikon is recorded in the {@code entity_change} log by Hibernate
+ * listeners. The changes of a transaction are written in a single JDBC batch right before it commits, so rolled back
+ * transactions leave no trace. Writes which bypass Hibernate events must call {@link #recordChange(Class, Long)}. Once
+ * the transaction has committed, its changes are published as an {@link EntitiesChangedEvent}.
+ * <p>
+ * The sync token is the id of a change: a client sending back its token only gets the entities changed since. The ids
+ * are assigned before the changes commit, so a change can become visible after a change with a greater id. The token
+ * is therefore the last change written more than {@code application.delta-sync.commit-lag} ago, the changes written
+ * since are sent but sent again with the next call, until they are older than the lag.
+ * <p>
+ * Changes older than {@code application.delta-sync.retention} are removed every night, the clients with an older token
+ * then get all the entities again.
+ */
+@Service
+@Transactional
+public class DeltaSyncService {
+
+    private final Logger log = LoggerFactory.getLogger(DeltaSyncService.class);
+
+    /**
+     * Above this number of changed entities, all the entities are returned instead.
+     */
+    public static final int MAX_CHANGED_ENTITIES = 1000;
+
+    private static final Map<Class<?>, String> ENTITY_NAMES = Map.of(Tabela.class, "tabela", Grafikon.class, "grafikon");
+
+    private static final String INSERT_CHANGE_SQL = "insert into entity_change (entity_name, entity_id, changed_at) values (?, ?, ?)";
+
+    private final EntityChangeRepository entityChangeRepository;
+
+    private final TabelaRepository tabelaRepository;
+
+    private final GrafikonRepository grafikonRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<SessionImplementor, Set<Change>> pendingChanges = new ConcurrentHashMap<>();
+
+    public DeltaSyncService(
+        EntityChangeRepository entityChangeRepository,
+        TabelaRepository tabelaRepository,
+        GrafikonRepository grafikonRepository,
+        EntityManagerFactory entityManagerFactory,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties,
+        ApplicationEventPublisher eventPublisher
+    ) {
+        this.entityChangeRepository = entityChangeRepository;
+        this.tabelaRepository = tabelaRepository;
+        this.grafikonRepository = grafikonRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        ChangeListener listener = new ChangeListener();
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    /**
+     * Records a change made by a statement which Hibernate does not raise events for, such as a native update.
+     * <p>
+     * The change is written when the current transaction commits.
+     *
+     * @param entityClass the type of the changed entity.
+     * @param id the id of the changed entity.
+     */
+    public void recordChange(Class<?> entityClass, Long id) {
+        record(entityManager.unwrap(SessionImplementor.class), entityClass, id);
+    }
+
+    /**
+     * Whether the current transaction wrote tabelas or grafikons it has not committed yet.
+     *
+     * @return {@code true} if changes of the current transaction are pending.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean hasPendingChanges() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        Set<Change> changes = pendingChanges.get(entityManager.unwrap(SessionImplementor.class));
+        return changes != null && !changes.isEmpty();
+    }
+
+    /**
+     * Get the tabelas changed since a sync token.
+     *
+     * @param since the token returned by the previous call, {@code null} to get all the tabelas.
+     * @return the changes.
+     */
+    @Transactional(readOnly = true)
+    public EntityChangesDTO<Tabela> getTabelaChanges(Long since) {
+        return getChanges(Tabela.class, tabelaRepository, since);
+    }
+
+    /**
+     * Get the grafikons changed since a sync token.
+     *
+     * @param since the token returned by the previous call, {@code null} to get all the grafikons.
+     * @return the changes.
+     */
+    @Transactional(readOnly = true)
+    public EntityChangesDTO<Grafikon> getGrafikonChanges(Long since) {
+        return getChanges(Grafikon.class, grafikonRepository, since);
+    }
+
+    /**
+     * Changes should be removed from the log once they are older than the retention.
+     * <p>
+     * This is scheduled to get fired everyday, at 01:30 (am).
+     */
+    @Scheduled(cron = "0 30 1 * * ?")
+    public void removeOldChanges() {
+        Duration retention = applicationProperties.getDeltaSync().getRetention();
+        int removed = entityChangeRepository.deleteByChangedAtBefore(Instant.now().minus(retention));
+        log.debug("Removed {} changes older than {} from the change log", removed, retention);
+    }
+
+    private <T> EntityChangesDTO<T> getChanges(Class<T> entityClass, JpaRepository<T, Long> repository, Long since) {
+        EntityChangesDTO<T> result = new EntityChangesDTO<>();
+        // The token is read first, so a change committed meanwhile is sent again with the next call rather than lost.
+        Instant settled = Instant.now().minus(applicationProperties.getDeltaSync().getCommitLag());
+        Optional<Long> settledId = entityChangeRepository.findLastIdUntil(settled);
+        long lastId = entityChangeRepository.findLastId().orElse(0L);
+        long firstId = entityChangeRepository.findFirstId().orElse(lastId + 1);
+        result.setToken(settledId.orElse(firstId - 1));
+        if (since != null && since <= lastId && since >= firstId - 1) {
+            List<Long> changedIds = entityChangeRepository.findChangedEntityIds(ENTITY_NAMES.get(entityClass), since, lastId);
+            if (changedIds.size() <= MAX_CHANGED_ENTITIES) {
+                result.setUpserted(changedIds.isEmpty() ? new ArrayList<>() : repository.findAllById(changedIds));
+                Set<Object> upsertedIds = new HashSet<>();
+                result
+                    .getUpserted()
+                    .forEach(entity -> upsertedIds.add(entityManagerFactory.getPersistenceUnitUtil().getIdentifier(entity)));
+                changedIds.stream().filter(id -> !upsertedIds.contains(id)).forEach(result.getDeleted()::add);
+                return result;
+            }
+        }
+        result.setFull(true);
+        result.setUpserted(repository.findAll());
+        return result;
+    }
+
+    private void record(SessionImplementor session, Class<?> entityClass, Object id) {
+        if (!ENTITY_NAMES.containsKey(entityClass)) {
+            return;
+        }
+        pendingChanges
+            .computeIfAbsent(
+                session,
+                key -> {
+                    key.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::writePendingChanges);
+                    key
+                        .getActionQueue()
+                        .registerProcess((AfterTransactionCompletionProcess) (success, completed) -> publishChanges(success, completed));
+                    return new LinkedHashSet<>();
+                }
+            )
+            .add(new Change(entityClass, (Long) id));
+    }
+
+    private void writePendingChanges(SessionImplementor session) {
+        Set<Change> changes = pendingChanges.get(session);
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC));
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_CHANGE_SQL)) {
+                for (Change change : changes) {
+                    statement.setString(1, ENTITY_NAMES.get(change.entityClass));
+                    statement.setLong(2, change.entityId);
+                    statement.setTimestamp(3, now, utc);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    private void publishChanges(boolean success, Object session) {
+        Set<Change> changes = pendingChanges.remove(session);
+        if (!success || changes == null || changes.isEmpty()) {
+            return;
+        }
+        Map<Class<?>, Set<Long>> ids = new HashMap<>();
+        changes.forEach(change -> ids.computeIfAbsent(change.entityClass, key -> new LinkedHashSet<>()).add(change.entityId));
+        eventPublisher.publishEvent(new EntitiesChangedEvent(ids));
+    }
+
+    /**
+     * A change of an entity, several changes of the same entity in a transaction are recorded once.
+     */
+    private static final class Change {
+
+        private final Class<?> entityClass;
+
+        private final Long entityId;
+
+        private Change(Class<?> entityClass, Long entityId) {
+            this.entityClass = entityClass;
+            this.entityId = entityId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Change)) {
+                return false;
+            }
+            Change change = (Change) o;
+            return entityClass.equals(change.entityClass) && entityId.equals(change.entityId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityClass, entityId);
+        }
+    }
+
+    /**
+     * Records the writes on tabelas and grafikons as they are flushed.
+     */
+    private final class ChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            record(event.getSession(), event.getEntity().getClass(), event.getId());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            record(event.getSession(), event.getEntity().getClass(), event.getId());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            record(event.getSession(), event.getEntity().getClass(), event.getId());
+        }
+
+        @Override
+        @SuppressWarnings("deprecation") // Still the abstract method of PostActionEventListener in Hibernate 5.6
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return false;
+        }
+    }
+}
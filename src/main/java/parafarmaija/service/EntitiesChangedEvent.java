@@ -0,0 +1,72 @@
+package parafarmaija.service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Event published once a transaction which inserted, updated or deleted tabelas or grafikons has committed.
+ * <p>
+ * It is also published for the changes committed by the other instances, once their cache invalidations are received.
+ */
+public class EntitiesChangedEvent {
+
+    private final Map<Class<?>, Set<Long>> ids;
+
+    private final Set<Class<?>> unknownChanges;
+
+    private final boolean remote;
+
+    public EntitiesChangedEvent(Map<Class<?>, Set<Long>> ids) {
+        this(ids, Collections.emptySet(), false);
+    }
+
+    private EntitiesChangedEvent(Map<Class<?>, Set<Long>> ids, Set<Class<?>> unknownChanges, boolean remote) {
+        this.ids = ids;
+        this.unknownChanges = unknownChanges;
+        this.remote = remote;
+    }
+
+    /**
+     * Create the event of changes committed by another instance.
+     *
+     * @param ids the ids of the changed entities, by type.
+     * @param unknownChanges the types of the entities which changed without their ids being known.
+     * @return the event.
+     */
+    public static EntitiesChangedEvent remote(Map<Class<?>, Set<Long>> ids, Set<Class<?>> unknownChanges) {
+        return new EntitiesChangedEvent(ids, unknownChanges, true);
+    }
+
+    /**
+     * Get the ids of the changed entities of a type.
+     *
+     * @param entityClass the type of the entities.
+     * @return the ids, empty if no entity of this type changed.
+     */
+    public Set<Long> getIds(Class<?> entityClass) {
+        return ids.getOrDefault(entityClass, Collections.emptySet());
+    }
+
+    /**
+     * Whether entities of a type changed on another instance, without their ids being known.
+     *
+     * @param entityClass the type of the entities.
+     * @return {@code true} if any entity of this type may have changed.
+     */
+    public boolean hasUnknownChanges(Class<?> entityClass) {
+        return unknownChanges.contains(entityClass);
+    }
+
+    /**
+     * Whether the changes were committed by another instance.
+     */
+    public boolean isRemote() {
+        return remote;
+    }
+
+    @Override
+    public String toString() {
+        return "EntitiesChangedEvent{" + "ids=" + ids + ", unknownChanges=" + unknownChanges + ", remote=" + remote + "}";
+    }
+}
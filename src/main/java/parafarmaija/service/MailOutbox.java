@@ -0,0 +1,354 @@
+package parafarmaija.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.Address;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import parafarmaija.config.ApplicationProperties;
+import parafarmaija.domain.MailOutboxMessage;
+import parafarmaija.repository.MailOutboxMessageRepository;
+
+/**
+ * Outbox of the emails: they are stored in the database, then sent in batches by dedicated workers.
+ * <p>
+ * Once stored, the id of an email is put in a bounded in-memory queue, which the workers drain in batches. A batch is
+ * sent over a single SMTP connection. Emails which could not be sent are retried with an exponential backoff, until
+ * they run out of attempts. Whenever the queue is empty, it is refilled with the emails due in the database: the ones
+ * which did not fit in the queue, are due for a retry, or were left by another instance.
+ * <p>
+ * A worker claims an email by pushing its next attempt to the end of a lease, so that an email is only sent once even
+ * when several instances share the outbox.
+ */
+@Service
+public class MailOutbox {
+
+    public static final String QUEUE_METER_NAME = "mail.outbox.queue";
+
+    public static final String OLDEST_METER_NAME = "mail.outbox.oldest";
+
+    public static final String LATENCY_METER_NAME = "mail.outbox.latency";
+
+    public static final String DELIVERIES_METER_NAME = "mail.outbox.deliveries";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final long POLL_TIMEOUT_MILLIS = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(MailOutbox.class);
+
+    private final MailOutboxMessageRepository mailOutboxMessageRepository;
+
+    private final JavaMailSender javaMailSender;
+
+    private final Executor mailOutboxExecutor;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int threads;
+
+    private final int batchSize;
+
+    private final Duration lease;
+
+    private final int maxAttempts;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    private final BlockingQueue<Long> queue;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong oldestPendingAge = new AtomicLong();
+
+    private final Timer latencyTimer;
+
+    private final Counter sentCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+
+    public MailOutbox(
+        MailOutboxMessageRepository mailOutboxMessageRepository,
+        JavaMailSender javaMailSender,
+        @Qualifier("mailOutboxExecutor") Executor mailOutboxExecutor,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry registry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.mailOutboxMessageRepository = mailOutboxMessageRepository;
+        this.javaMailSender = javaMailSender;
+        this.mailOutboxExecutor = mailOutboxExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        ApplicationProperties.MailOutbox properties = applicationProperties.getMailOutbox();
+        this.threads = properties.getThreads();
+        this.batchSize = properties.getBatchSize();
+        this.lease = properties.getLease();
+        this.maxAttempts = properties.getMaxAttempts();
+        this.initialBackoff = properties.getInitialBackoff();
+        this.maxBackoff = properties.getMaxBackoff();
+        this.queue = new LinkedBlockingQueue<>(properties.getQueueCapacity());
+        Gauge
+            .builder(QUEUE_METER_NAME, queue, BlockingQueue::size)
+            .description("Number of emails waiting in the in-memory queue")
+            .tag("store", "memory")
+            .register(registry);
+        Gauge
+            .builder(QUEUE_METER_NAME, pending, AtomicLong::get)
+            .description("Number of emails not sent yet in the database, as of the last poll")
+            .tag("store", "database")
+            .register(registry);
+        TimeGauge
+            .builder(OLDEST_METER_NAME, oldestPendingAge, TimeUnit.MILLISECONDS, AtomicLong::get)
+            .description("Age of the oldest email not sent yet, as of the last poll")
+            .register(registry);
+        this.latencyTimer = Timer
+            .builder(LATENCY_METER_NAME)
+            .description("Delay between the creation of the emails and their sending")
+            .register(registry);
+        this.sentCounter = deliveriesCounter("sent", registry);
+        this.retriedCounter = deliveriesCounter("retried", registry);
+        this.failedCounter = deliveriesCounter("failed", registry);
+    }
+
+    private static Counter deliveriesCounter(String result, MeterRegistry registry) {
+        return Counter
+            .builder(DELIVERIES_METER_NAME)
+            .description("Number of email sending attempts")
+            .tag("result", result)
+            .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < threads; i++) {
+            mailOutboxExecutor.execute(new Worker());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Store an email in the outbox.
+     * <p>
+     * Within a transaction, the email is only queued for sending once the transaction has committed.
+     *
+     * @param mimeMessage the email.
+     * @throws MessagingException if the email cannot be written.
+     */
+    @Transactional
+    public void add(MimeMessage mimeMessage) throws MessagingException {
+        ByteArrayOutputStream rawMessage = new ByteArrayOutputStream();
+        try {
+            mimeMessage.writeTo(rawMessage);
+        } catch (IOException e) {
+            throw new MessagingException("Email could not be written", e);
+        }
+        Address[] recipients = mimeMessage.getAllRecipients();
+        Instant now = Instant.now();
+        MailOutboxMessage message = new MailOutboxMessage();
+        message.setRecipient(recipients != null && recipients.length > 0 ? recipients[0].toString() : "");
+        // Written MIME messages only contain 7 bit characters, ISO-8859-1 keeps them as they are anyway.
+        message.setRawMessage(rawMessage.toString(StandardCharsets.ISO_8859_1));
+        message.setCreatedDate(now);
+        message.setNextAttemptAt(now);
+        Long id = mailOutboxMessageRepository.save(message).getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        offer(id);
+                    }
+                }
+            );
+        } else {
+            offer(id);
+        }
+    }
+
+    /**
+     * Queue the emails due for sending when the queue is empty, and refresh the gauges of the outbox.
+     * <p>
+     * This is scheduled to get fired every 10 seconds by default.
+     */
+    @Scheduled(fixedDelayString = "${application.mail-outbox.poll-interval:PT10S}")
+    public void poll() {
+        Instant now = Instant.now();
+        if (queue.isEmpty()) {
+            mailOutboxMessageRepository.findDueIds(now, PageRequest.of(0, queue.remainingCapacity())).forEach(queue::offer);
+        }
+        pending.set(mailOutboxMessageRepository.countByFailedIsFalse());
+        Instant oldest = mailOutboxMessageRepository.findOldestPendingCreatedDate();
+        oldestPendingAge.set(oldest != null ? Duration.between(oldest, now).toMillis() : 0);
+    }
+
+    private void offer(Long id) {
+        if (!queue.offer(id)) {
+            log.debug("The mail outbox queue is full, email {} will be sent from the database", id);
+        }
+    }
+
+    /**
+     * Send a batch of emails, over a single SMTP connection.
+     *
+     * @param ids the ids of the emails.
+     */
+    void send(List<Long> ids) {
+        Instant now = Instant.now();
+        List<MailOutboxMessage> messages = transactionTemplate.execute(status -> {
+            List<Long> claimedIds = ids
+                .stream()
+                .distinct()
+                .filter(id -> mailOutboxMessageRepository.claim(id, now, now.plus(lease)) > 0)
+                .collect(Collectors.toList());
+            return claimedIds.isEmpty() ? List.of() : mailOutboxMessageRepository.findAllById(claimedIds);
+        });
+        if (messages == null || messages.isEmpty()) {
+            return;
+        }
+        Map<MimeMessage, MailOutboxMessage> mimeMessages = new LinkedHashMap<>();
+        Map<MailOutboxMessage, Exception> failures = new HashMap<>();
+        for (MailOutboxMessage message : messages) {
+            try {
+                byte[] rawMessage = message.getRawMessage().getBytes(StandardCharsets.ISO_8859_1);
+                mimeMessages.put(javaMailSender.createMimeMessage(new ByteArrayInputStream(rawMessage)), message);
+            } catch (MailException e) {
+                failures.put(message, e);
+            }
+        }
+        if (!mimeMessages.isEmpty()) {
+            try {
+                javaMailSender.send(mimeMessages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                e.getFailedMessages().forEach((mimeMessage, cause) -> failures.put(mimeMessages.get(mimeMessage), cause));
+            } catch (MailException e) {
+                mimeMessages.values().forEach(message -> failures.put(message, e));
+            }
+        }
+        complete(messages, failures);
+    }
+
+    private void complete(List<MailOutboxMessage> messages, Map<MailOutboxMessage, Exception> failures) {
+        Instant now = Instant.now();
+        List<Long> sentIds = new ArrayList<>();
+        List<MailOutboxMessage> failedMessages = new ArrayList<>();
+        for (MailOutboxMessage message : messages) {
+            Exception failure = failures.get(message);
+            if (failure == null) {
+                sentIds.add(message.getId());
+                latencyTimer.record(Duration.between(message.getCreatedDate(), now));
+                sentCounter.increment();
+                log.debug("Sent email {} to '{}'", message.getId(), message.getRecipient());
+                continue;
+            }
+            message.setAttempts(message.getAttempts() + 1);
+            message.setLastError(truncate(failure.getMessage()));
+            if (message.getAttempts() >= maxAttempts) {
+                message.setFailed(true);
+                failedCounter.increment();
+                log.error("Email {} could not be sent to '{}', giving up", message.getId(), message.getRecipient(), failure);
+            } else {
+                message.setNextAttemptAt(now.plus(backoff(message.getAttempts())));
+                retriedCounter.increment();
+                log.warn(
+                    "Email {} could not be sent to '{}', retrying at {}",
+                    message.getId(),
+                    message.getRecipient(),
+                    message.getNextAttemptAt()
+                );
+            }
+            failedMessages.add(message);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                mailOutboxMessageRepository.deleteAllByIdInBatch(sentIds);
+            }
+            if (!failedMessages.isEmpty()) {
+                mailOutboxMessageRepository.saveAll(failedMessages);
+            }
+        });
+    }
+
+    Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private final class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    Long id = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (id == null) {
+                        continue;
+                    }
+                    List<Long> ids = new ArrayList<>(batchSize);
+                    ids.add(id);
+                    queue.drainTo(ids, batchSize - 1);
+                    send(ids);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    // The emails of the batch are sent again from the database at the end of their lease.
+                    log.error("Mail outbox worker failed to send a batch", e);
+                }
+            }
+        }
+    }
+}
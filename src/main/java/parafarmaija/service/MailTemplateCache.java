@@ -0,0 +1,220 @@
+package parafarmaija.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.unbescape.html.HtmlEscape;
+import parafarmaija.config.Constants;
+import parafarmaija.domain.User;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service rendering the email templates, caching what does not depend on their user.
+ * <p>
+ * A template is rendered once per locale, with markers in place of the fields of the user, and split around these
+ * markers. Rendering it for a user then only writes the HTML-escaped fields of the user between the cached parts,
+ * instead of parsing, localizing and rendering the whole template again. The templates must therefore only depend on
+ * the locale, the base URL and the user, and output the fields of the user unchanged, as text or attribute values.
+ * Emails to a user missing one of the fields output by their template are rendered from the template, as a missing
+ * field is not always rendered the same way.
+ * <p>
+ * The activation, creation and password reset templates are rendered in the default language at startup. When the
+ * Thymeleaf cache is disabled, as in development, every email is rendered from its template, so that edits show up.
+ */
+@Service
+public class MailTemplateCache {
+
+    private final Logger log = LoggerFactory.getLogger(MailTemplateCache.class);
+
+    static final List<String> PRECOMPILED_TEMPLATES = List.of("mail/activationEmail", "mail/creationEmail", "mail/passwordResetEmail");
+
+    private static final String USER = "user";
+
+    private static final String BASE_URL = "baseUrl";
+
+    private static final UserField[] USER_FIELDS = UserField.values();
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final MessageSource messageSource;
+
+    private final String baseUrl;
+
+    private final boolean enabled;
+
+    private final String marker = "mailfield" + UUID.randomUUID().toString().replace("-", "");
+
+    private final Pattern markerPattern = Pattern.compile(marker + "(\\d+)x");
+
+    private final Map<String, RenderedTemplate> templates = new ConcurrentHashMap<>();
+
+    private final Map<String, String> messages = new ConcurrentHashMap<>();
+
+    public MailTemplateCache(
+        SpringTemplateEngine templateEngine,
+        MessageSource messageSource,
+        JHipsterProperties jHipsterProperties,
+        @Value("${spring.thymeleaf.cache:true}") boolean enabled
+    ) {
+        this.templateEngine = templateEngine;
+        this.messageSource = messageSource;
+        this.baseUrl = jHipsterProperties.getMail().getBaseUrl();
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void precompile() {
+        if (!enabled) {
+            return;
+        }
+        Locale locale = Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE);
+        for (String templateName : PRECOMPILED_TEMPLATES) {
+            template(templateName, locale);
+        }
+        log.debug("Precompiled the {} email templates for locale '{}'", PRECOMPILED_TEMPLATES.size(), locale);
+    }
+
+    /**
+     * Render an email template for a user.
+     *
+     * @param templateName the name of the template.
+     * @param locale the locale of the email.
+     * @param user the user the email is sent to.
+     * @return the rendered email.
+     */
+    public String render(String templateName, Locale locale, User user) {
+        if (!enabled) {
+            return templateEngine.process(templateName, context(locale, user));
+        }
+        RenderedTemplate template = template(templateName, locale);
+        if (!template.hasFields(user)) {
+            return templateEngine.process(templateName, context(locale, user));
+        }
+        return template.render(user);
+    }
+
+    /**
+     * Get a message of an email, such as its subject.
+     *
+     * @param code the code of the message.
+     * @param locale the locale of the email.
+     * @return the message.
+     */
+    public String getMessage(String code, Locale locale) {
+        if (!enabled) {
+            return messageSource.getMessage(code, null, locale);
+        }
+        return messages.computeIfAbsent(key(code, locale), key -> messageSource.getMessage(code, null, locale));
+    }
+
+    private RenderedTemplate template(String templateName, Locale locale) {
+        return templates.computeIfAbsent(key(templateName, locale), key -> compile(templateName, locale));
+    }
+
+    private RenderedTemplate compile(String templateName, Locale locale) {
+        User markers = new User();
+        for (UserField field : USER_FIELDS) {
+            field.setter.accept(markers, marker + field.ordinal() + "x");
+        }
+        String content = templateEngine.process(templateName, context(locale, markers));
+        List<String> parts = new ArrayList<>();
+        List<UserField> fields = new ArrayList<>();
+        Matcher matcher = markerPattern.matcher(content);
+        int start = 0;
+        while (matcher.find()) {
+            parts.add(content.substring(start, matcher.start()));
+            fields.add(USER_FIELDS[Integer.parseInt(matcher.group(1))]);
+            start = matcher.end();
+        }
+        parts.add(content.substring(start));
+        log.debug("Compiled email template '{}' for locale '{}' with {} user fields", templateName, locale, fields.size());
+        return new RenderedTemplate(parts.toArray(new String[0]), fields.toArray(new UserField[0]));
+    }
+
+    private Context context(Locale locale, User user) {
+        Context context = new Context(locale);
+        context.setVariable(USER, user);
+        context.setVariable(BASE_URL, baseUrl);
+        return context;
+    }
+
+    private static String key(String name, Locale locale) {
+        return name + '|' + locale.toLanguageTag();
+    }
+
+    /**
+     * The fields of a user which the templates may output.
+     */
+    private enum UserField {
+        LOGIN(User::getLogin, User::setLogin),
+        FIRST_NAME(User::getFirstName, User::setFirstName),
+        LAST_NAME(User::getLastName, User::setLastName),
+        EMAIL(User::getEmail, User::setEmail),
+        ACTIVATION_KEY(User::getActivationKey, User::setActivationKey),
+        RESET_KEY(User::getResetKey, User::setResetKey);
+
+        private final Function<User, String> getter;
+
+        private final BiConsumer<User, String> setter;
+
+        UserField(Function<User, String> getter, BiConsumer<User, String> setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    /**
+     * A template rendered for a locale: {@code fields[i]} goes between {@code parts[i]} and {@code parts[i + 1]}.
+     */
+    private static class RenderedTemplate {
+
+        private final String[] parts;
+
+        private final UserField[] fields;
+
+        private final int length;
+
+        RenderedTemplate(String[] parts, UserField[] fields) {
+            this.parts = parts;
+            this.fields = fields;
+            int partsLength = 0;
+            for (String part : parts) {
+                partsLength += part.length();
+            }
+            this.length = partsLength;
+        }
+
+        boolean hasFields(User user) {
+            for (UserField field : fields) {
+                if (field.getter.apply(user) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        String render(User user) {
+            StringBuilder content = new StringBuilder(length + 64 * fields.length);
+            for (int i = 0; i < fields.length; i++) {
+                content.append(parts[i]);
+                content.append(HtmlEscape.escapeHtml4Xml(fields[i].getter.apply(user)));
+            }
+            return content.append(parts[fields.length]).toString();
+        }
+    }
+}
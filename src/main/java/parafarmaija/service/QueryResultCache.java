@@ -0,0 +1,172 @@
+package parafarmaija.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import parafarmaija.domain.Grafikon;
+import parafarmaija.domain.Tabela;
+
+/**
+ * Service caching the results of list and aggregate queries.
+ * <p>
+ * Each kind of result has its own cache region, keyed by the normalized parameters of the query. A region is cleared
+ * as soon as a write to the data it is computed from has committed: {@link EntitiesChangedEvent} for the tabelas and
+ * grafikons, and {@link TurnoverRollupService} for the turnover rollups. Every region carries a generation, bumped by
+ * each invalidation, so that a result computed from data older than the last invalidation is never stored.
+ * <p>
+ * A transaction which wrote tabelas or grafikons it has not committed yet neither reads nor fills the cache, so that
+ * it sees its own writes and they never leak into other requests.
+ * <p>
+ * Hits and misses are counted per region by the {@value #GETS_METER_NAME} meter.
+ */
+@Service
+public class QueryResultCache {
+
+    private final Logger log = LoggerFactory.getLogger(QueryResultCache.class);
+
+    public static final String TABELA_PAGES_CACHE = "query.tabelaPages";
+
+    public static final String GRAFIKON_PAGES_CACHE = "query.grafikonPages";
+
+    public static final String TURNOVER_AGGREGATES_CACHE = "query.turnoverAggregates";
+
+    public static final String GETS_METER_NAME = "cache.query-result.gets";
+
+    public static final String INVALIDATIONS_METER_NAME = "cache.query-result.invalidations";
+
+    private final DeltaSyncService deltaSyncService;
+
+    private final Map<String, CacheRegion> regions = new ConcurrentHashMap<>();
+
+    public QueryResultCache(CacheManager cacheManager, DeltaSyncService deltaSyncService, MeterRegistry registry) {
+        this.deltaSyncService = deltaSyncService;
+        for (String name : new String[] { TABELA_PAGES_CACHE, GRAFIKON_PAGES_CACHE, TURNOVER_AGGREGATES_CACHE }) {
+            Cache<Object, Object> cache = cacheManager.getCache(name);
+            if (cache == null) {
+                log.warn("The {} cache is not configured, its queries are not cached", name);
+            } else {
+                regions.put(name, new CacheRegion(cache, registry));
+            }
+        }
+    }
+
+    /**
+     * Get the normalized key of a page request.
+     *
+     * @param pageable the page request.
+     * @return the key.
+     */
+    public static String pageKey(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return "unpaged";
+        }
+        String sort = pageable
+            .getSort()
+            .stream()
+            .map(order -> order.getProperty() + "," + order.getDirection() + (order.isIgnoreCase() ? ",ignorecase" : ""))
+            .collect(Collectors.joining(";"));
+        return "page=" + pageable.getPageNumber() + "&size=" + pageable.getPageSize() + "&sort=" + sort;
+    }
+
+    /**
+     * Get the result of a query from the cache, or run it and cache its result.
+     *
+     * @param cacheName the name of the cache region.
+     * @param key the normalized parameters of the query.
+     * @param query the query.
+     * @param <T> the type of the result.
+     * @return the result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String cacheName, String key, Supplier<T> query) {
+        CacheRegion region = regions.get(cacheName);
+        if (region == null || deltaSyncService.hasPendingChanges()) {
+            return query.get();
+        }
+        Object cached = region.cache.get(key);
+        if (cached != null) {
+            region.hits.increment();
+            return (T) cached;
+        }
+        region.misses.increment();
+        long generation = region.generation.get();
+        T result = query.get();
+        if (result != null && region.generation.get() == generation) {
+            region.cache.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Remove all the results of a cache region.
+     *
+     * @param cacheName the name of the cache region.
+     */
+    public void invalidate(String cacheName) {
+        CacheRegion region = regions.get(cacheName);
+        if (region != null) {
+            region.generation.incrementAndGet();
+            region.cache.clear();
+            region.invalidations.increment();
+            log.debug("Invalidated the {} cache", cacheName);
+        }
+    }
+
+    @EventListener
+    public void onEntitiesChanged(EntitiesChangedEvent event) {
+        if (!event.getIds(Tabela.class).isEmpty()) {
+            invalidate(TABELA_PAGES_CACHE);
+        }
+        if (!event.getIds(Grafikon.class).isEmpty()) {
+            invalidate(GRAFIKON_PAGES_CACHE);
+        }
+    }
+
+    /**
+     * A cache region, its generation and its meters.
+     */
+    private static final class CacheRegion {
+
+        private final Cache<Object, Object> cache;
+
+        private final AtomicLong generation = new AtomicLong();
+
+        private final Counter hits;
+
+        private final Counter misses;
+
+        private final Counter invalidations;
+
+        private CacheRegion(Cache<Object, Object> cache, MeterRegistry registry) {
+            this.cache = cache;
+            this.hits = getsCounter(cache.getName(), "hit", registry);
+            this.misses = getsCounter(cache.getName(), "miss", registry);
+            this.invalidations =
+                Counter
+                    .builder(INVALIDATIONS_METER_NAME)
+                    .description("Number of times a query result cache region was cleared.")
+                    .tag("cache", cache.getName())
+                    .register(registry);
+        }
+
+        private static Counter getsCounter(String cacheName, String result, MeterRegistry registry) {
+            return Counter
+                .builder(GETS_METER_NAME)
+                .description("Number of query result cache lookups.")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(registry);
+        }
+    }
+}
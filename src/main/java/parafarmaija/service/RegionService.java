@@ -0,0 +1,100 @@
+package parafarmaija.service;
+
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.springframework.stereotype.Service;
+import parafarmaija.domain.Grafikon;
+import parafarmaija.domain.Region;
+import parafarmaija.domain.Tabela;
+import parafarmaija.domain.TurnoverEntry;
+import parafarmaija.repository.RegionRepository;
+
+/**
+ * Service resolving the regions of tabelas, grafikons and turnover entries.
+ * <p>
+ * Clients only know regions by name, so the entities they send reference a region which is not persisted.
+ * A Hibernate listener replaces it with the region of that name, created if needed, before the entity is persisted or
+ * merged. Code assigning a region to an already managed entity must resolve it with {@link #resolve(Region)}.
+ */
+@Service
+public class RegionService {
+
+    private final RegionRepository regionRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public RegionService(RegionRepository regionRepository, EntityManagerFactory entityManagerFactory) {
+        this.regionRepository = regionRepository;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        RegionResolvingListener listener = new RegionResolvingListener();
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.prependListeners(EventType.PERSIST, listener);
+        registry.prependListeners(EventType.MERGE, listener);
+    }
+
+    /**
+     * Get the persisted region matching a region known by name only.
+     *
+     * @param region the region, may be {@code null}.
+     * @return the persisted region, {@code region} itself if it is {@code null} or already persisted.
+     */
+    public Region resolve(Region region) {
+        if (region == null || region.getId() != null) {
+            return region;
+        }
+        return regionRepository.getOrCreate(region.getName());
+    }
+
+    private void resolveRegionOf(Object entity) {
+        if (entity instanceof Tabela) {
+            Tabela tabela = (Tabela) entity;
+            tabela.setRegion(resolve(tabela.getRegion()));
+        } else if (entity instanceof Grafikon) {
+            Grafikon grafikon = (Grafikon) entity;
+            grafikon.setRegion(resolve(grafikon.getRegion()));
+        } else if (entity instanceof TurnoverEntry) {
+            TurnoverEntry entry = (TurnoverEntry) entity;
+            entry.setRegion(resolve(entry.getRegion()));
+        }
+    }
+
+    /**
+     * Resolves the region of the tabelas, grafikons and turnover entries being persisted or merged.
+     */
+    private final class RegionResolvingListener implements PersistEventListener, MergeEventListener {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void onPersist(PersistEvent event) throws HibernateException {
+            resolveRegionOf(event.getObject());
+        }
+
+        @Override
+        public void onPersist(PersistEvent event, Map createdAlready) throws HibernateException {
+            resolveRegionOf(event.getObject());
+        }
+
+        @Override
+        public void onMerge(MergeEvent event) throws HibernateException {
+            resolveRegionOf(event.getOriginal());
+        }
+
+        @Override
+        public void onMerge(MergeEvent event, Map copiedAlready) throws HibernateException {
+            resolveRegionOf(event.getOriginal());
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package parafarmaija.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.*;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import parafarmaija.domain.Tabela;
+import parafarmaija.repository.RegionRepository;
+import parafarmaija.repository.TabelaRepository;
+import parafarmaija.service.dto.RegionTurnoverDTO;
+
+/**
+ * Service keeping the per-region turnover of {@link Tabela} in memory.
+ * <p>
+ * The totals are built from the database once the application is ready, and are then kept up to date by Hibernate
+ * post-commit listeners, so rolled back transactions never reach them. Every write only touches the totals of the
+ * regions involved, and aggregate reads are served without querying the database.
+ * <p>
+ * A periodic reconciliation compares the totals with a {@code GROUP BY} query, reports any drift and rebuilds them.
+ * The writes committed while the totals are rebuilt are applied to the rebuilt ones as well, so none of them is lost.
+ * <p>
+ * The writes of the other instances are read again from the database once their cache invalidations are received.
+ */
+@Service
+public class RegionTurnoverRollup {
+
+    private final Logger log = LoggerFactory.getLogger(RegionTurnoverRollup.class);
+
+    public static final String DRIFT_METER_NAME = "rollup.region-turnover.drift";
+
+    private static final Comparator<String> REGION_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private final TabelaRepository tabelaRepository;
+
+    private final RegionRepository regionRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Counter driftCounter;
+
+    private static final Row DELETED = new Row(null, null);
+
+    private final Object lock = new Object();
+
+    private final Object rebuildLock = new Object();
+
+    private Map<Long, Row> rows = new HashMap<>();
+
+    private Map<String, RegionTotals> totals = newTotalsMap();
+
+    /**
+     * The last row of each tabela written while the rollup is being rebuilt, {@link #DELETED} if it was deleted.
+     */
+    private Map<Long, Row> writesDuringRebuild;
+
+    private long writeSequence;
+
+    private volatile boolean initialized;
+
+    public RegionTurnoverRollup(
+        TabelaRepository tabelaRepository,
+        RegionRepository regionRepository,
+        EntityManagerFactory entityManagerFactory,
+        MeterRegistry registry
+    ) {
+        this.tabelaRepository = tabelaRepository;
+        this.regionRepository = regionRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.driftCounter =
+            Counter
+                .builder(DRIFT_METER_NAME)
+                .description("Number of reconciliations which found the in-memory region turnover out of sync with the database.")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        TabelaCommitListener listener = new TabelaCommitListener();
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            synchronized (lock) {
+                writesDuringRebuild = new HashMap<>();
+            }
+            try {
+                Map<Long, Row> newRows = new HashMap<>();
+                Map<String, RegionTotals> newTotals = newTotalsMap();
+                for (TabelaRepository.TabelaTurnover tabela : tabelaRepository.findAllTurnover()) {
+                    put(newRows, newTotals, tabela.getId(), new Row(tabela.getRegion(), tabela.getPromet()));
+                }
+                synchronized (lock) {
+                    // The writes committed since the read started may be missing from it
+                    writesDuringRebuild.forEach((id, row) -> {
+                        if (row == DELETED) {
+                            remove(newRows, newTotals, id);
+                        } else {
+                            put(newRows, newTotals, id, row);
+                        }
+                    });
+                    rows = newRows;
+                    totals = newTotals;
+                    initialized = true;
+                }
+                log.debug("Built region turnover rollup of {} rows in {} ms", newRows.size(), System.currentTimeMillis() - start);
+            } finally {
+                synchronized (lock) {
+                    writesDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the committed state of a tabela, replacing its previous contribution if any.
+     *
+     * @param id the id of the tabela.
+     * @param region the region of the tabela.
+     * @param promet the turnover of the tabela.
+     */
+    public void onSaved(Long id, String region, Integer promet) {
+        Row row = new Row(region, promet);
+        synchronized (lock) {
+            put(rows, totals, id, row);
+            recordWrite(id, row);
+        }
+    }
+
+    @EventListener
+    public void onEntitiesChanged(EntitiesChangedEvent event) {
+        // The local writes are applied by the commit listeners
+        if (!event.isRemote() || !initialized) {
+            return;
+        }
+        if (event.hasUnknownChanges(Tabela.class)) {
+            rebuild();
+        } else if (!event.getIds(Tabela.class).isEmpty()) {
+            refresh(event.getIds(Tabela.class));
+        }
+    }
+
+    /**
+     * Reads the committed state of tabelas again from the database.
+     *
+     * @param ids the ids of the tabelas.
+     */
+    public void refresh(Set<Long> ids) {
+        Set<Long> deletedIds = new HashSet<>(ids);
+        for (TabelaRepository.TabelaTurnover tabela : tabelaRepository.findAllTurnoverByIdIn(ids)) {
+            onSaved(tabela.getId(), tabela.getRegion(), tabela.getPromet());
+            deletedIds.remove(tabela.getId());
+        }
+        deletedIds.forEach(this::onDeleted);
+    }
+
+    /**
+     * Records the state of a tabela written by a statement which Hibernate does not raise events for, once the current
+     * transaction commits.
+     *
+     * @param id the id of the tabela.
+     * @param region the region of the tabela.
+     * @param promet the turnover of the tabela.
+     */
+    public void onSavedAfterCommit(Long id, String region, Integer promet) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onSaved(id, region, promet);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    onSaved(id, region, promet);
+                }
+            }
+        );
+    }
+
+    /**
+     * Removes the contribution of a deleted tabela.
+     *
+     * @param id the id of the deleted tabela.
+     */
+    public void onDeleted(Long id) {
+        synchronized (lock) {
+            remove(rows, totals, id);
+            recordWrite(id, DELETED);
+        }
+    }
+
+    /**
+     * Get the turnover aggregated per region, ordered by region.
+     * <p>
+     * Falls back to the database until the rollup has been built.
+     *
+     * @return the list of region aggregates.
+     */
+    public List<RegionTurnoverDTO> getAggregates() {
+        if (!initialized) {
+            return loadFromDatabase();
+        }
+        synchronized (lock) {
+            return totals.entrySet().stream().map(entry -> entry.getValue().toDTO(entry.getKey())).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Get the turnover aggregated per region straight from the database, ordered by region.
+     *
+     * @return the list of region aggregates.
+     */
+    public List<RegionTurnoverDTO> loadFromDatabase() {
+        List<TabelaRepository.RegionTurnover> rows = tabelaRepository.aggregateByRegion();
+        Map<Long, String> names = new HashMap<>();
+        Set<Long> regionIds = rows
+            .stream()
+            .map(TabelaRepository.RegionTurnover::getRegionId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        regionRepository
+            .findAllById(regionIds)
+            .forEach(region -> names.put(region.getId(), region.getName()));
+        return rows
+            .stream()
+            .map(row ->
+                new RegionTurnoverDTO(
+                    names.get(row.getRegionId()),
+                    row.getCount() != null ? row.getCount() : 0L,
+                    row.getSum() != null ? row.getSum() : 0L,
+                    row.getMin(),
+                    row.getMax(),
+                    row.getAverage()
+                )
+            )
+            .sorted(Comparator.comparing(RegionTurnoverDTO::getRegion, REGION_ORDER))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Compares the in-memory totals with the database, and rebuilds them if they have drifted.
+     * <p>
+     * This is scheduled to get fired every {@code application.rollup.reconcile-interval}.
+     *
+     * @return {@code true} if a drift was found.
+     */
+    @Scheduled(
+        initialDelayString = "${application.rollup.reconcile-interval:PT5M}",
+        fixedDelayString = "${application.rollup.reconcile-interval:PT5M}"
+    )
+    public boolean reconcile() {
+        if (!initialized) {
+            return false;
+        }
+        long sequence;
+        synchronized (lock) {
+            sequence = writeSequence;
+        }
+        Map<String, RegionTurnoverDTO> expected = byRegion(loadFromDatabase());
+        Map<String, RegionTurnoverDTO> actual;
+        synchronized (lock) {
+            if (writeSequence != sequence) {
+                log.debug("Tabelas were written during the reconciliation, skipping it");
+                return false;
+            }
+            actual = byRegion(getAggregates());
+        }
+        Set<String> regions = new HashSet<>(expected.keySet());
+        regions.addAll(actual.keySet());
+        List<String> drifted = regions
+            .stream()
+            .filter(region -> !sameTotals(expected.get(region), actual.get(region)))
+            .collect(Collectors.toList());
+        if (drifted.isEmpty()) {
+            log.debug("Region turnover rollup is in sync with the database");
+            return false;
+        }
+        driftCounter.increment();
+        log.warn("Region turnover rollup drifted from the database for regions {}, rebuilding it", drifted);
+        rebuild();
+        return true;
+    }
+
+    private void recordWrite(Long id, Row row) {
+        writeSequence++;
+        if (writesDuringRebuild != null) {
+            writesDuringRebuild.put(id, row);
+        }
+    }
+
+    private static void put(Map<Long, Row> rows, Map<String, RegionTotals> totals, Long id, Row row) {
+        Row previous = rows.put(id, row);
+        if (previous != null) {
+            subtract(totals, previous);
+        }
+        totals.computeIfAbsent(row.region, region -> new RegionTotals()).add(row.promet);
+    }
+
+    private static void remove(Map<Long, Row> rows, Map<String, RegionTotals> totals, Long id) {
+        Row previous = rows.remove(id);
+        if (previous != null) {
+            subtract(totals, previous);
+        }
+    }
+
+    private static void subtract(Map<String, RegionTotals> totals, Row row) {
+        RegionTotals regionTotals = totals.get(row.region);
+        if (regionTotals != null && regionTotals.remove(row.promet)) {
+            totals.remove(row.region);
+        }
+    }
+
+    private static Map<String, RegionTurnoverDTO> byRegion(List<RegionTurnoverDTO> aggregates) {
+        Map<String, RegionTurnoverDTO> result = new HashMap<>();
+        aggregates.forEach(aggregate -> result.put(aggregate.getRegion(), aggregate));
+        return result;
+    }
+
+    private static boolean sameTotals(RegionTurnoverDTO expected, RegionTurnoverDTO actual) {
+        if (expected == null || actual == null) {
+            return expected == actual;
+        }
+        return (
+            expected.getCount() == actual.getCount() &&
+            expected.getSum() == actual.getSum() &&
+            Objects.equals(expected.getMin(), actual.getMin()) &&
+            Objects.equals(expected.getMax(), actual.getMax())
+        );
+    }
+
+    private static Map<String, RegionTotals> newTotalsMap() {
+        return new TreeMap<>(REGION_ORDER);
+    }
+
+    /**
+     * Contribution of a single tabela to the totals.
+     */
+    private static final class Row {
+
+        private final String region;
+
+        private final Integer promet;
+
+        private Row(String region, Integer promet) {
+            this.region = region;
+            this.promet = promet;
+        }
+    }
+
+    /**
+     * Running totals of a region.
+     * <p>
+     * The values are kept in a sorted multiset so that min and max survive the removal of the current extreme.
+     */
+    private static final class RegionTotals {
+
+        private long size;
+
+        private long count;
+
+        private long sum;
+
+        private final TreeMap<Integer, Integer> values = new TreeMap<>();
+
+        private void add(Integer promet) {
+            size++;
+            if (promet != null) {
+                count++;
+                sum += promet;
+                values.merge(promet, 1, Integer::sum);
+            }
+        }
+
+        /**
+         * @return {@code true} if the region no longer has any row.
+         */
+        private boolean remove(Integer promet) {
+            size--;
+            if (promet != null) {
+                count--;
+                sum -= promet;
+                values.computeIfPresent(promet, (value, occurrences) -> occurrences > 1 ? occurrences - 1 : null);
+            }
+            return size <= 0;
+        }
+
+        private RegionTurnoverDTO toDTO(String region) {
+            return new RegionTurnoverDTO(
+                region,
+                count,
+                sum,
+                values.isEmpty() ? null : values.firstKey(),
+                values.isEmpty() ? null : values.lastKey(),
+                count == 0 ? null : (double) sum / count
+            );
+        }
+    }
+
+    /**
+     * Applies the committed writes on {@link Tabela} to the rollup.
+     */
+    private final class TabelaCommitListener
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof Tabela) {
+                Tabela tabela = (Tabela) event.getEntity();
+                onSaved(tabela.getId(), tabela.getRegionName(), tabela.getPromet());
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (event.getEntity() instanceof Tabela) {
+                Tabela tabela = (Tabela) event.getEntity();
+                onSaved(tabela.getId(), tabela.getRegionName(), tabela.getPromet());
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof Tabela) {
+                onDeleted((Long) event.getId());
+            }
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+            // Nothing was committed, so the rollup is left untouched.
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+            // Nothing was committed, so the rollup is left untouched.
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+            // Nothing was committed, so the rollup is left untouched.
+        }
+
+        @Override
+        @SuppressWarnings("deprecation") // Still the abstract method of PostActionEventListener in Hibernate 5.6
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return Tabela.class.equals(persister.getMappedClass());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package parafarmaija.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import parafarmaija.config.ApplicationProperties;
+import parafarmaija.domain.Tabela;
+import parafarmaija.service.dto.TabelaImportResultDTO;
+import parafarmaija.service.dto.TabelaImportResultDTO.RejectedLineDTO;
+
+/**
+ * Service for importing tabelas in bulk.
+ * <p>
+ * The input uses the {@code ;}-separated layout of {@code config/liquibase/fake-data/tabela.csv}. It is parsed line by
+ * line, and the rows are committed in chunks of {@code application.tabela-import.chunk-size} rows, each chunk being
+ * flushed to the database in JDBC batches of {@code application.tabela-import.batch-size} inserts. Ids come from the
+ * pooled {@code sequence_generator}, so a single sequence call serves many rows. The ids of the input are ignored.
+ */
+@Service
+public class TabelaImportService {
+
+    private final Logger log = LoggerFactory.getLogger(TabelaImportService.class);
+
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+
+    private static final String ID_COLUMN = "id";
+
+    private static final String REGION_COLUMN = "region";
+
+    private static final String PROMET_COLUMN = "promet";
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final int chunkSize;
+
+    public TabelaImportService(
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = applicationProperties.getTabelaImport().getBatchSize();
+        this.chunkSize = applicationProperties.getTabelaImport().getChunkSize();
+        if (batchSize < 1) {
+            throw new IllegalStateException("The tabela import batch size must be at least 1: " + batchSize);
+        }
+        if (chunkSize < 1) {
+            throw new IllegalStateException("The tabela import chunk size must be at least 1: " + chunkSize);
+        }
+    }
+
+    /**
+     * Import the tabelas of a CSV stream.
+     * <p>
+     * An optional header line gives the order of the columns, otherwise they are expected to be {@code id;region;promet}.
+     * Lines which cannot be parsed are rejected and reported, the other ones are imported.
+     *
+     * @param in the CSV stream.
+     * @return the outcome of the import.
+     * @throws IOException if the stream could not be read.
+     * @throws IllegalArgumentException if the header line does not have the {@code region} and {@code promet} columns.
+     */
+    public TabelaImportResultDTO importCsv(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        TabelaImportResultDTO result = new TabelaImportResultDTO();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<Tabela> chunk = new ArrayList<>(chunkSize);
+        int regionIndex = 1;
+        int prometIndex = 2;
+        int columnCount = 3;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> values;
+            try {
+                values = parseLine(line);
+            } catch (IllegalArgumentException e) {
+                reject(result, lineNumber, e.getMessage());
+                continue;
+            }
+            if (lineNumber == 1 && isHeader(values)) {
+                regionIndex = indexOf(values, REGION_COLUMN);
+                prometIndex = indexOf(values, PROMET_COLUMN);
+                columnCount = values.size();
+                continue;
+            }
+            if (values.size() != columnCount) {
+                reject(result, lineNumber, "Expected " + columnCount + " columns but found " + values.size());
+                continue;
+            }
+            Integer promet;
+            try {
+                promet = values.get(prometIndex).isBlank() ? null : Integer.valueOf(values.get(prometIndex).trim());
+            } catch (NumberFormatException e) {
+                reject(result, lineNumber, "Invalid promet: " + values.get(prometIndex));
+                continue;
+            }
+            String region = values.get(regionIndex).isEmpty() ? null : values.get(regionIndex);
+            chunk.add(new Tabela().regionName(region).promet(promet));
+            if (chunk.size() == chunkSize) {
+                result.setImported(result.getImported() + persist(chunk));
+            }
+        }
+        result.setImported(result.getImported() + persist(chunk));
+
+        long elapsedNanos = System.nanoTime() - start;
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setRowsPerSecond(elapsedNanos == 0 ? result.getImported() : result.getImported() * 1_000_000_000d / elapsedNanos);
+        log.info(
+            "Imported {} tabelas in {} ms ({} rows/s), rejected {} lines",
+            result.getImported(),
+            result.getElapsedMillis(),
+            Math.round(result.getRowsPerSecond()),
+            result.getRejected()
+        );
+        return result;
+    }
+
+    private long persist(List<Tabela> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            session.setJdbcBatchSize(batchSize);
+            session.setCacheMode(CacheMode.IGNORE);
+            for (int i = 0; i < chunk.size(); i++) {
+                entityManager.persist(chunk.get(i));
+                if ((i + 1) % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        int size = chunk.size();
+        chunk.clear();
+        return size;
+    }
+
+    private static void reject(TabelaImportResultDTO result, long lineNumber, String reason) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getRejectedLines().size() < MAX_REPORTED_REJECTIONS) {
+            result.getRejectedLines().add(new RejectedLineDTO(lineNumber, reason));
+        }
+    }
+
+    private static boolean isHeader(List<String> values) {
+        return values
+            .stream()
+            .map(value -> value.trim().toLowerCase(Locale.ROOT))
+            .anyMatch(value -> ID_COLUMN.equals(value) || REGION_COLUMN.equals(value) || PROMET_COLUMN.equals(value));
+    }
+
+    private static int indexOf(List<String> header, String column) {
+        for (int i = 0; i < header.size(); i++) {
+            if (column.equals(header.get(i).trim().toLowerCase(Locale.ROOT))) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Missing column " + column);
+    }
+
+    /**
+     * Split a line on the separator, honouring double-quoted values as written by {@link TurnoverExportService}.
+     */
+    private static List<String> parseLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (line.startsWith(TurnoverExportService.CSV_SEPARATOR, i)) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,130 @@
+package parafarmaija.service;
+
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import parafarmaija.config.ApplicationProperties;
+import parafarmaija.domain.TurnoverEntry;
+import parafarmaija.repository.RegionRepository;
+import parafarmaija.repository.TurnoverEntryRepository;
+
+/**
+ * Service for the turnover time series.
+ * <p>
+ * On PostgreSQL the {@code turnover_entry} table is partitioned by month, and the partitions of the coming
+ * {@code application.turnover-partitions.months-ahead} months are created ahead of time. All the reads are bounded by a
+ * date range, so they only scan the partitions of the months in range. Aggregated turnover is read from the rollups
+ * maintained by {@link TurnoverRollupService}.
+ */
+@Service
+@Transactional
+public class TurnoverEntryService {
+
+    private final Logger log = LoggerFactory.getLogger(TurnoverEntryService.class);
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final TurnoverEntryRepository turnoverEntryRepository;
+
+    private final RegionRepository regionRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int monthsAhead;
+
+    public TurnoverEntryService(
+        TurnoverEntryRepository turnoverEntryRepository,
+        RegionRepository regionRepository,
+        JdbcTemplate jdbcTemplate,
+        ApplicationProperties applicationProperties
+    ) {
+        this.turnoverEntryRepository = turnoverEntryRepository;
+        this.regionRepository = regionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = applicationProperties.getTurnoverPartitions().getMonthsAhead();
+    }
+
+    /**
+     * Get a page of the entries of a date range, optionally of a single region.
+     *
+     * @param from the first date of the range.
+     * @param to the last date of the range, included.
+     * @param region the name of the region, {@code null} for all the regions.
+     * @param pageable the pagination information.
+     * @return the page of entries.
+     */
+    @Transactional(readOnly = true)
+    public Page<TurnoverEntry> findAllInRange(LocalDate from, LocalDate to, String region, Pageable pageable) {
+        if (region == null) {
+            return turnoverEntryRepository.findAllInRange(from, to.plusDays(1), pageable);
+        }
+        return regionRepository
+            .findOneByName(region)
+            .map(found -> turnoverEntryRepository.findAllInRangeByRegionId(found.getId(), from, to.plusDays(1), pageable))
+            .orElseGet(() -> Page.empty(pageable));
+    }
+
+    /**
+     * Partitions of the coming months should be created before entries are written to them.
+     * <p>
+     * This is run once the application is ready, and is then scheduled to get fired everyday, at 02:00 (am).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 2 * * ?")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void createUpcomingPartitions() {
+        if (!isPostgreSQL()) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String sql =
+                "create table if not exists turnover_entry_p" +
+                PARTITION_SUFFIX.format(month) +
+                " partition of turnover_entry for values from ('" +
+                month.atDay(1) +
+                "') to ('" +
+                month.plusMonths(1).atDay(1) +
+                "')";
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (DataAccessException e) {
+                // Typically rows of that month already in the default partition, they have to be moved by hand.
+                log.warn("Could not create the turnover partition of {}: {}", month, e.getMessage());
+            }
+        }
+        log.debug("Checked the turnover partitions of the next {} months", monthsAhead);
+    }
+
+    private boolean isPostgreSQL() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(
+                Objects.requireNonNull(jdbcTemplate.getDataSource()),
+                DatabaseMetaData::getDatabaseProductName
+            );
+            return POSTGRESQL.equals(product);
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not read the database product name: {}", e.getMessage());
+            return false;
+        }
+    }
+}
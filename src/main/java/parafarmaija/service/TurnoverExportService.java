@@ -0,0 +1,177 @@
+package parafarmaija.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import parafarmaija.domain.Grafikon;
+import parafarmaija.domain.Tabela;
+import parafarmaija.repository.GrafikonRepository;
+import parafarmaija.repository.TabelaRepository;
+
+/**
+ * Service for exporting the regional turnover.
+ * <p>
+ * The rows are streamed from a database cursor and written one at a time, each one being detached once written, so
+ * that the memory used does not depend on the size of the table.
+ */
+@Service
+@Transactional(readOnly = true)
+public class TurnoverExportService {
+
+    private final Logger log = LoggerFactory.getLogger(TurnoverExportService.class);
+
+    /**
+     * The export formats.
+     */
+    public enum Format {
+        /**
+         * One JSON object per line.
+         */
+        NDJSON("application/x-ndjson", "ndjson"),
+
+        /**
+         * The {@code ;}-separated layout of the Liquibase fake-data files.
+         */
+        CSV("text/csv", "csv");
+
+        private final String mediaType;
+
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Optional<Format> fromValue(String value) {
+            return Arrays.stream(values()).filter(format -> format.extension.equals(value.toLowerCase(Locale.ROOT))).findFirst();
+        }
+    }
+
+    public static final String CSV_SEPARATOR = ";";
+
+    private static final String[] CSV_HEADER = { "id", "region", "promet" };
+
+    private final TabelaRepository tabelaRepository;
+
+    private final GrafikonRepository grafikonRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    public TurnoverExportService(
+        TabelaRepository tabelaRepository,
+        GrafikonRepository grafikonRepository,
+        EntityManager entityManager,
+        ObjectMapper objectMapper
+    ) {
+        this.tabelaRepository = tabelaRepository;
+        this.grafikonRepository = grafikonRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write all the tabelas to the given stream.
+     *
+     * @param format the export format.
+     * @param out the stream to write to, which is left open.
+     * @return the number of exported tabelas.
+     * @throws IOException if the stream could not be written.
+     */
+    public long exportTabelas(Format format, OutputStream out) throws IOException {
+        try (Stream<Tabela> tabelas = tabelaRepository.streamAll()) {
+            long count = export(format, tabelas, tabela -> new Object[] { tabela.getId(), tabela.getRegionName(), tabela.getPromet() }, out);
+            log.debug("Exported {} tabelas as {}", count, format);
+            return count;
+        }
+    }
+
+    /**
+     * Write all the grafikons to the given stream.
+     *
+     * @param format the export format.
+     * @param out the stream to write to, which is left open.
+     * @return the number of exported grafikons.
+     * @throws IOException if the stream could not be written.
+     */
+    public long exportGrafikons(Format format, OutputStream out) throws IOException {
+        try (Stream<Grafikon> grafikons = grafikonRepository.streamAll()) {
+            long count = export(
+                format,
+                grafikons,
+                grafikon -> new Object[] { grafikon.getId(), grafikon.getRegionName(), grafikon.getPromet() },
+                out
+            );
+            log.debug("Exported {} grafikons as {}", count, format);
+            return count;
+        }
+    }
+
+    private <T> long export(Format format, Stream<T> rows, Function<T, Object[]> columns, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator generator = null;
+        if (format == Format.NDJSON) {
+            generator = objectMapper.getFactory().createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        } else {
+            writeCsvLine(writer, CSV_HEADER);
+        }
+        long count = 0;
+        for (T row : (Iterable<T>) rows::iterator) {
+            if (generator != null) {
+                generator.writeObject(row);
+                generator.writeRaw('\n');
+            } else {
+                writeCsvLine(writer, columns.apply(row));
+            }
+            entityManager.detach(row);
+            count++;
+        }
+        if (generator != null) {
+            generator.close();
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(CSV_SEPARATOR);
+            }
+            writer.write(escapeCsv(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    private static String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(CSV_SEPARATOR) || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,332 @@
+package parafarmaija.service;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import parafarmaija.config.ApplicationProperties;
+import parafarmaija.domain.TurnoverEntry;
+import parafarmaija.repository.RegionRepository;
+import parafarmaija.repository.TurnoverRollupRepository;
+import parafarmaija.repository.TurnoverRollupRepository.RollupChange;
+import parafarmaija.repository.TurnoverRollupRepository.RollupTotal;
+import parafarmaija.service.dto.DailyTurnoverDTO;
+import parafarmaija.service.dto.MonthlyTurnoverDTO;
+
+/**
+ * Service for the daily and monthly turnover rollups.
+ * <p>
+ * A Hibernate listener queues the days of the turnover entries inserted, updated or deleted, in the same transaction as
+ * the write. The refresher then recomputes the daily rollup of the queued days only, and the monthly rollup of their
+ * months from the daily one, so its cost follows the volume of changes rather than the size of the time series. The
+ * queue is the watermark: changes are removed by id once processed, so a transaction committing after a refresh has
+ * started is picked up by the next one instead of being skipped.
+ * <p>
+ * Refreshes are serialized, as two of them recomputing the same day would both insert its rollup: by a lock of the
+ * instance, and on PostgreSQL by an advisory lock taken by each batch, so that the instances skip a refresh while
+ * another one is running.
+ * <p>
+ * Turnover queries are answered by the coarsest rollup covering them: whole months from the monthly rollup, the days
+ * of partial months from the daily one. They lag behind the entries by up to one refresh, and their results are cached
+ * until the next refresh which processes changes.
+ */
+@Service
+@Transactional
+public class TurnoverRollupService {
+
+    private final Logger log = LoggerFactory.getLogger(TurnoverRollupService.class);
+
+    private static final String INSERT_CHANGE_SQL = "insert into turnover_rollup_change (entry_date) values (?)";
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    // Key of the PostgreSQL advisory lock of the refreshes
+    private static final long REFRESH_LOCK_KEY = 0x726f6c6c7570L;
+
+    private static final Comparator<String> REGION_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private final TurnoverRollupRepository turnoverRollupRepository;
+
+    private final RegionRepository regionRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final QueryResultCache queryResultCache;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final int batchSize;
+
+    private final Map<SessionImplementor, Set<LocalDate>> queuedDays = new ConcurrentHashMap<>();
+
+    private final Lock refreshLock = new ReentrantLock();
+
+    public TurnoverRollupService(
+        TurnoverRollupRepository turnoverRollupRepository,
+        RegionRepository regionRepository,
+        EntityManagerFactory entityManagerFactory,
+        PlatformTransactionManager transactionManager,
+        JdbcTemplate jdbcTemplate,
+        QueryResultCache queryResultCache,
+        CacheInvalidationBus cacheInvalidationBus,
+        ApplicationProperties applicationProperties
+    ) {
+        this.turnoverRollupRepository = turnoverRollupRepository;
+        this.regionRepository = regionRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jdbcTemplate = jdbcTemplate;
+        this.queryResultCache = queryResultCache;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.batchSize = applicationProperties.getTurnoverRollup().getBatchSize();
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        ChangeListener listener = new ChangeListener();
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    /**
+     * Rollups should be refreshed with the turnover entries changed since the last refresh.
+     * <p>
+     * This is scheduled to get fired every 5 minutes. Changes are processed in batches of
+     * {@code application.turnover-rollup.batch-size}, each in its own transaction. The refresh is skipped when another
+     * one is running.
+     */
+    @Scheduled(cron = "0 */5 * * * ?")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void refreshRollups() {
+        if (!refreshLock.tryLock()) {
+            log.debug("Skipped the refresh of the turnover rollups, another one is running");
+            return;
+        }
+        int processed = 0;
+        try {
+            boolean postgreSQL = isPostgreSQL();
+            Integer batch;
+            do {
+                batch = transactionTemplate.execute(status -> refreshBatch(postgreSQL));
+                processed += batch == null ? 0 : batch;
+            } while (batch != null && batch == batchSize);
+        } finally {
+            refreshLock.unlock();
+        }
+        if (processed > 0) {
+            queryResultCache.invalidate(QueryResultCache.TURNOVER_AGGREGATES_CACHE);
+            cacheInvalidationBus.clear(QueryResultCache.TURNOVER_AGGREGATES_CACHE);
+        }
+        log.debug("Refreshed the turnover rollups with {} changes", processed);
+    }
+
+    /**
+     * Get the turnover per region and day of a date range.
+     *
+     * @param from the first date of the range.
+     * @param to the last date of the range, included.
+     * @return the list of daily totals, ordered by date then region.
+     */
+    @Transactional(readOnly = true)
+    public List<DailyTurnoverDTO> getDailyTurnover(LocalDate from, LocalDate to) {
+        return queryResultCache.get(
+            QueryResultCache.TURNOVER_AGGREGATES_CACHE,
+            "daily:" + from + ":" + to,
+            () -> findDailyTurnover(from, to)
+        );
+    }
+
+    private List<DailyTurnoverDTO> findDailyTurnover(LocalDate from, LocalDate to) {
+        List<RollupTotal> totals = turnoverRollupRepository.findDailyTotals(from, to.plusDays(1));
+        Map<Long, String> names = getRegionNames(totals);
+        return totals
+            .stream()
+            .map(total -> new DailyTurnoverDTO(names.get(total.getRegionId()), total.getDate(), total.getCount(), total.getSum()))
+            .sorted(Comparator.comparing(DailyTurnoverDTO::getDate).thenComparing(DailyTurnoverDTO::getRegion, REGION_ORDER))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the turnover per region and month of a date range.
+     * <p>
+     * The months wholly in range are read from the monthly rollup, the others from the daily one.
+     *
+     * @param from the first date of the range.
+     * @param to the last date of the range, included.
+     * @return the list of monthly totals, ordered by month then region.
+     */
+    @Transactional(readOnly = true)
+    public List<MonthlyTurnoverDTO> getMonthlyTurnover(LocalDate from, LocalDate to) {
+        return queryResultCache.get(
+            QueryResultCache.TURNOVER_AGGREGATES_CACHE,
+            "monthly:" + from + ":" + to,
+            () -> findMonthlyTurnover(from, to)
+        );
+    }
+
+    private List<MonthlyTurnoverDTO> findMonthlyTurnover(LocalDate from, LocalDate to) {
+        LocalDate end = to.plusDays(1);
+        LocalDate wholeMonthsFrom = from.getDayOfMonth() == 1 ? from : YearMonth.from(from).plusMonths(1).atDay(1);
+        LocalDate wholeMonthsTo = end.getDayOfMonth() == 1 ? end : YearMonth.from(end).atDay(1);
+        List<RollupTotal> totals = new ArrayList<>();
+        if (wholeMonthsFrom.isBefore(wholeMonthsTo)) {
+            totals.addAll(turnoverRollupRepository.findMonthlyTotals(wholeMonthsFrom, wholeMonthsTo));
+            if (from.isBefore(wholeMonthsFrom)) {
+                totals.addAll(turnoverRollupRepository.findDailyTotals(from, wholeMonthsFrom));
+            }
+            if (wholeMonthsTo.isBefore(end)) {
+                totals.addAll(turnoverRollupRepository.findDailyTotals(wholeMonthsTo, end));
+            }
+        } else {
+            totals.addAll(turnoverRollupRepository.findDailyTotals(from, end));
+        }
+
+        Map<Long, String> names = getRegionNames(totals);
+        Map<YearMonth, Map<String, long[]>> months = new HashMap<>();
+        for (RollupTotal total : totals) {
+            long[] countAndSum = months
+                .computeIfAbsent(YearMonth.from(total.getDate()), key -> new HashMap<>())
+                .computeIfAbsent(names.get(total.getRegionId()), key -> new long[2]);
+            countAndSum[0] += total.getCount();
+            countAndSum[1] += total.getSum();
+        }
+        List<MonthlyTurnoverDTO> result = new ArrayList<>();
+        months.forEach((month, regions) ->
+            regions.forEach((region, countAndSum) -> result.add(new MonthlyTurnoverDTO(region, month, countAndSum[0], countAndSum[1])))
+        );
+        result.sort(Comparator.comparing(MonthlyTurnoverDTO::getMonth).thenComparing(MonthlyTurnoverDTO::getRegion, REGION_ORDER));
+        return result;
+    }
+
+    private Integer refreshBatch(boolean postgreSQL) {
+        if (postgreSQL && !turnoverRollupRepository.tryAdvisoryLock(REFRESH_LOCK_KEY)) {
+            log.debug("Skipped the refresh of the turnover rollups, another instance is running one");
+            return null;
+        }
+        List<RollupChange> changes = turnoverRollupRepository.findPendingChanges(batchSize);
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        Set<LocalDate> days = changes.stream().map(RollupChange::getEntryDate).collect(Collectors.toCollection(TreeSet::new));
+        turnoverRollupRepository.refreshDays(days);
+        days.stream().map(YearMonth::from).distinct().forEach(turnoverRollupRepository::refreshMonth);
+        turnoverRollupRepository.deleteChanges(changes.stream().map(RollupChange::getId).collect(Collectors.toList()));
+        return changes.size();
+    }
+
+    private boolean isPostgreSQL() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(
+                Objects.requireNonNull(jdbcTemplate.getDataSource()),
+                DatabaseMetaData::getDatabaseProductName
+            );
+            return POSTGRESQL.equals(product);
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not read the database product name: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private Map<Long, String> getRegionNames(List<RollupTotal> totals) {
+        Set<Long> regionIds = totals.stream().map(RollupTotal::getRegionId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, String> names = new HashMap<>();
+        regionRepository.findAllById(regionIds).forEach(region -> names.put(region.getId(), region.getName()));
+        return names;
+    }
+
+    private void queue(SessionImplementor session, EntityPersister persister, Object[] state) {
+        if (state == null) {
+            return;
+        }
+        LocalDate day = (LocalDate) state[persister.getEntityMetamodel().getPropertyIndex("entryDate")];
+        Set<LocalDate> days = queuedDays.computeIfAbsent(
+            session,
+            key -> {
+                key
+                    .getActionQueue()
+                    .registerProcess((AfterTransactionCompletionProcess) (success, completed) -> queuedDays.remove(completed));
+                return new HashSet<>();
+            }
+        );
+        if (day == null || !days.add(day)) {
+            return;
+        }
+        // Written right away rather than before completion, so that a refresh later in the same transaction sees it.
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_CHANGE_SQL)) {
+                statement.setDate(1, Date.valueOf(day));
+                statement.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Queues the days of the turnover entries as they are flushed, both the old and the new one on updates.
+     */
+    private final class ChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            if (event.getEntity() instanceof TurnoverEntry) {
+                queue(event.getSession(), event.getPersister(), event.getState());
+            }
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            if (event.getEntity() instanceof TurnoverEntry) {
+                queue(event.getSession(), event.getPersister(), event.getOldState());
+                queue(event.getSession(), event.getPersister(), event.getState());
+            }
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            if (event.getEntity() instanceof TurnoverEntry) {
+                queue(event.getSession(), event.getPersister(), event.getDeletedState());
+            }
+        }
+
+        @Override
+        @SuppressWarnings("deprecation") // Still the abstract method of PostActionEventListener in Hibernate 5.6
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return false;
+        }
+    }
+}
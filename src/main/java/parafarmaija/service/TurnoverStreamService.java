@@ -0,0 +1,221 @@
+package parafarmaija.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+import parafarmaija.config.ApplicationProperties;
+import parafarmaija.domain.Grafikon;
+import parafarmaija.domain.Tabela;
+import parafarmaija.service.dto.TurnoverChangeEventDTO;
+
+/**
+ * Service pushing the turnover changes to the subscribed clients as Server-Sent Events.
+ * <p>
+ * The committed changes are coalesced, and sent every {@code application.turnover-stream.coalesce-interval} as a single
+ * {@code turnover} event with the ids of the changed tabelas and grafikons, and the new region aggregates.
+ * <p>
+ * Every subscriber has a buffer of {@code application.turnover-stream.buffer-size} events, drained by a dedicated
+ * executor. A subscriber whose buffer is full is too slow to keep up: it is disconnected rather than allowed to hold
+ * memory, and is expected to reconnect and catch up with the delta-sync endpoints.
+ */
+@Service
+public class TurnoverStreamService {
+
+    private final Logger log = LoggerFactory.getLogger(TurnoverStreamService.class);
+
+    public static final String EVENT_NAME = "turnover";
+
+    public static final String DROPPED_METER_NAME = "turnover.stream.dropped";
+
+    public static final String SUBSCRIBERS_METER_NAME = "turnover.stream.subscribers";
+
+    private final RegionTurnoverRollup regionTurnoverRollup;
+
+    private final Executor executor;
+
+    private final int bufferSize;
+
+    private final Duration timeout;
+
+    private final Counter droppedCounter;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final Object lock = new Object();
+
+    private Set<Long> changedTabelaIds = new LinkedHashSet<>();
+
+    private Set<Long> changedGrafikonIds = new LinkedHashSet<>();
+
+    public TurnoverStreamService(
+        RegionTurnoverRollup regionTurnoverRollup,
+        @Qualifier("turnoverStreamExecutor") Executor executor,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.regionTurnoverRollup = regionTurnoverRollup;
+        this.executor = executor;
+        this.bufferSize = applicationProperties.getTurnoverStream().getBufferSize();
+        this.timeout = applicationProperties.getTurnoverStream().getTimeout();
+        this.droppedCounter =
+            Counter
+                .builder(DROPPED_METER_NAME)
+                .description("Number of turnover stream subscribers disconnected because they could not keep up.")
+                .register(registry);
+        Gauge
+            .builder(SUBSCRIBERS_METER_NAME, subscribers, List::size)
+            .description("Number of clients subscribed to the turnover stream.")
+            .register(registry);
+    }
+
+    /**
+     * Subscribe to the turnover changes.
+     *
+     * @return the emitter of the events.
+     */
+    public SseEmitter subscribe() {
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeout.toMillis()));
+        subscribers.add(subscriber);
+        log.debug("Turnover stream subscribed, {} subscribers", subscribers.size());
+        return subscriber.emitter;
+    }
+
+    @EventListener
+    public void onEntitiesChanged(EntitiesChangedEvent event) {
+        synchronized (lock) {
+            changedTabelaIds.addAll(event.getIds(Tabela.class));
+            changedGrafikonIds.addAll(event.getIds(Grafikon.class));
+        }
+    }
+
+    /**
+     * Sends the changes committed since the previous call as a single event.
+     * <p>
+     * This is scheduled to get fired every {@code application.turnover-stream.coalesce-interval}.
+     */
+    @Scheduled(fixedDelayString = "${application.turnover-stream.coalesce-interval:PT0.5S}")
+    public void publishPendingChanges() {
+        Set<Long> tabelaIds;
+        Set<Long> grafikonIds;
+        synchronized (lock) {
+            if (changedTabelaIds.isEmpty() && changedGrafikonIds.isEmpty()) {
+                return;
+            }
+            tabelaIds = changedTabelaIds;
+            grafikonIds = changedGrafikonIds;
+            changedTabelaIds = new LinkedHashSet<>();
+            changedGrafikonIds = new LinkedHashSet<>();
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        TurnoverChangeEventDTO change = new TurnoverChangeEventDTO();
+        change.setTabelas(new ArrayList<>(tabelaIds));
+        change.setGrafikons(new ArrayList<>(grafikonIds));
+        if (!tabelaIds.isEmpty()) {
+            change.setAggregates(regionTurnoverRollup.getAggregates());
+        }
+        subscribers.forEach(subscriber -> subscriber.offer(() -> SseEmitter.event().name(EVENT_NAME).data(change)));
+    }
+
+    /**
+     * Sends a comment to the subscribers, so that the connections of idle subscribers are kept open and the broken
+     * ones are detected.
+     * <p>
+     * This is scheduled to get fired every {@code application.turnover-stream.heartbeat-interval}.
+     */
+    @Scheduled(fixedRateString = "${application.turnover-stream.heartbeat-interval:PT30S}")
+    public void sendHeartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(() -> SseEmitter.event().comment("heartbeat")));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * A subscribed client, with its bounded buffer of events.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        // Builders are consumed when sent, so every subscriber builds its own.
+        private final BlockingQueue<Supplier<SseEventBuilder>> buffer = new ArrayBlockingQueue<>(bufferSize);
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(error -> close());
+        }
+
+        private void offer(Supplier<SseEventBuilder> event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                droppedCounter.increment();
+                log.warn("Turnover stream subscriber too slow, dropping it");
+                close();
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Supplier<SseEventBuilder> event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    emitter.send(event.get());
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Turnover stream subscriber disconnected: {}", e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // An event offered while the drain was finishing would otherwise wait for the next one.
+            if (!closed && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            buffer.clear();
+            subscribers.remove(this);
+        }
+    }
+}
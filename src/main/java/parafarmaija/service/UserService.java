@@ -10,9 +10,13 @@ import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import parafarmaija.config.Constants;
 import parafarmaija.domain.Authority;
 import parafarmaija.domain.User;
@@ -20,6 +24,7 @@ import parafarmaija.repository.AuthorityRepository;
 import parafarmaija.repository.UserRepository;
 import parafarmaija.security.AuthoritiesConstants;
 import parafarmaija.security.SecurityUtils;
+import parafarmaija.security.UnknownUserCache;
 import parafarmaija.service.dto.AdminUserDTO;
 import parafarmaija.service.dto.UserDTO;
 import tech.jhipster.security.RandomUtil;
@@ -29,7 +34,7 @@ import tech.jhipster.security.RandomUtil;
  */
 @Service
 @Transactional
-public class UserService {
+public class UserService implements UserDetailsPasswordService {
 
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
@@ -41,16 +46,24 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final UnknownUserCache unknownUserCache;
+
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        CacheManager cacheManager,
+        CacheInvalidationBus cacheInvalidationBus,
+        UnknownUserCache unknownUserCache
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.unknownUserCache = unknownUserCache;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -81,9 +94,24 @@ public class UserService {
             });
     }
 
+    /**
+     * Store the password of a user hashed again after a successful login, when the hashing cost has changed.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        log.debug("Upgrading the password hash of {}", userDetails.getUsername());
+        userRepository
+            .findOneByLogin(userDetails.getUsername())
+            .ifPresent(user -> {
+                user.setPassword(newPassword);
+                this.clearUserCaches(user);
+            });
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).password(newPassword).build();
+    }
+
     public Optional<User> requestPasswordReset(String mail) {
-        return userRepository
-            .findOneByEmailIgnoreCase(mail)
+        return unknownUserCache
+            .findByEmail(mail, userRepository::findOneByEmailIgnoreCase)
             .filter(User::isActivated)
             .map(user -> {
                 user.setResetKey(RandomUtil.generateResetKey());
@@ -317,9 +345,38 @@ public class UserService {
     }
 
     private void clearUserCaches(User user) {
-        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
-        if (user.getEmail() != null) {
-            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+        String login = user.getLogin();
+        String email = user.getEmail();
+        evictLocalUserCaches(login, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A concurrent lookup may cache the user again before the transaction commits, even as unknown.
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        evictLocalUserCaches(login, email);
+                    }
+                }
+            );
+        }
+        cacheInvalidationBus.evict(UserRepository.USERS_BY_LOGIN_CACHE, login);
+        cacheInvalidationBus.evict(UserRepository.UNKNOWN_LOGINS_CACHE, login);
+        if (email != null) {
+            cacheInvalidationBus.evict(UserRepository.USERS_BY_EMAIL_CACHE, email);
+            cacheInvalidationBus.evict(UserRepository.UNKNOWN_EMAILS_CACHE, email.toLowerCase(Locale.ENGLISH));
+        }
+        if (user.getId() != null) {
+            // The authorities of the user may have changed without the user itself.
+            cacheInvalidationBus.evict(User.class.getName(), user.getId());
+        }
+    }
+
+    private void evictLocalUserCaches(String login, String email) {
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(login);
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.UNKNOWN_LOGINS_CACHE)).evict(login);
+        if (email != null) {
+            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(email);
+            Objects.requireNonNull(cacheManager.getCache(UserRepository.UNKNOWN_EMAILS_CACHE)).evict(email.toLowerCase(Locale.ENGLISH));
         }
     }
 }
@@ -0,0 +1,92 @@
+package parafarmaija.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * A DTO representing the turnover of a single region over a day.
+ */
+public class DailyTurnoverDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String region;
+
+    private LocalDate date;
+
+    private long count;
+
+    private long sum;
+
+    public DailyTurnoverDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public DailyTurnoverDTO(String region, LocalDate date, long count, long sum) {
+        this.region = region;
+        this.date = date;
+        this.count = count;
+        this.sum = sum;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public void setSum(long sum) {
+        this.sum = sum;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DailyTurnoverDTO)) {
+            return false;
+        }
+        DailyTurnoverDTO that = (DailyTurnoverDTO) o;
+        return count == that.count && sum == that.sum && Objects.equals(region, that.region) && Objects.equals(date, that.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(region, date, count, sum);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DailyTurnoverDTO{" +
+            "region='" + region + '\'' +
+            ", date=" + date +
+            ", count=" + count +
+            ", sum=" + sum +
+            "}";
+    }
+}
@@ -0,0 +1,73 @@
+package parafarmaija.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the changes of an entity type since a sync token.
+ *
+ * @param <T> the type of the entity.
+ */
+public class EntityChangesDTO<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long token;
+
+    private boolean full;
+
+    private List<T> upserted = new ArrayList<>();
+
+    private List<Long> deleted = new ArrayList<>();
+
+    /**
+     * @return the token to send with the next request.
+     */
+    public long getToken() {
+        return token;
+    }
+
+    public void setToken(long token) {
+        this.token = token;
+    }
+
+    /**
+     * @return {@code true} if {@link #getUpserted()} holds all the entities and the client must drop its copy, because it
+     * had no token or its token is too old.
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    public void setFull(boolean full) {
+        this.full = full;
+    }
+
+    public List<T> getUpserted() {
+        return upserted;
+    }
+
+    public void setUpserted(List<T> upserted) {
+        this.upserted = upserted;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "EntityChangesDTO{" +
+            "token=" + getToken() +
+            ", full=" + isFull() +
+            ", upserted=" + getUpserted().size() +
+            ", deleted=" + getDeleted().size() +
+            "}";
+    }
+}
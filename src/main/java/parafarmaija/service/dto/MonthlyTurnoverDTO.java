@@ -0,0 +1,92 @@
+package parafarmaija.service.dto;
+
+import java.io.Serializable;
+import java.time.YearMonth;
+import java.util.Objects;
+
+/**
+ * A DTO representing the turnover of a single region over a month.
+ */
+public class MonthlyTurnoverDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String region;
+
+    private YearMonth month;
+
+    private long count;
+
+    private long sum;
+
+    public MonthlyTurnoverDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public MonthlyTurnoverDTO(String region, YearMonth month, long count, long sum) {
+        this.region = region;
+        this.month = month;
+        this.count = count;
+        this.sum = sum;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public void setMonth(YearMonth month) {
+        this.month = month;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public void setSum(long sum) {
+        this.sum = sum;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MonthlyTurnoverDTO)) {
+            return false;
+        }
+        MonthlyTurnoverDTO that = (MonthlyTurnoverDTO) o;
+        return count == that.count && sum == that.sum && Objects.equals(region, that.region) && Objects.equals(month, that.month);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(region, month, count, sum);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MonthlyTurnoverDTO{" +
+            "region='" + region + '\'' +
+            ", month=" + month +
+            ", count=" + count +
+            ", sum=" + sum +
+            "}";
+    }
+}
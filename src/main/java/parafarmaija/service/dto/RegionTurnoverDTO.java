@@ -0,0 +1,122 @@
+package parafarmaija.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO representing the aggregated turnover ({@code promet}) of a single region.
+ */
+public class RegionTurnoverDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String region;
+
+    private long count;
+
+    private long sum;
+
+    private Integer min;
+
+    private Integer max;
+
+    private Double average;
+
+    public RegionTurnoverDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public RegionTurnoverDTO(String region, long count, long sum, Integer min, Integer max, Double average) {
+        this.region = region;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.average = average;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public void setSum(long sum) {
+        this.sum = sum;
+    }
+
+    public Integer getMin() {
+        return min;
+    }
+
+    public void setMin(Integer min) {
+        this.min = min;
+    }
+
+    public Integer getMax() {
+        return max;
+    }
+
+    public void setMax(Integer max) {
+        this.max = max;
+    }
+
+    public Double getAverage() {
+        return average;
+    }
+
+    public void setAverage(Double average) {
+        this.average = average;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RegionTurnoverDTO)) {
+            return false;
+        }
+        RegionTurnoverDTO that = (RegionTurnoverDTO) o;
+        return (
+            count == that.count &&
+            sum == that.sum &&
+            Objects.equals(region, that.region) &&
+            Objects.equals(min, that.min) &&
+            Objects.equals(max, that.max) &&
+            Objects.equals(average, that.average)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(region, count, sum, min, max, average);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RegionTurnoverDTO{" +
+            "region='" + region + '\'' +
+            ", count=" + count +
+            ", sum=" + sum +
+            ", min=" + min +
+            ", max=" + max +
+            ", average=" + average +
+            "}";
+    }
+}
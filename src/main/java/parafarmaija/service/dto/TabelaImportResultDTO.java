@@ -0,0 +1,125 @@
+package parafarmaija.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO reporting the outcome of a bulk import of tabelas.
+ */
+public class TabelaImportResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long imported;
+
+    private long rejected;
+
+    private List<RejectedLineDTO> rejectedLines = new ArrayList<>();
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * Get the details of the rejected lines, which may be truncated: see {@link #getRejected()} for their number.
+     *
+     * @return the rejected lines.
+     */
+    public List<RejectedLineDTO> getRejectedLines() {
+        return rejectedLines;
+    }
+
+    public void setRejectedLines(List<RejectedLineDTO> rejectedLines) {
+        this.rejectedLines = rejectedLines;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TabelaImportResultDTO{" +
+            "imported=" + imported +
+            ", rejected=" + rejected +
+            ", elapsedMillis=" + elapsedMillis +
+            ", rowsPerSecond=" + rowsPerSecond +
+            "}";
+    }
+
+    /**
+     * A line which could not be imported.
+     */
+    public static class RejectedLineDTO implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long line;
+
+        private String reason;
+
+        public RejectedLineDTO() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public RejectedLineDTO(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "RejectedLineDTO{" +
+                "line=" + line +
+                ", reason='" + reason + '\'' +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package parafarmaija.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the turnover changes pushed to the subscribed clients.
+ */
+public class TurnoverChangeEventDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Long> tabelas = new ArrayList<>();
+
+    private List<Long> grafikons = new ArrayList<>();
+
+    private List<RegionTurnoverDTO> aggregates;
+
+    /**
+     * @return the ids of the tabelas inserted, updated or deleted.
+     */
+    public List<Long> getTabelas() {
+        return tabelas;
+    }
+
+    public void setTabelas(List<Long> tabelas) {
+        this.tabelas = tabelas;
+    }
+
+    /**
+     * @return the ids of the grafikons inserted, updated or deleted.
+     */
+    public List<Long> getGrafikons() {
+        return grafikons;
+    }
+
+    public void setGrafikons(List<Long> grafikons) {
+        this.grafikons = grafikons;
+    }
+
+    /**
+     * @return the turnover aggregated per region after the changes, {@code null} if no tabela changed.
+     */
+    public List<RegionTurnoverDTO> getAggregates() {
+        return aggregates;
+    }
+
+    public void setAggregates(List<RegionTurnoverDTO> aggregates) {
+        this.aggregates = aggregates;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TurnoverChangeEventDTO{" +
+            "tabelas=" + getTabelas() +
+            ", grafikons=" + getGrafikons() +
+            ", aggregates=" + getAggregates() +
+            "}";
+    }
+}
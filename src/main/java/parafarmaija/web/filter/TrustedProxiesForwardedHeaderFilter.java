@@ -0,0 +1,136 @@
+package parafarmaija.web.filter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.web.filter.ForwardedHeaderFilter;
+
+/**
+ * {@link ForwardedHeaderFilter} only trusting the forwarded headers set by the proxies in front of the application.
+ * <p>
+ * The {@code X-Forwarded-For} header is a list of addresses, each proxy appending the address it received the request
+ * from, so only its rightmost entries are not set by the client itself. A request coming from a trusted proxy has its
+ * client address resolved as the rightmost entry which is not a trusted proxy, while the forwarded headers of a request
+ * coming from any other address are ignored. The client address is then the {@code remoteAddr} of the request, for
+ * instance for the authentication throttling.
+ */
+public class TrustedProxiesForwardedHeaderFilter extends ForwardedHeaderFilter {
+
+    static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private static final Set<String> FORWARDED_HEADER_NAMES = Set.of(
+        "forwarded",
+        "x-forwarded-host",
+        "x-forwarded-port",
+        "x-forwarded-proto",
+        "x-forwarded-prefix",
+        "x-forwarded-ssl",
+        "x-forwarded-for"
+    );
+
+    private static final Pattern IPV4_ADDRESS = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    private static final Pattern IPV6_ADDRESS = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public TrustedProxiesForwardedHeaderFilter(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream().map(IpAddressMatcher::new).collect(Collectors.toList());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        super.doFilterInternal(new TrustedForwardedHeadersRequest(request, resolveClientAddress(request)), response, filterChain);
+    }
+
+    /**
+     * Resolve the address of the client behind the trusted proxies.
+     *
+     * @param request the request.
+     * @return the client address, or an empty {@link Optional} if the request does not come from a trusted proxy.
+     */
+    Optional<String> resolveClientAddress(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (!isTrusted(remoteAddress)) {
+            return Optional.empty();
+        }
+        String clientAddress = remoteAddress;
+        List<String> forwardedFor = new ArrayList<>();
+        Collections.list(request.getHeaders(X_FORWARDED_FOR)).forEach(value -> forwardedFor.addAll(Arrays.asList(value.split(","))));
+        for (int i = forwardedFor.size() - 1; i >= 0; i--) {
+            String address = forwardedFor.get(i).trim();
+            if (!isIpAddress(address)) {
+                break;
+            }
+            clientAddress = address;
+            if (!isTrusted(address)) {
+                break;
+            }
+        }
+        return Optional.of(clientAddress);
+    }
+
+    private boolean isTrusted(String address) {
+        return isIpAddress(address) && trustedProxies.stream().anyMatch(trustedProxy -> trustedProxy.matches(address));
+    }
+
+    private static boolean isIpAddress(String address) {
+        // Anything else would be resolved as a host name by the matcher
+        return address != null && (IPV4_ADDRESS.matcher(address).matches() || IPV6_ADDRESS.matcher(address).matches());
+    }
+
+    /**
+     * Request keeping the forwarded headers only if it comes from a trusted proxy, with the resolved client address as
+     * its only {@code X-Forwarded-For} entry.
+     */
+    private static class TrustedForwardedHeadersRequest extends HttpServletRequestWrapper {
+
+        private final Optional<String> clientAddress;
+
+        TrustedForwardedHeadersRequest(HttpServletRequest request, Optional<String> clientAddress) {
+            super(request);
+            this.clientAddress = clientAddress;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            Enumeration<String> values = getHeaders(name);
+            return values.hasMoreElements() ? values.nextElement() : null;
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            String lowerCaseName = name.toLowerCase(Locale.ENGLISH);
+            if (X_FORWARDED_FOR.equalsIgnoreCase(name)) {
+                return Collections.enumeration(clientAddress.map(List::of).orElse(List.of()));
+            }
+            if (FORWARDED_HEADER_NAMES.contains(lowerCaseName) && (clientAddress.isEmpty() || "forwarded".equals(lowerCaseName))) {
+                // The Forwarded header would take precedence over the resolved X-Forwarded-For
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            Set<String> names = new LinkedHashSet<>();
+            for (String name : Collections.list(super.getHeaderNames())) {
+                if (!X_FORWARDED_FOR.equalsIgnoreCase(name) && getHeaders(name).hasMoreElements()) {
+                    names.add(name);
+                }
+            }
+            if (clientAddress.isPresent()) {
+                names.add(X_FORWARDED_FOR);
+            }
+            return Collections.enumeration(names);
+        }
+    }
+}
@@ -2,18 +2,45 @@ package parafarmaija.web.rest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.zalando.problem.AbstractThrowableProblem;
 import parafarmaija.domain.Grafikon;
 import parafarmaija.repository.GrafikonRepository;
+import parafarmaija.service.DeltaSyncService;
+import parafarmaija.service.QueryResultCache;
+import parafarmaija.service.RegionService;
+import parafarmaija.service.TurnoverExportService;
+import parafarmaija.service.dto.EntityChangesDTO;
 import parafarmaija.web.rest.errors.BadRequestAlertException;
+import parafarmaija.web.rest.errors.PreconditionFailedAlertException;
+import parafarmaija.web.rest.util.ETagUtil;
+import parafarmaija.web.rest.util.KeysetPaginationUtil;
+import parafarmaija.web.rest.vm.BatchItemResultVM;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
@@ -34,8 +61,26 @@ public class GrafikonResource {
 
     private final GrafikonRepository grafikonRepository;
 
-    public GrafikonResource(GrafikonRepository grafikonRepository) {
+    private final TurnoverExportService turnoverExportService;
+
+    private final DeltaSyncService deltaSyncService;
+
+    private final RegionService regionService;
+
+    private final QueryResultCache queryResultCache;
+
+    public GrafikonResource(
+        GrafikonRepository grafikonRepository,
+        TurnoverExportService turnoverExportService,
+        DeltaSyncService deltaSyncService,
+        RegionService regionService,
+        QueryResultCache queryResultCache
+    ) {
         this.grafikonRepository = grafikonRepository;
+        this.turnoverExportService = turnoverExportService;
+        this.deltaSyncService = deltaSyncService;
+        this.regionService = regionService;
+        this.queryResultCache = queryResultCache;
     }
 
     /**
@@ -62,15 +107,18 @@ public class GrafikonResource {
      * {@code PUT  /grafikons/:id} : Updates an existing grafikon.
      *
      * @param id the id of the grafikon to save.
+     * @param ifMatch the entity tags the grafikon must match, if any.
      * @param grafikon the grafikon to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated grafikon,
      * or with status {@code 400 (Bad Request)} if the grafikon is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the grafikon does not match the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the grafikon couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/grafikons/{id}")
     public ResponseEntity<Grafikon> updateGrafikon(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Grafikon grafikon
     ) throws URISyntaxException {
         log.debug("REST request to update Grafikon : {}, {}", id, grafikon);
@@ -81,14 +129,16 @@ public class GrafikonResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!grafikonRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        if (grafikonRepository.updateIfExists(grafikon, ETagUtil.parseIfMatch(ifMatch).orElse(null)) == 0) {
+            throw notUpdated(id, ifMatch);
         }
-
-        Grafikon result = grafikonRepository.save(grafikon);
+        deltaSyncService.recordChange(Grafikon.class, id);
+        // The new version is only read back when it is not implied by the If-Match header.
+        Grafikon result = grafikon.getVersion() != null ? grafikon : grafikonRepository.findById(id).orElseThrow();
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, grafikon.getId().toString()))
+            .eTag(ETagUtil.toETag(result.getVersion()))
             .body(result);
     }
 
@@ -96,16 +146,19 @@ public class GrafikonResource {
      * {@code PATCH  /grafikons/:id} : Partial updates given fields of an existing grafikon, field will ignore if it is null
      *
      * @param id the id of the grafikon to save.
+     * @param ifMatch the entity tags the grafikon must match, if any.
      * @param grafikon the grafikon to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated grafikon,
      * or with status {@code 400 (Bad Request)} if the grafikon is not valid,
      * or with status {@code 404 (Not Found)} if the grafikon is not found,
+     * or with status {@code 412 (Precondition Failed)} if the grafikon does not match the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the grafikon couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/grafikons/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Grafikon> partialUpdateGrafikon(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Grafikon grafikon
     ) throws URISyntaxException {
         log.debug("REST request to partial update Grafikon partially : {}, {}", id, grafikon);
@@ -116,44 +169,128 @@ public class GrafikonResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!grafikonRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        if (grafikonRepository.partialUpdateIfExists(grafikon, ETagUtil.parseIfMatch(ifMatch).orElse(null)) == 0) {
+            throw notUpdated(id, ifMatch);
         }
+        deltaSyncService.recordChange(Grafikon.class, id);
 
-        Optional<Grafikon> result = grafikonRepository
-            .findById(grafikon.getId())
-            .map(existingGrafikon -> {
-                if (grafikon.getRegion() != null) {
-                    existingGrafikon.setRegion(grafikon.getRegion());
-                }
-                if (grafikon.getPromet() != null) {
-                    existingGrafikon.setPromet(grafikon.getPromet());
-                }
+        // The state is only read back when some columns were left untouched, or the new version is not known.
+        Optional<Grafikon> result = grafikon.getRegion() != null && grafikon.getPromet() != null && grafikon.getVersion() != null
+            ? Optional.of(grafikon)
+            : grafikonRepository.findById(grafikon.getId());
 
-                return existingGrafikon;
-            })
-            .map(grafikonRepository::save);
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, grafikon.getId().toString());
+        result.ifPresent(updated -> headers.setETag(ETagUtil.toETag(updated.getVersion())));
+        return ResponseUtil.wrapOrNotFound(result, headers);
+    }
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, grafikon.getId().toString())
-        );
+    private AbstractThrowableProblem notUpdated(Long id, String ifMatch) {
+        if (ifMatch != null && grafikonRepository.existsById(id)) {
+            return new PreconditionFailedAlertException("Entity was modified", ENTITY_NAME, "versionmismatch");
+        }
+        return new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
     }
 
     /**
      * {@code GET  /grafikons} : get all the grafikons.
+     * <p>
+     * When the {@code after} cursor is given, only a page of grafikons is read in id order with keyset pagination,
+     * and the cursor of the next page is returned in the {@code Link} header.
      *
+     * @param pageable the pagination information, only its size is used with keyset pagination.
+     * @param after the cursor returned with the previous page, or an empty cursor for the first page.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of grafikons in body.
      */
     @GetMapping("/grafikons")
-    public List<Grafikon> getAllGrafikons() {
+    public ResponseEntity<List<Grafikon>> getAllGrafikons(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after
+    ) {
+        if (after != null) {
+            log.debug("REST request to get a keyset page of Grafikons after : {}", after);
+            Optional<Long> cursor = decodeCursor(after);
+            int size = pageable.getPageSize();
+            Slice<Grafikon> slice = queryResultCache.get(
+                QueryResultCache.GRAFIKON_PAGES_CACHE,
+                "after=" + cursor.map(String::valueOf).orElse("") + "&size=" + size,
+                () -> findKeysetPage(cursor, size)
+            );
+            List<Grafikon> content = slice.getContent();
+            Long lastId = content.isEmpty() ? null : content.get(content.size() - 1).getId();
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                lastId
+            );
+            return ResponseEntity.ok().headers(headers).body(content);
+        }
         log.debug("REST request to get all Grafikons");
-        return grafikonRepository.findAll();
+        return ResponseEntity.ok().body(queryResultCache.get(QueryResultCache.GRAFIKON_PAGES_CACHE, "all", grafikonRepository::findAll));
+    }
+
+    private Optional<Long> decodeCursor(String after) {
+        try {
+            return KeysetPaginationUtil.decodeCursor(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
+
+    private Slice<Grafikon> findKeysetPage(Optional<Long> lastId, int size) {
+        Pageable pageable = PageRequest.of(0, size, Sort.by(Sort.Direction.ASC, "id"));
+        return lastId
+            .map(id -> grafikonRepository.findAllByIdGreaterThan(id, pageable))
+            .orElseGet(() -> grafikonRepository.findAllBy(pageable));
+    }
+
+    /**
+     * {@code GET  /grafikons/changes} : get the grafikons changed since a sync token.
+     * <p>
+     * Clients keep the token of the response and send it back with the next request, to only get the grafikons upserted or
+     * deleted meanwhile. Without a token, or with a token too old, all the grafikons are returned and {@code full} is set.
+     *
+     * @param since the token returned with the previous changes.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the changes in body.
+     */
+    @GetMapping("/grafikons/changes")
+    public ResponseEntity<EntityChangesDTO<Grafikon>> getGrafikonChanges(@RequestParam(value = "since", required = false) Long since) {
+        log.debug("REST request to get the changes of Grafikons since : {}", since);
+        return ResponseEntity.ok().body(deltaSyncService.getGrafikonChanges(since));
+    }
+
+    /**
+     * {@code GET  /grafikons/export} : export all the grafikons.
+     * <p>
+     * The grafikons are streamed from the database straight to the response, so the memory used does not depend on their number.
+     *
+     * @param format the export format, {@code ndjson} or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the grafikons in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/grafikons/export")
+    public ResponseEntity<StreamingResponseBody> exportGrafikons(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        log.debug("REST request to export Grafikons as {}", format);
+        TurnoverExportService.Format exportFormat = TurnoverExportService.Format
+            .fromValue(format)
+            .orElseThrow(() -> new BadRequestAlertException("Invalid export format", ENTITY_NAME, "formatinvalid"));
+        StreamingResponseBody body = out -> turnoverExportService.exportGrafikons(exportFormat, out);
+        return ResponseEntity
+            .ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+            .header(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("grafikons." + exportFormat.getExtension()).build().toString()
+            )
+            .body(body);
     }
 
     /**
      * {@code GET  /grafikons/:id} : get the "id" grafikon.
      *
+     * <p>
+     * The response carries the entity tag of the grafikon, so a request with a matching {@code If-None-Match} header is
+     * answered with {@code 304 (Not Modified)} and no body.
+     *
      * @param id the id of the grafikon to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the grafikon, or with status {@code 404 (Not Found)}.
      */
@@ -161,7 +298,9 @@ public class GrafikonResource {
     public ResponseEntity<Grafikon> getGrafikon(@PathVariable Long id) {
         log.debug("REST request to get Grafikon : {}", id);
         Optional<Grafikon> grafikon = grafikonRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(grafikon);
+        HttpHeaders headers = new HttpHeaders();
+        grafikon.ifPresent(found -> headers.setETag(ETagUtil.toETag(found.getVersion())));
+        return ResponseUtil.wrapOrNotFound(grafikon, headers);
     }
 
     /**
@@ -179,4 +318,121 @@ public class GrafikonResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * {@code POST  /grafikons/batch} : Create new grafikons in a single transaction.
+     *
+     * @param grafikons the grafikons to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each grafikon in request order,
+     * or with status {@code 400 (Bad Request)} if the batch is too large.
+     */
+    @PostMapping("/grafikons/batch")
+    public ResponseEntity<List<BatchItemResultVM>> createGrafikons(@RequestBody List<Grafikon> grafikons) {
+        log.debug("REST request to save a batch of {} Grafikons", grafikons.size());
+        checkBatchSize(grafikons.size());
+        BatchItemResultVM[] results = new BatchItemResultVM[grafikons.size()];
+        Map<Integer, Grafikon> valid = new LinkedHashMap<>();
+        for (int i = 0; i < grafikons.size(); i++) {
+            Grafikon grafikon = grafikons.get(i);
+            if (grafikon == null) {
+                results[i] = BatchItemResultVM.failure(i, null, HttpStatus.BAD_REQUEST, "invalid");
+            } else if (grafikon.getId() != null) {
+                results[i] = BatchItemResultVM.failure(i, grafikon.getId(), HttpStatus.BAD_REQUEST, "idexists");
+            } else {
+                valid.put(i, grafikon);
+            }
+        }
+        grafikonRepository.saveAll(valid.values());
+        valid.forEach((index, grafikon) -> results[index] = BatchItemResultVM.success(index, grafikon.getId(), HttpStatus.CREATED));
+        return ResponseEntity.ok().body(Arrays.asList(results));
+    }
+
+    /**
+     * {@code PUT  /grafikons/batch} : Updates existing grafikons in a single transaction.
+     * <p>
+     * The existing grafikons are all loaded with a single query before being updated. A grafikon with a version is only
+     * updated if it still has this version, like with the {@code If-Match} header of a single update.
+     *
+     * @param grafikons the grafikons to update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each grafikon in request order,
+     * or with status {@code 400 (Bad Request)} if the batch is too large.
+     */
+    @PutMapping("/grafikons/batch")
+    public ResponseEntity<List<BatchItemResultVM>> updateGrafikons(@RequestBody List<Grafikon> grafikons) {
+        log.debug("REST request to update a batch of {} Grafikons", grafikons.size());
+        checkBatchSize(grafikons.size());
+        BatchItemResultVM[] results = new BatchItemResultVM[grafikons.size()];
+        Map<Long, Integer> indexById = new LinkedHashMap<>();
+        for (int i = 0; i < grafikons.size(); i++) {
+            Grafikon grafikon = grafikons.get(i);
+            if (grafikon == null) {
+                results[i] = BatchItemResultVM.failure(i, null, HttpStatus.BAD_REQUEST, "invalid");
+            } else if (grafikon.getId() == null) {
+                results[i] = BatchItemResultVM.failure(i, null, HttpStatus.BAD_REQUEST, "idnull");
+            } else if (indexById.putIfAbsent(grafikon.getId(), i) != null) {
+                results[i] = BatchItemResultVM.failure(i, grafikon.getId(), HttpStatus.BAD_REQUEST, "idduplicate");
+            }
+        }
+        Map<Long, Grafikon> existingGrafikons = grafikonRepository
+            .findAllById(indexById.keySet())
+            .stream()
+            .collect(Collectors.toMap(Grafikon::getId, Function.identity()));
+        indexById.forEach((id, index) -> {
+            Grafikon existingGrafikon = existingGrafikons.get(id);
+            Grafikon grafikon = grafikons.get(index);
+            if (existingGrafikon == null) {
+                results[index] = BatchItemResultVM.failure(index, id, HttpStatus.NOT_FOUND, "idnotfound");
+            } else if (grafikon.getVersion() != null && !grafikon.getVersion().equals(existingGrafikon.getVersion())) {
+                results[index] = BatchItemResultVM.failure(index, id, HttpStatus.PRECONDITION_FAILED, "versionmismatch");
+            } else {
+                existingGrafikon.setRegion(regionService.resolve(grafikon.getRegion()));
+                existingGrafikon.setPromet(grafikon.getPromet());
+                results[index] = BatchItemResultVM.success(index, id, HttpStatus.OK);
+            }
+        });
+        return ResponseEntity.ok().body(Arrays.asList(results));
+    }
+
+    /**
+     * {@code DELETE  /grafikons/batch} : delete grafikons in a single transaction.
+     *
+     * @param ids the ids of the grafikons to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each id, in request order,
+     * or with status {@code 400 (Bad Request)} if the batch is too large.
+     */
+    @DeleteMapping("/grafikons/batch")
+    public ResponseEntity<List<BatchItemResultVM>> deleteGrafikons(@RequestBody List<Long> ids) {
+        log.debug("REST request to delete a batch of {} Grafikons", ids.size());
+        checkBatchSize(ids.size());
+        Map<Long, Grafikon> existingGrafikons = grafikonRepository
+            .findAllById(ids.stream().filter(Objects::nonNull).collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.toMap(Grafikon::getId, Function.identity()));
+        grafikonRepository.deleteAll(existingGrafikons.values());
+        BatchItemResultVM[] results = new BatchItemResultVM[ids.size()];
+        Set<Long> seenIds = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results[i] = BatchItemResultVM.failure(i, null, HttpStatus.BAD_REQUEST, "idnull");
+            } else if (!seenIds.add(id)) {
+                results[i] = BatchItemResultVM.failure(i, id, HttpStatus.BAD_REQUEST, "idduplicate");
+            } else if (existingGrafikons.containsKey(id)) {
+                results[i] = BatchItemResultVM.success(i, id, HttpStatus.NO_CONTENT);
+            } else {
+                results[i] = BatchItemResultVM.failure(i, id, HttpStatus.NOT_FOUND, "idnotfound");
+            }
+        }
+        return ResponseEntity.ok().body(Arrays.asList(results));
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > BatchItemResultVM.MAX_BATCH_SIZE) {
+            throw new BadRequestAlertException(
+                "A batch cannot have more than " + BatchItemResultVM.MAX_BATCH_SIZE + " items",
+                ENTITY_NAME,
+                "batchtoolarge"
+            );
+        }
+    }
 }
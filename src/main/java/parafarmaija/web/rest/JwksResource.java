@@ -0,0 +1,42 @@
+package parafarmaija.web.rest;
+
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import parafarmaija.security.jwt.JwtKeyRing;
+
+/**
+ * REST controller publishing the public keys verifying the JWT tokens.
+ */
+@RestController
+public class JwksResource {
+
+    private final Logger log = LoggerFactory.getLogger(JwksResource.class);
+
+    private final JwtKeyRing jwtKeyRing;
+
+    public JwksResource(JwtKeyRing jwtKeyRing) {
+        this.jwtKeyRing = jwtKeyRing;
+    }
+
+    /**
+     * {@code GET  /.well-known/jwks.json} : get the JSON Web Key Set of the JWT key ring.
+     * <p>
+     * The set is empty when the tokens are signed with the shared secret. It may be cached until a new key can sign.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the keys in body.
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> getJwks() {
+        log.debug("REST request to get the JWKS");
+        return ResponseEntity
+            .ok()
+            .cacheControl(CacheControl.maxAge(jwtKeyRing.getPublicKeysMaxAge()).cachePublic())
+            .body(Map.of("keys", jwtKeyRing.getPublicKeys()));
+    }
+}
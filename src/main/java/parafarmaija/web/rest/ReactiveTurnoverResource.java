@@ -0,0 +1,205 @@
+package parafarmaija.web.rest;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import parafarmaija.domain.Grafikon;
+import parafarmaija.domain.Tabela;
+import parafarmaija.repository.ReactiveTurnoverRepository;
+import parafarmaija.service.dto.RegionTurnoverDTO;
+import parafarmaija.web.rest.errors.BadRequestAlertException;
+import parafarmaija.web.rest.util.ETagUtil;
+import parafarmaija.web.rest.util.KeysetPaginationUtil;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for reading {@link Tabela} and {@link Grafikon} without blocking a request thread.
+ * <p>
+ * The reads go through the {@link ReactiveTurnoverRepository}, on the R2DBC connections: the request thread is released
+ * while the query runs, and the response is written once the {@link Mono} or {@link Flux} completes. The rows are only
+ * read once committed, and are always paginated with the {@code after} cursor, in id order.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+public class ReactiveTurnoverResource {
+
+    private final Logger log = LoggerFactory.getLogger(ReactiveTurnoverResource.class);
+
+    private static final String TABELA_ENTITY_NAME = "tabela";
+
+    private static final String GRAFIKON_ENTITY_NAME = "grafikon";
+
+    private final ReactiveTurnoverRepository reactiveTurnoverRepository;
+
+    public ReactiveTurnoverResource(ReactiveTurnoverRepository reactiveTurnoverRepository) {
+        this.reactiveTurnoverRepository = reactiveTurnoverRepository;
+    }
+
+    /**
+     * {@code GET  /reactive/tabelas} : get a keyset page of the tabelas.
+     *
+     * @param pageable the pagination information, only its size is used.
+     * @param after the cursor returned with the previous page, or no cursor for the first page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of tabelas in body, the cursor of the
+     * next page being in the {@code Link} header.
+     */
+    @GetMapping("/tabelas")
+    public Mono<ResponseEntity<List<Tabela>>> getTabelas(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after
+    ) {
+        log.debug("REST request to get a reactive keyset page of Tabelas after : {}", after);
+        Optional<Long> cursor = decodeCursor(after, TABELA_ENTITY_NAME);
+        return findKeysetPage(cursor, pageable.getPageSize(), reactiveTurnoverRepository::findTabelasAfter, Tabela::getId);
+    }
+
+    /**
+     * {@code GET  /reactive/tabelas/:id} : get the "id" tabela.
+     *
+     * @param id the id of the tabela to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the tabela, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/tabelas/{id}")
+    public Mono<ResponseEntity<Tabela>> getTabela(@PathVariable Long id) {
+        log.debug("REST request to get Tabela reactively : {}", id);
+        return reactiveTurnoverRepository
+            .findTabela(id)
+            .map(tabela -> ResponseEntity.ok().eTag(ETagUtil.toETag(tabela.getVersion())).body(tabela))
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * {@code GET  /reactive/tabelas/aggregate} : get the turnover of the tabelas aggregated per region, by the database.
+     *
+     * @return the region aggregates.
+     */
+    @GetMapping("/tabelas/aggregate")
+    public Flux<RegionTurnoverDTO> getTabelaAggregates() {
+        log.debug("REST request to get Tabela aggregates per region reactively");
+        return reactiveTurnoverRepository.aggregateTabelasByRegion().map(ReactiveTurnoverResource::toDTO);
+    }
+
+    /**
+     * {@code GET  /reactive/tabelas/export} : export all the tabelas as newline delimited JSON.
+     * <p>
+     * Each tabela is written to the response as soon as it is read from the database.
+     *
+     * @return the tabelas.
+     */
+    @GetMapping(value = "/tabelas/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Tabela> exportTabelas() {
+        log.debug("REST request to export Tabelas reactively");
+        return reactiveTurnoverRepository.streamTabelas();
+    }
+
+    /**
+     * {@code GET  /reactive/grafikons} : get a keyset page of the grafikons.
+     *
+     * @param pageable the pagination information, only its size is used.
+     * @param after the cursor returned with the previous page, or no cursor for the first page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of grafikons in body, the cursor of the
+     * next page being in the {@code Link} header.
+     */
+    @GetMapping("/grafikons")
+    public Mono<ResponseEntity<List<Grafikon>>> getGrafikons(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after
+    ) {
+        log.debug("REST request to get a reactive keyset page of Grafikons after : {}", after);
+        Optional<Long> cursor = decodeCursor(after, GRAFIKON_ENTITY_NAME);
+        return findKeysetPage(cursor, pageable.getPageSize(), reactiveTurnoverRepository::findGrafikonsAfter, Grafikon::getId);
+    }
+
+    /**
+     * {@code GET  /reactive/grafikons/:id} : get the "id" grafikon.
+     *
+     * @param id the id of the grafikon to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the grafikon, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/grafikons/{id}")
+    public Mono<ResponseEntity<Grafikon>> getGrafikon(@PathVariable Long id) {
+        log.debug("REST request to get Grafikon reactively : {}", id);
+        return reactiveTurnoverRepository
+            .findGrafikon(id)
+            .map(grafikon -> ResponseEntity.ok().eTag(ETagUtil.toETag(grafikon.getVersion())).body(grafikon))
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * {@code GET  /reactive/grafikons/aggregate} : get the turnover of the grafikons aggregated per region, by the database.
+     *
+     * @return the region aggregates.
+     */
+    @GetMapping("/grafikons/aggregate")
+    public Flux<RegionTurnoverDTO> getGrafikonAggregates() {
+        log.debug("REST request to get Grafikon aggregates per region reactively");
+        return reactiveTurnoverRepository.aggregateGrafikonsByRegion().map(ReactiveTurnoverResource::toDTO);
+    }
+
+    /**
+     * {@code GET  /reactive/grafikons/export} : export all the grafikons as newline delimited JSON.
+     * <p>
+     * Each grafikon is written to the response as soon as it is read from the database.
+     *
+     * @return the grafikons.
+     */
+    @GetMapping(value = "/grafikons/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Grafikon> exportGrafikons() {
+        log.debug("REST request to export Grafikons reactively");
+        return reactiveTurnoverRepository.streamGrafikons();
+    }
+
+    private static RegionTurnoverDTO toDTO(ReactiveTurnoverRepository.RegionTurnover turnover) {
+        return new RegionTurnoverDTO(
+            turnover.getRegion(),
+            turnover.getCount(),
+            turnover.getSum(),
+            turnover.getMin(),
+            turnover.getMax(),
+            turnover.getAverage()
+        );
+    }
+
+    private static Optional<Long> decodeCursor(String after, String entityName) {
+        try {
+            return KeysetPaginationUtil.decodeCursor(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+        }
+    }
+
+    private static <T> Mono<ResponseEntity<List<T>>> findKeysetPage(
+        Optional<Long> cursor,
+        int size,
+        BiFunction<Optional<Long>, Integer, Flux<T>> finder,
+        Function<T, Long> idOf
+    ) {
+        // The builder reads the current request, so it must be created on the request thread
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        return finder
+            .apply(cursor, size + 1)
+            .collectList()
+            .map(rows -> {
+                boolean hasNext = rows.size() > size;
+                List<T> content = hasNext ? rows.subList(0, size) : rows;
+                Slice<T> slice = new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+                Long lastId = content.isEmpty() ? null : idOf.apply(content.get(content.size() - 1));
+                HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(uriBuilder, slice, lastId);
+                return ResponseEntity.ok().headers(headers).body(content);
+            });
+    }
+}
@@ -1,24 +1,56 @@
 package parafarmaija.web.rest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.zalando.problem.AbstractThrowableProblem;
 import parafarmaija.domain.Tabela;
 import parafarmaija.repository.TabelaRepository;
+import parafarmaija.service.DeltaSyncService;
+import parafarmaija.service.QueryResultCache;
+import parafarmaija.service.RegionService;
+import parafarmaija.service.RegionTurnoverRollup;
+import parafarmaija.service.TabelaImportService;
+import parafarmaija.service.TurnoverExportService;
+import parafarmaija.service.TurnoverStreamService;
+import parafarmaija.service.dto.EntityChangesDTO;
+import parafarmaija.service.dto.RegionTurnoverDTO;
+import parafarmaija.service.dto.TabelaImportResultDTO;
 import parafarmaija.web.rest.errors.BadRequestAlertException;
+import parafarmaija.web.rest.errors.PreconditionFailedAlertException;
+import parafarmaija.web.rest.util.ETagUtil;
+import parafarmaija.web.rest.util.KeysetPaginationUtil;
+import parafarmaija.web.rest.vm.BatchItemResultVM;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -40,8 +72,38 @@ public class TabelaResource {
 
     private final TabelaRepository tabelaRepository;
 
-    public TabelaResource(TabelaRepository tabelaRepository) {
+    private final RegionTurnoverRollup regionTurnoverRollup;
+
+    private final TurnoverExportService turnoverExportService;
+
+    private final TabelaImportService tabelaImportService;
+
+    private final DeltaSyncService deltaSyncService;
+
+    private final TurnoverStreamService turnoverStreamService;
+
+    private final RegionService regionService;
+
+    private final QueryResultCache queryResultCache;
+
+    public TabelaResource(
+        TabelaRepository tabelaRepository,
+        RegionTurnoverRollup regionTurnoverRollup,
+        TurnoverExportService turnoverExportService,
+        TabelaImportService tabelaImportService,
+        DeltaSyncService deltaSyncService,
+        TurnoverStreamService turnoverStreamService,
+        RegionService regionService,
+        QueryResultCache queryResultCache
+    ) {
         this.tabelaRepository = tabelaRepository;
+        this.regionTurnoverRollup = regionTurnoverRollup;
+        this.turnoverExportService = turnoverExportService;
+        this.tabelaImportService = tabelaImportService;
+        this.deltaSyncService = deltaSyncService;
+        this.turnoverStreamService = turnoverStreamService;
+        this.regionService = regionService;
+        this.queryResultCache = queryResultCache;
     }
 
     /**
@@ -64,19 +126,46 @@ public class TabelaResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /tabelas/import} : Import tabelas in bulk from a CSV file.
+     * <p>
+     * The file uses the {@code ;}-separated {@code id;region;promet} layout, and the ids it contains are ignored.
+     * The rows are committed in chunks, so a failure part way through keeps the chunks already imported.
+     *
+     * @param csv the CSV file.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of the import,
+     * or with status {@code 400 (Bad Request)} if the header of the file is not valid.
+     * @throws IOException if the file could not be read.
+     */
+    @PostMapping(value = "/tabelas/import", consumes = { "text/csv", "text/plain" })
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<TabelaImportResultDTO> importTabelas(InputStream csv) throws IOException {
+        log.debug("REST request to import Tabelas");
+        try {
+            return ResponseEntity.ok().body(tabelaImportService.importCsv(csv));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "importinvalid");
+        }
+    }
+
     /**
      * {@code PUT  /tabelas/:id} : Updates an existing tabela.
      *
      * @param id the id of the tabela to save.
+     * @param ifMatch the entity tags the tabela must match, if any.
      * @param tabela the tabela to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated tabela,
      * or with status {@code 400 (Bad Request)} if the tabela is not valid,
+     * or with status {@code 412 (Precondition Failed)} if the tabela does not match the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the tabela couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/tabelas/{id}")
-    public ResponseEntity<Tabela> updateTabela(@PathVariable(value = "id", required = false) final Long id, @RequestBody Tabela tabela)
-        throws URISyntaxException {
+    public ResponseEntity<Tabela> updateTabela(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody Tabela tabela
+    ) throws URISyntaxException {
         log.debug("REST request to update Tabela : {}, {}", id, tabela);
         if (tabela.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -85,14 +174,17 @@ public class TabelaResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!tabelaRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        if (tabelaRepository.updateIfExists(tabela, ETagUtil.parseIfMatch(ifMatch).orElse(null)) == 0) {
+            throw notUpdated(id, ifMatch);
         }
-
-        Tabela result = tabelaRepository.save(tabela);
+        deltaSyncService.recordChange(Tabela.class, id);
+        // The new version is only read back when it is not implied by the If-Match header.
+        Tabela result = tabela.getVersion() != null ? tabela : tabelaRepository.findById(id).orElseThrow();
+        regionTurnoverRollup.onSavedAfterCommit(result.getId(), result.getRegionName(), result.getPromet());
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, tabela.getId().toString()))
+            .eTag(ETagUtil.toETag(result.getVersion()))
             .body(result);
     }
 
@@ -100,16 +192,19 @@ public class TabelaResource {
      * {@code PATCH  /tabelas/:id} : Partial updates given fields of an existing tabela, field will ignore if it is null
      *
      * @param id the id of the tabela to save.
+     * @param ifMatch the entity tags the tabela must match, if any.
      * @param tabela the tabela to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated tabela,
      * or with status {@code 400 (Bad Request)} if the tabela is not valid,
      * or with status {@code 404 (Not Found)} if the tabela is not found,
+     * or with status {@code 412 (Precondition Failed)} if the tabela does not match the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the tabela couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/tabelas/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<Tabela> partialUpdateTabela(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody Tabela tabela
     ) throws URISyntaxException {
         log.debug("REST request to partial update Tabela partially : {}, {}", id, tabela);
@@ -120,47 +215,164 @@ public class TabelaResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!tabelaRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        if (tabelaRepository.partialUpdateIfExists(tabela, ETagUtil.parseIfMatch(ifMatch).orElse(null)) == 0) {
+            throw notUpdated(id, ifMatch);
         }
+        deltaSyncService.recordChange(Tabela.class, id);
 
-        Optional<Tabela> result = tabelaRepository
-            .findById(tabela.getId())
-            .map(existingTabela -> {
-                if (tabela.getRegion() != null) {
-                    existingTabela.setRegion(tabela.getRegion());
-                }
-                if (tabela.getPromet() != null) {
-                    existingTabela.setPromet(tabela.getPromet());
-                }
-
-                return existingTabela;
-            })
-            .map(tabelaRepository::save);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, tabela.getId().toString())
-        );
+        // The state is only read back when some columns were left untouched, or the new version is not known.
+        Optional<Tabela> result = tabela.getRegion() != null && tabela.getPromet() != null && tabela.getVersion() != null
+            ? Optional.of(tabela)
+            : tabelaRepository.findById(tabela.getId());
+        result.ifPresent(updated -> regionTurnoverRollup.onSavedAfterCommit(updated.getId(), updated.getRegionName(), updated.getPromet()));
+
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, tabela.getId().toString());
+        result.ifPresent(updated -> headers.setETag(ETagUtil.toETag(updated.getVersion())));
+        return ResponseUtil.wrapOrNotFound(result, headers);
+    }
+
+    private AbstractThrowableProblem notUpdated(Long id, String ifMatch) {
+        if (ifMatch != null && tabelaRepository.existsById(id)) {
+            return new PreconditionFailedAlertException("Entity was modified", ENTITY_NAME, "versionmismatch");
+        }
+        return new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
     }
 
     /**
      * {@code GET  /tabelas} : get all the tabelas.
+     * <p>
+     * When the {@code after} cursor is given, the tabelas are read in id order with keyset pagination: no count is run,
+     * and the cursor of the next page is returned in the {@code Link} header.
      *
      * @param pageable the pagination information.
+     * @param after the cursor returned with the previous page, or an empty cursor for the first page.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of tabelas in body.
      */
     @GetMapping("/tabelas")
-    public ResponseEntity<List<Tabela>> getAllTabelas(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<Tabela>> getAllTabelas(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after
+    ) {
+        if (after != null) {
+            log.debug("REST request to get a keyset page of Tabelas after : {}", after);
+            Optional<Long> cursor = decodeCursor(after);
+            int size = pageable.getPageSize();
+            Slice<Tabela> slice = queryResultCache.get(
+                QueryResultCache.TABELA_PAGES_CACHE,
+                "after=" + cursor.map(String::valueOf).orElse("") + "&size=" + size,
+                () -> findKeysetPage(cursor, size)
+            );
+            List<Tabela> content = slice.getContent();
+            Long lastId = content.isEmpty() ? null : content.get(content.size() - 1).getId();
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice,
+                lastId
+            );
+            return ResponseEntity.ok().headers(headers).body(content);
+        }
         log.debug("REST request to get a page of Tabelas");
-        Page<Tabela> page = tabelaRepository.findAll(pageable);
+        Page<Tabela> page = queryResultCache.get(
+            QueryResultCache.TABELA_PAGES_CACHE,
+            QueryResultCache.pageKey(pageable),
+            () -> tabelaRepository.findAll(pageable)
+        );
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    private Optional<Long> decodeCursor(String after) {
+        try {
+            return KeysetPaginationUtil.decodeCursor(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
+
+    private Slice<Tabela> findKeysetPage(Optional<Long> lastId, int size) {
+        Pageable pageable = PageRequest.of(0, size, Sort.by(Sort.Direction.ASC, "id"));
+        return lastId
+            .map(id -> tabelaRepository.findAllByIdGreaterThan(id, pageable))
+            .orElseGet(() -> tabelaRepository.findAllBy(pageable));
+    }
+
+    /**
+     * {@code GET  /tabelas/changes} : get the tabelas changed since a sync token.
+     * <p>
+     * Clients keep the token of the response and send it back with the next request, to only get the tabelas upserted or
+     * deleted meanwhile. Without a token, or with a token too old, all the tabelas are returned and {@code full} is set.
+     *
+     * @param since the token returned with the previous changes.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the changes in body.
+     */
+    @GetMapping("/tabelas/changes")
+    public ResponseEntity<EntityChangesDTO<Tabela>> getTabelaChanges(@RequestParam(value = "since", required = false) Long since) {
+        log.debug("REST request to get the changes of Tabelas since : {}", since);
+        return ResponseEntity.ok().body(deltaSyncService.getTabelaChanges(since));
+    }
+
+    /**
+     * {@code GET  /tabelas/stream} : subscribe to the turnover changes.
+     * <p>
+     * The changes of tabelas and grafikons committed in a short interval are pushed as a single {@code turnover} event,
+     * with the ids of the changed entities and the new aggregates per region. A client which cannot keep up is
+     * disconnected, and should catch up with the {@code changes} endpoints once reconnected.
+     *
+     * @return the Server-Sent Events emitter.
+     */
+    @GetMapping(value = "/tabelas/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SseEmitter streamTurnoverChanges() {
+        log.debug("REST request to stream the turnover changes");
+        return turnoverStreamService.subscribe();
+    }
+
+    /**
+     * {@code GET  /tabelas/export} : export all the tabelas.
+     * <p>
+     * The tabelas are streamed from the database straight to the response, so the memory used does not depend on their number.
+     *
+     * @param format the export format, {@code ndjson} or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the tabelas in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/tabelas/export")
+    public ResponseEntity<StreamingResponseBody> exportTabelas(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        log.debug("REST request to export Tabelas as {}", format);
+        TurnoverExportService.Format exportFormat = TurnoverExportService.Format
+            .fromValue(format)
+            .orElseThrow(() -> new BadRequestAlertException("Invalid export format", ENTITY_NAME, "formatinvalid"));
+        StreamingResponseBody body = out -> turnoverExportService.exportTabelas(exportFormat, out);
+        return ResponseEntity
+            .ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+            .header(
+                HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("tabelas." + exportFormat.getExtension()).build().toString()
+            )
+            .body(body);
+    }
+
+    /**
+     * {@code GET  /tabelas/aggregate} : get the turnover of all the tabelas aggregated per region.
+     * <p>
+     * The aggregates are served from the in-memory {@link RegionTurnoverRollup}, so they only reflect committed writes.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of region aggregates in body.
+     */
+    @GetMapping("/tabelas/aggregate")
+    public List<RegionTurnoverDTO> getTabelaAggregates() {
+        log.debug("REST request to get Tabela aggregates per region");
+        return regionTurnoverRollup.getAggregates();
+    }
+
     /**
      * {@code GET  /tabelas/:id} : get the "id" tabela.
      *
+     * <p>
+     * The response carries the entity tag of the tabela, so a request with a matching {@code If-None-Match} header is
+     * answered with {@code 304 (Not Modified)} and no body.
+     *
      * @param id the id of the tabela to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the tabela, or with status {@code 404 (Not Found)}.
      */
@@ -168,7 +380,9 @@ public class TabelaResource {
     public ResponseEntity<Tabela> getTabela(@PathVariable Long id) {
         log.debug("REST request to get Tabela : {}", id);
         Optional<Tabela> tabela = tabelaRepository.findById(id);
-        return ResponseUtil.wrapOrNotFound(tabela);
+        HttpHeaders headers = new HttpHeaders();
+        tabela.ifPresent(found -> headers.setETag(ETagUtil.toETag(found.getVersion())));
+        return ResponseUtil.wrapOrNotFound(tabela, headers);
     }
 
     /**
@@ -186,4 +400,121 @@ public class TabelaResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * {@code POST  /tabelas/batch} : Create new tabelas in a single transaction.
+     *
+     * @param tabelas the tabelas to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each tabela in request order,
+     * or with status {@code 400 (Bad Request)} if the batch is too large.
+     */
+    @PostMapping("/tabelas/batch")
+    public ResponseEntity<List<BatchItemResultVM>> createTabelas(@RequestBody List<Tabela> tabelas) {
+        log.debug("REST request to save a batch of {} Tabelas", tabelas.size());
+        checkBatchSize(tabelas.size());
+        BatchItemResultVM[] results = new BatchItemResultVM[tabelas.size()];
+        Map<Integer, Tabela> valid = new LinkedHashMap<>();
+        for (int i = 0; i < tabelas.size(); i++) {
+            Tabela tabela = tabelas.get(i);
+            if (tabela == null) {
+                results[i] = BatchItemResultVM.failure(i, null, HttpStatus.BAD_REQUEST, "invalid");
+            } else if (tabela.getId() != null) {
+                results[i] = BatchItemResultVM.failure(i, tabela.getId(), HttpStatus.BAD_REQUEST, "idexists");
+            } else {
+                valid.put(i, tabela);
+            }
+        }
+        tabelaRepository.saveAll(valid.values());
+        valid.forEach((index, tabela) -> results[index] = BatchItemResultVM.success(index, tabela.getId(), HttpStatus.CREATED));
+        return ResponseEntity.ok().body(Arrays.asList(results));
+    }
+
+    /**
+     * {@code PUT  /tabelas/batch} : Updates existing tabelas in a single transaction.
+     * <p>
+     * The existing tabelas are all loaded with a single query before being updated. A tabela with a version is only
+     * updated if it still has this version, like with the {@code If-Match} header of a single update.
+     *
+     * @param tabelas the tabelas to update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each tabela in request order,
+     * or with status {@code 400 (Bad Request)} if the batch is too large.
+     */
+    @PutMapping("/tabelas/batch")
+    public ResponseEntity<List<BatchItemResultVM>> updateTabelas(@RequestBody List<Tabela> tabelas) {
+        log.debug("REST request to update a batch of {} Tabelas", tabelas.size());
+        checkBatchSize(tabelas.size());
+        BatchItemResultVM[] results = new BatchItemResultVM[tabelas.size()];
+        Map<Long, Integer> indexById = new LinkedHashMap<>();
+        for (int i = 0; i < tabelas.size(); i++) {
+            Tabela tabela = tabelas.get(i);
+            if (tabela == null) {
+                results[i] = BatchItemResultVM.failure(i, null, HttpStatus.BAD_REQUEST, "invalid");
+            } else if (tabela.getId() == null) {
+                results[i] = BatchItemResultVM.failure(i, null, HttpStatus.BAD_REQUEST, "idnull");
+            } else if (indexById.putIfAbsent(tabela.getId(), i) != null) {
+                results[i] = BatchItemResultVM.failure(i, tabela.getId(), HttpStatus.BAD_REQUEST, "idduplicate");
+            }
+        }
+        Map<Long, Tabela> existingTabelas = tabelaRepository
+            .findAllById(indexById.keySet())
+            .stream()
+            .collect(Collectors.toMap(Tabela::getId, Function.identity()));
+        indexById.forEach((id, index) -> {
+            Tabela existingTabela = existingTabelas.get(id);
+            Tabela tabela = tabelas.get(index);
+            if (existingTabela == null) {
+                results[index] = BatchItemResultVM.failure(index, id, HttpStatus.NOT_FOUND, "idnotfound");
+            } else if (tabela.getVersion() != null && !tabela.getVersion().equals(existingTabela.getVersion())) {
+                results[index] = BatchItemResultVM.failure(index, id, HttpStatus.PRECONDITION_FAILED, "versionmismatch");
+            } else {
+                existingTabela.setRegion(regionService.resolve(tabela.getRegion()));
+                existingTabela.setPromet(tabela.getPromet());
+                results[index] = BatchItemResultVM.success(index, id, HttpStatus.OK);
+            }
+        });
+        return ResponseEntity.ok().body(Arrays.asList(results));
+    }
+
+    /**
+     * {@code DELETE  /tabelas/batch} : delete tabelas in a single transaction.
+     *
+     * @param ids the ids of the tabelas to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each id, in request order,
+     * or with status {@code 400 (Bad Request)} if the batch is too large.
+     */
+    @DeleteMapping("/tabelas/batch")
+    public ResponseEntity<List<BatchItemResultVM>> deleteTabelas(@RequestBody List<Long> ids) {
+        log.debug("REST request to delete a batch of {} Tabelas", ids.size());
+        checkBatchSize(ids.size());
+        Map<Long, Tabela> existingTabelas = tabelaRepository
+            .findAllById(ids.stream().filter(Objects::nonNull).collect(Collectors.toSet()))
+            .stream()
+            .collect(Collectors.toMap(Tabela::getId, Function.identity()));
+        tabelaRepository.deleteAll(existingTabelas.values());
+        BatchItemResultVM[] results = new BatchItemResultVM[ids.size()];
+        Set<Long> seenIds = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results[i] = BatchItemResultVM.failure(i, null, HttpStatus.BAD_REQUEST, "idnull");
+            } else if (!seenIds.add(id)) {
+                results[i] = BatchItemResultVM.failure(i, id, HttpStatus.BAD_REQUEST, "idduplicate");
+            } else if (existingTabelas.containsKey(id)) {
+                results[i] = BatchItemResultVM.success(i, id, HttpStatus.NO_CONTENT);
+            } else {
+                results[i] = BatchItemResultVM.failure(i, id, HttpStatus.NOT_FOUND, "idnotfound");
+            }
+        }
+        return ResponseEntity.ok().body(Arrays.asList(results));
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > BatchItemResultVM.MAX_BATCH_SIZE) {
+            throw new BadRequestAlertException(
+                "A batch cannot have more than " + BatchItemResultVM.MAX_BATCH_SIZE + " items",
+                ENTITY_NAME,
+                "batchtoolarge"
+            );
+        }
+    }
 }
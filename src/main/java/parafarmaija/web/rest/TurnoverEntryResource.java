@@ -0,0 +1,208 @@
+package parafarmaija.web.rest;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import javax.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import parafarmaija.domain.TurnoverEntry;
+import parafarmaija.repository.TurnoverEntryRepository;
+import parafarmaija.service.TurnoverEntryService;
+import parafarmaija.service.TurnoverRollupService;
+import parafarmaija.service.dto.DailyTurnoverDTO;
+import parafarmaija.service.dto.MonthlyTurnoverDTO;
+import parafarmaija.web.rest.errors.BadRequestAlertException;
+import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for managing {@link parafarmaija.domain.TurnoverEntry}.
+ * <p>
+ * Entries are only listed for a date range, so that a query never scans more months than it needs.
+ */
+@RestController
+@RequestMapping("/api")
+@Transactional
+public class TurnoverEntryResource {
+
+    private final Logger log = LoggerFactory.getLogger(TurnoverEntryResource.class);
+
+    private static final String ENTITY_NAME = "turnoverEntry";
+
+    @Value("${jhipster.clientApp.name}")
+    private String applicationName;
+
+    private final TurnoverEntryRepository turnoverEntryRepository;
+
+    private final TurnoverEntryService turnoverEntryService;
+
+    private final TurnoverRollupService turnoverRollupService;
+
+    public TurnoverEntryResource(
+        TurnoverEntryRepository turnoverEntryRepository,
+        TurnoverEntryService turnoverEntryService,
+        TurnoverRollupService turnoverRollupService
+    ) {
+        this.turnoverEntryRepository = turnoverEntryRepository;
+        this.turnoverEntryService = turnoverEntryService;
+        this.turnoverRollupService = turnoverRollupService;
+    }
+
+    /**
+     * {@code POST  /turnover-entries} : Create a new turnoverEntry.
+     *
+     * @param turnoverEntry the turnoverEntry to create.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new turnoverEntry, or with status {@code 400 (Bad Request)} if the turnoverEntry has already an ID.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("/turnover-entries")
+    public ResponseEntity<TurnoverEntry> createTurnoverEntry(@Valid @RequestBody TurnoverEntry turnoverEntry) throws URISyntaxException {
+        log.debug("REST request to save TurnoverEntry : {}", turnoverEntry);
+        if (turnoverEntry.getId() != null) {
+            throw new BadRequestAlertException("A new turnoverEntry cannot already have an ID", ENTITY_NAME, "idexists");
+        }
+        TurnoverEntry result = turnoverEntryRepository.save(turnoverEntry);
+        return ResponseEntity
+            .created(new URI("/api/turnover-entries/" + result.getId()))
+            .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+            .body(result);
+    }
+
+    /**
+     * {@code PUT  /turnover-entries/:id} : Updates an existing turnoverEntry.
+     *
+     * @param id the id of the turnoverEntry to save.
+     * @param turnoverEntry the turnoverEntry to update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated turnoverEntry,
+     * or with status {@code 400 (Bad Request)} if the turnoverEntry is not valid,
+     * or with status {@code 500 (Internal Server Error)} if the turnoverEntry couldn't be updated.
+     */
+    @PutMapping("/turnover-entries/{id}")
+    public ResponseEntity<TurnoverEntry> updateTurnoverEntry(
+        @PathVariable(value = "id", required = false) final Long id,
+        @Valid @RequestBody TurnoverEntry turnoverEntry
+    ) {
+        log.debug("REST request to update TurnoverEntry : {}, {}", id, turnoverEntry);
+        if (turnoverEntry.getId() == null) {
+            throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
+        }
+        if (!Objects.equals(id, turnoverEntry.getId())) {
+            throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
+        }
+        if (!turnoverEntryRepository.existsById(id)) {
+            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        }
+
+        TurnoverEntry result = turnoverEntryRepository.save(turnoverEntry);
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, turnoverEntry.getId().toString()))
+            .body(result);
+    }
+
+    /**
+     * {@code GET  /turnover-entries} : get the turnoverEntries of a date range.
+     *
+     * @param from the first date of the range.
+     * @param to the last date of the range, included.
+     * @param region the name of the region to get the entries of, all the regions if not set.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of turnoverEntries in body,
+     * or with status {@code 400 (Bad Request)} if the range is not valid.
+     */
+    @GetMapping("/turnover-entries")
+    public ResponseEntity<List<TurnoverEntry>> getAllTurnoverEntries(
+        @RequestParam("from") LocalDate from,
+        @RequestParam("to") LocalDate to,
+        @RequestParam(value = "region", required = false) String region,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to get a page of TurnoverEntries from {} to {}", from, to);
+        checkRange(from, to);
+        Page<TurnoverEntry> page = turnoverEntryService.findAllInRange(from, to, region, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /turnover-entries/daily} : get the turnover of a date range aggregated per region and day.
+     * <p>
+     * The turnover is read from the rollups, so it may lag behind the entries by a few minutes.
+     *
+     * @param from the first date of the range.
+     * @param to the last date of the range, included.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of daily aggregates in body,
+     * or with status {@code 400 (Bad Request)} if the range is not valid.
+     */
+    @GetMapping("/turnover-entries/daily")
+    public List<DailyTurnoverDTO> getDailyTurnover(@RequestParam("from") LocalDate from, @RequestParam("to") LocalDate to) {
+        log.debug("REST request to get the daily turnover from {} to {}", from, to);
+        checkRange(from, to);
+        return turnoverRollupService.getDailyTurnover(from, to);
+    }
+
+    /**
+     * {@code GET  /turnover-entries/monthly} : get the turnover of a date range aggregated per region and month.
+     * <p>
+     * The turnover is read from the rollups, so it may lag behind the entries by a few minutes.
+     *
+     * @param from the first date of the range.
+     * @param to the last date of the range, included.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of monthly aggregates in body,
+     * or with status {@code 400 (Bad Request)} if the range is not valid.
+     */
+    @GetMapping("/turnover-entries/monthly")
+    public List<MonthlyTurnoverDTO> getMonthlyTurnover(@RequestParam("from") LocalDate from, @RequestParam("to") LocalDate to) {
+        log.debug("REST request to get the monthly turnover from {} to {}", from, to);
+        checkRange(from, to);
+        return turnoverRollupService.getMonthlyTurnover(from, to);
+    }
+
+    /**
+     * {@code GET  /turnover-entries/:id} : get the "id" turnoverEntry.
+     *
+     * @param id the id of the turnoverEntry to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the turnoverEntry, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/turnover-entries/{id}")
+    public ResponseEntity<TurnoverEntry> getTurnoverEntry(@PathVariable Long id) {
+        log.debug("REST request to get TurnoverEntry : {}", id);
+        Optional<TurnoverEntry> turnoverEntry = turnoverEntryRepository.findById(id);
+        return ResponseUtil.wrapOrNotFound(turnoverEntry);
+    }
+
+    /**
+     * {@code DELETE  /turnover-entries/:id} : delete the "id" turnoverEntry.
+     *
+     * @param id the id of the turnoverEntry to delete.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @DeleteMapping("/turnover-entries/{id}")
+    public ResponseEntity<Void> deleteTurnoverEntry(@PathVariable Long id) {
+        log.debug("REST request to delete TurnoverEntry : {}", id);
+        turnoverEntryRepository.deleteById(id);
+        return ResponseEntity
+            .noContent()
+            .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
+            .build();
+    }
+
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new BadRequestAlertException("The end of the range cannot be before its start", ENTITY_NAME, "rangeinvalid");
+        }
+    }
+}
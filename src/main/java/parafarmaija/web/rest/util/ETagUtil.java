@@ -0,0 +1,55 @@
+package parafarmaija.web.rest.util;
+
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.util.StringUtils;
+
+/**
+ * Utility class for the entity tags of versioned entities.
+ * <p>
+ * The entity tag of an entity is its quoted optimistic locking version, so it changes with every committed update. The
+ * tags of the {@code If-Match} header are compared with the strong comparison of
+ * <a href="https://www.rfc-editor.org/rfc/rfc7232#section-2.3.2">RFC 7232</a>: weak tags never match.
+ */
+public final class ETagUtil {
+
+    private static final String ANY = "*";
+
+    private ETagUtil() {}
+
+    /**
+     * Get the entity tag of a version.
+     *
+     * @param version the version of the entity.
+     * @return the quoted entity tag.
+     */
+    public static String toETag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Get the versions accepted by an {@code If-Match} header.
+     *
+     * @param ifMatch the value of the {@code If-Match} header, may be {@code null}.
+     * @return the accepted versions, or an empty optional if any version is accepted. An empty set means that no version
+     * can match.
+     */
+    public static Optional<Set<Long>> parseIfMatch(String ifMatch) {
+        if (!StringUtils.hasText(ifMatch) || ANY.equals(ifMatch.trim())) {
+            return Optional.empty();
+        }
+        Set<Long> versions = new LinkedHashSet<>();
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.length() > 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                try {
+                    versions.add(Long.valueOf(trimmed.substring(1, trimmed.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // Not one of our tags, so it cannot match.
+                }
+            }
+        }
+        return Optional.of(versions);
+    }
+}
@@ -0,0 +1,77 @@
+package parafarmaija.web.rest.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (seek) pagination.
+ * <p>
+ * A page is requested with an opaque {@code after} cursor pointing past the last row already read, and the
+ * cursor of the next page is returned in a {@code Link} header, see the
+ * <a href="https://developer.github.com/v3/#pagination">GitHub API</a>. An empty cursor requests the first page.
+ * <p>
+ * Unlike offset pagination, reading a deep page costs the same as reading the first one, and no count query is run.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String AFTER_PARAMETER = "after";
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"%s\"";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Encode the id of the last row of a page into an opaque cursor.
+     *
+     * @param id the id of the last row of the page.
+     * @return the cursor.
+     */
+    public static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor into the id of the last row already read.
+     *
+     * @param cursor the cursor.
+     * @return the id, or an empty {@link Optional} for the first page.
+     * @throws IllegalArgumentException if the cursor is not valid.
+     */
+    public static Optional<Long> decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Generate the {@code Link} header pointing to the next page, if there is one.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param slice the page which was read.
+     * @param lastId the id of the last row of the page.
+     * @param <T> the type of the rows.
+     * @return the {@link HttpHeaders}.
+     */
+    public static <T> HttpHeaders generateKeysetPaginationHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice, Long lastId) {
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext() && lastId != null) {
+            String next = uriBuilder
+                .replaceQueryParam(AFTER_PARAMETER, encodeCursor(lastId))
+                .replaceQueryParam("size", slice.getSize())
+                .replaceQueryParam("page")
+                .replaceQueryParam("sort")
+                .toUriString();
+            headers.add(HttpHeaders.LINK, String.format(HEADER_LINK_FORMAT, next, "next"));
+        }
+        return headers;
+    }
+}
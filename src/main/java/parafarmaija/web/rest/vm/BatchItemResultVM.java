@@ -0,0 +1,92 @@
+package parafarmaija.web.rest.vm;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.HttpStatus;
+
+/**
+ * View Model object for storing the outcome of one item of a batch request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResultVM {
+
+    /**
+     * Maximum number of items accepted in a single batch request.
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private int index;
+
+    private Long id;
+
+    private int status;
+
+    private String errorKey;
+
+    public BatchItemResultVM() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BatchItemResultVM(int index, Long id, HttpStatus status, String errorKey) {
+        this.index = index;
+        this.id = id;
+        this.status = status.value();
+        this.errorKey = errorKey;
+    }
+
+    public static BatchItemResultVM success(int index, Long id, HttpStatus status) {
+        return new BatchItemResultVM(index, id, status, null);
+    }
+
+    public static BatchItemResultVM failure(int index, Long id, HttpStatus status, String errorKey) {
+        return new BatchItemResultVM(index, id, status, errorKey);
+    }
+
+    /**
+     * @return the position of the item in the request.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the HTTP status the item would have had as a single request.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getErrorKey() {
+        return errorKey;
+    }
+
+    public void setErrorKey(String errorKey) {
+        this.errorKey = errorKey;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BatchItemResultVM{" +
+            "index=" + index +
+            ", id=" + id +
+            ", status=" + status +
+            ", errorKey='" + errorKey + '\'' +
+            "}";
+    }
+}
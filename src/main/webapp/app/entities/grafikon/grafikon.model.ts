@@ -2,6 +2,7 @@ export interface IGrafikon {
   id?: number;
   region?: string | null;
   promet?: number | null;
+  version?: number | null;
 }
 
 export class Grafikon implements IGrafikon {
@@ -3,6 +3,7 @@ import { HttpResponse } from '@angular/common/http';
 import { NgbModal } from '@ng-bootstrap/ng-bootstrap';
 
 import { IGrafikon } from '../grafikon.model';
+import { IRegionTurnover } from '../region-turnover.model';
 import { GrafikonService } from '../service/grafikon.service';
 import { GrafikonDeleteDialogComponent } from '../delete/grafikon-delete-dialog.component';
 import { Chart, registerables } from 'chart.js';
@@ -34,9 +35,9 @@ export class GrafikonComponent implements OnInit {
   }
 
   ucitajGrafikon(): void {
-    this.grafikonService.grafikon().subscribe((res: any[]) => {
-      const region = res.map((res: { region: string }) => res.region);
-      const promet = res.map((res: { promet: number }) => res.promet);
+    this.grafikonService.grafikon().subscribe((res: IRegionTurnover[]) => {
+      const region = res.map(aggregate => aggregate.region);
+      const promet = res.map(aggregate => aggregate.sum);
       // eslint-disable-next-line no-console
       console.log(region);
       // eslint-disable-next-line no-console
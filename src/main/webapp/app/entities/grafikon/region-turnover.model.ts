@@ -0,0 +1,8 @@
+export interface IRegionTurnover {
+  region?: string | null;
+  count?: number;
+  sum?: number;
+  min?: number | null;
+  max?: number | null;
+  average?: number | null;
+}
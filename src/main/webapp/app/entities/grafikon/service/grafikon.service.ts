@@ -6,7 +6,7 @@ import { isPresent } from 'app/core/util/operators';
 import { ApplicationConfigService } from 'app/core/config/application-config.service';
 import { createRequestOption } from 'app/core/request/request-util';
 import { IGrafikon, getGrafikonIdentifier } from '../grafikon.model';
-import { map } from 'rxjs/operators';
+import { IRegionTurnover } from '../region-turnover.model';
 
 export type EntityResponseType = HttpResponse<IGrafikon>;
 export type EntityArrayResponseType = HttpResponse<IGrafikon[]>;
@@ -17,8 +17,8 @@ export class GrafikonService {
 
   constructor(protected http: HttpClient, protected applicationConfigService: ApplicationConfigService) {}
 
-  grafikon(): any {
-    return this.http.get(this.resourceUrl).pipe(map(result => result));
+  grafikon(): Observable<IRegionTurnover[]> {
+    return this.http.get<IRegionTurnover[]>(`${this.resourceUrl}/aggregate`);
   }
 
   create(grafikon: IGrafikon): Observable<EntityResponseType> {
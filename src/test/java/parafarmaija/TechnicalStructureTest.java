@@ -29,5 +29,9 @@ class TechnicalStructureTest {
         .whereLayer("Persistence").mayOnlyBeAccessedByLayers("Service", "Security", "Web", "Config")
         .whereLayer("Domain").mayOnlyBeAccessedByLayers("Persistence", "Service", "Security", "Web", "Config")
 
-        .ignoreDependency(belongToAnyOf(ParafarmacijaApp.class), alwaysTrue());
+        .ignoreDependency(belongToAnyOf(ParafarmacijaApp.class), alwaysTrue())
+        .ignoreDependency(alwaysTrue(), belongToAnyOf(
+            parafarmaija.config.Constants.class,
+            parafarmaija.config.ApplicationProperties.class
+        ));
 }
@@ -0,0 +1,106 @@
+package parafarmaija.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.context.support.StaticApplicationContext;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for the per-cache settings of {@link CacheConfiguration}.
+ */
+class CacheConfigurationTest {
+
+    private static final String CONFIGURED_CACHE = parafarmaija.domain.Tabela.class.getName();
+
+    private static final String DEFAULT_CACHE = parafarmaija.domain.Grafikon.class.getName();
+
+    @TempDir
+    Path diskDirectory;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private ApplicationProperties applicationProperties;
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void setup() {
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getCache().getEhcache().setMaxEntries(42);
+        applicationProperties = new ApplicationProperties();
+    }
+
+    @AfterEach
+    public void teardown() {
+        if (cacheManager != null) {
+            cacheManager.close();
+        }
+    }
+
+    @Test
+    void shouldApplyTheSettingsOfEachCache() {
+        ApplicationProperties.CacheSettings settings = new ApplicationProperties.CacheSettings();
+        settings.setHeapEntries(10L);
+        settings.setOffHeapMb(1);
+        settings.setDiskMb(2);
+        settings.setDiskPersistent(true);
+        applicationProperties.getCache().getCaches().put(CONFIGURED_CACHE, settings);
+        applicationProperties.getCache().setDiskDirectory(diskDirectory.toString());
+
+        cacheManager = createCacheManager();
+
+        ResourcePools configured = resourcePools(cacheManager.getCache(CONFIGURED_CACHE));
+        assertThat(configured.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(10);
+        assertThat(configured.<SizedResourcePool>getPoolForResource(ResourceType.Core.OFFHEAP).getSize()).isEqualTo(1);
+        assertThat(configured.<SizedResourcePool>getPoolForResource(ResourceType.Core.OFFHEAP).getUnit()).isEqualTo(MemoryUnit.MB);
+        assertThat(configured.getPoolForResource(ResourceType.Core.DISK).getSize()).isEqualTo(2);
+        assertThat(configured.getPoolForResource(ResourceType.Core.DISK).isPersistent()).isTrue();
+
+        ResourcePools defaults = resourcePools(cacheManager.getCache(DEFAULT_CACHE));
+        assertThat(defaults.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(42);
+        assertThat(defaults.getResourceTypeSet()).containsExactly(ResourceType.Core.HEAP);
+
+        Cache<Object, Object> cache = cacheManager.getCache(CONFIGURED_CACHE);
+        cache.put("key", "value");
+        assertThat(cache.get("key")).isEqualTo("value");
+    }
+
+    @Test
+    void shouldRequireADiskDirectoryForDiskTiers() {
+        ApplicationProperties.CacheSettings settings = new ApplicationProperties.CacheSettings();
+        settings.setDiskMb(2);
+        applicationProperties.getCache().getCaches().put(CONFIGURED_CACHE, settings);
+
+        assertThatThrownBy(() -> cacheManager = createCacheManager())
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining(CONFIGURED_CACHE);
+    }
+
+    private CacheManager createCacheManager() {
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(jHipsterProperties, applicationProperties);
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.getBeanFactory().registerSingleton("cacheManagerCustomizer", cacheConfiguration.cacheManagerCustomizer());
+        return cacheConfiguration.jCacheCacheManager(context.getBeanProvider(JCacheManagerCustomizer.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResourcePools resourcePools(Cache<Object, Object> cache) {
+        Eh107Configuration<Object, Object> configuration = cache.getConfiguration(Eh107Configuration.class);
+        return configuration.unwrap(CacheRuntimeConfiguration.class).getResourcePools();
+    }
+}
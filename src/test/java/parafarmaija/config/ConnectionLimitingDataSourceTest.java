@@ -0,0 +1,98 @@
+package parafarmaija.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConnectionLimitingDataSourceTest {
+
+    private DataSource targetDataSource;
+
+    private MeterRegistry meterRegistry;
+
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        targetDataSource = mock(DataSource.class);
+        when(targetDataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new ConnectionLimitingDataSource(targetDataSource, 2, Duration.ofMillis(50), 10, meterRegistry);
+    }
+
+    @Test
+    void testConnectionsAreLimitedUntilTheyAreClosed() throws SQLException {
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThatExceptionOfType(SQLTransientConnectionException.class).isThrownBy(dataSource::getConnection);
+        assertThat(meterRegistry.get(ConnectionLimitingDataSource.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+
+        first.close();
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+
+    @Test
+    void testClosingAConnectionTwiceReleasesItOnce() throws SQLException {
+        Connection first = dataSource.getConnection();
+        first.close();
+        first.close();
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThatExceptionOfType(SQLTransientConnectionException.class).isThrownBy(dataSource::getConnection);
+    }
+
+    @Test
+    void testCallsAreDelegatedToTheTargetConnection() throws SQLException {
+        Connection target = mock(Connection.class);
+        when(targetDataSource.getConnection()).thenReturn(target);
+
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        connection.close();
+
+        verify(target).setAutoCommit(false);
+        verify(target).close();
+    }
+
+    @Test
+    void testThreadsAreRejectedRightAwayWhenTooManyAreWaiting() throws SQLException {
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new ConnectionLimitingDataSource(targetDataSource, 1, Duration.ofMinutes(1), 0, meterRegistry);
+        dataSource.getConnection();
+
+        assertThatExceptionOfType(SQLTransientConnectionException.class)
+            .isThrownBy(dataSource::getConnection)
+            .withMessageContaining("threads are waiting");
+        assertThat(meterRegistry.get(ConnectionLimitingDataSource.WAITING_METER_NAME).gauge().value()).isZero();
+    }
+
+    @Test
+    void testPermitIsReleasedWhenTheTargetFails() throws SQLException {
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("down")).thenAnswer(invocation -> mock(Connection.class));
+
+        assertThatExceptionOfType(SQLException.class).isThrownBy(dataSource::getConnection).withMessage("down");
+        dataSource.getConnection();
+        dataSource.getConnection();
+    }
+
+    @Test
+    void testAtLeastOneConnectionMustBeAllowed() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> new ConnectionLimitingDataSource(targetDataSource, -1, Duration.ofMillis(50), 10, meterRegistry));
+    }
+}
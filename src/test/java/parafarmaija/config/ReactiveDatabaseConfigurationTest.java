@@ -0,0 +1,23 @@
+package parafarmaija.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link ReactiveDatabaseConfiguration} class.
+ */
+class ReactiveDatabaseConfigurationTest {
+
+    @Test
+    void shouldConvertJdbcUrl() {
+        assertThat(ReactiveDatabaseConfiguration.toR2dbcUrl("jdbc:postgresql://db.example.com:5432/d1?sslmode=require"))
+            .isEqualTo("r2dbc:postgresql://db.example.com:5432/d1?sslMode=require");
+    }
+
+    @Test
+    void shouldNotConvertOtherUrl() {
+        assertThat(ReactiveDatabaseConfiguration.toR2dbcUrl(null)).isNull();
+        assertThat(ReactiveDatabaseConfiguration.toR2dbcUrl("r2dbc:postgresql://localhost:5432/Parafarmacija")).isNull();
+    }
+}
@@ -0,0 +1,135 @@
+package parafarmaija.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH load test comparing the platform threads of the default mode with the "virtual-threads" profile.
+ * <p>
+ * Each operation is a request which blocks for {@code blockingMillis}, like a call to another service, then runs a
+ * query through a Hikari pool of {@value #POOL_SIZE} connections, bursts of {@value #REQUESTS} concurrent requests
+ * being submitted at once. In the platform mode, the requests run on a pool of {@value #PLATFORM_THREADS} threads, the
+ * default size of the Undertow worker pool on a 8 cores machine; in the virtual mode, each request runs on its own
+ * virtual thread, and the connections are bounded by a {@link ConnectionLimitingDataSource}.
+ * <p>
+ * Run it with the {@link #main(String[])} method, from the test classpath once {@code ./mvnw test-compile} has
+ * generated the benchmark classes. The virtual mode needs Java 21 or later.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VirtualThreadsBenchmark {
+
+    private static final int POOL_SIZE = 10;
+
+    private static final int PLATFORM_THREADS = 64;
+
+    private static final int REQUESTS = 2000;
+
+    @Param({ "platform", "virtual" })
+    private String mode;
+
+    @Param({ "0", "20" })
+    private long blockingMillis;
+
+    private HikariDataSource hikariDataSource;
+
+    private DataSource dataSource;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        hikariDataSource = new HikariDataSource();
+        hikariDataSource.setJdbcUrl("jdbc:h2:mem:virtualthreads;DB_CLOSE_DELAY=-1");
+        hikariDataSource.setMaximumPoolSize(POOL_SIZE);
+        if ("virtual".equals(mode)) {
+            executor = VirtualThreads.newThreadPerTaskExecutor("request-");
+            dataSource =
+                new ConnectionLimitingDataSource(
+                    hikariDataSource,
+                    POOL_SIZE,
+                    Duration.ofMillis(hikariDataSource.getConnectionTimeout()),
+                    REQUESTS,
+                    new SimpleMeterRegistry()
+                );
+        } else {
+            executor = Executors.newFixedThreadPool(PLATFORM_THREADS);
+            dataSource = hikariDataSource;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        hikariDataSource.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public int requests() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < REQUESTS; i++) {
+            executor.execute(() -> {
+                try {
+                    request();
+                } catch (SQLException | InterruptedException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " requests failed");
+        }
+        return REQUESTS;
+    }
+
+    private void request() throws SQLException, InterruptedException {
+        if (blockingMillis > 0) {
+            Thread.sleep(blockingMillis);
+        }
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery("select 1")) {
+                resultSet.next();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(VirtualThreadsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
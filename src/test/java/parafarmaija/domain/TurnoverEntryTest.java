@@ -0,0 +1,23 @@
+package parafarmaija.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import parafarmaija.web.rest.TestUtil;
+
+class TurnoverEntryTest {
+
+    @Test
+    void equalsVerifier() throws Exception {
+        TestUtil.equalsVerifier(TurnoverEntry.class);
+        TurnoverEntry turnoverEntry1 = new TurnoverEntry();
+        turnoverEntry1.setId(1L);
+        TurnoverEntry turnoverEntry2 = new TurnoverEntry();
+        turnoverEntry2.setId(turnoverEntry1.getId());
+        assertThat(turnoverEntry1).isEqualTo(turnoverEntry2);
+        turnoverEntry2.setId(2L);
+        assertThat(turnoverEntry1).isNotEqualTo(turnoverEntry2);
+        turnoverEntry1.setId(null);
+        assertThat(turnoverEntry1).isNotEqualTo(turnoverEntry2);
+    }
+}
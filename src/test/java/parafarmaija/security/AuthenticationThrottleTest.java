@@ -0,0 +1,129 @@
+package parafarmaija.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import parafarmaija.config.ApplicationProperties;
+
+class AuthenticationThrottleTest {
+
+    private static final String ADDRESS = "10.0.0.1";
+
+    private MutableClock clock;
+
+    private MeterRegistry meterRegistry;
+
+    private AuthenticationThrottle authenticationThrottle;
+
+    @BeforeEach
+    public void setup() {
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+        authenticationThrottle =
+            new AuthenticationThrottle(properties(true, 3, Duration.ofSeconds(1), 2, Duration.ofSeconds(10)), meterRegistry, clock);
+    }
+
+    @Test
+    void testAddressesAreThrottledOnceTheirBucketIsEmpty() {
+        for (int i = 0; i < 3; i++) {
+            authenticationThrottle.acquire(ADDRESS, null);
+        }
+
+        assertThatExceptionOfType(AuthenticationThrottledException.class)
+            .isThrownBy(() -> authenticationThrottle.acquire(ADDRESS, null))
+            .satisfies(e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(1)));
+        assertThatNoException().isThrownBy(() -> authenticationThrottle.acquire("10.0.0.2", null));
+        assertThat(meterRegistry.get(AuthenticationThrottle.THROTTLED_METER_NAME).tag("key", "address").counter().count()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThatNoException().isThrownBy(() -> authenticationThrottle.acquire(ADDRESS, null));
+    }
+
+    @Test
+    void testLoginsAreThrottledWhateverTheAddress() {
+        authenticationThrottle.acquire("10.0.0.1", "user");
+        authenticationThrottle.acquire("10.0.0.2", "USER");
+
+        assertThatExceptionOfType(AuthenticationThrottledException.class)
+            .isThrownBy(() -> authenticationThrottle.acquire("10.0.0.3", "user"))
+            .satisfies(e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(10)));
+        assertThat(meterRegistry.get(AuthenticationThrottle.THROTTLED_METER_NAME).tag("key", "login").counter().count()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(5));
+        assertThatExceptionOfType(AuthenticationThrottledException.class)
+            .isThrownBy(() -> authenticationThrottle.acquire("10.0.0.4", "user"))
+            .satisfies(e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void testTrackedBucketsAreBounded() {
+        for (int i = 0; i < 10; i++) {
+            authenticationThrottle.acquire("10.0.1." + i, null);
+        }
+
+        assertThat(authenticationThrottle.size()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void testNothingIsThrottledWhenDisabled() {
+        authenticationThrottle =
+            new AuthenticationThrottle(properties(false, 1, Duration.ofSeconds(1), 1, Duration.ofSeconds(1)), meterRegistry, clock);
+
+        for (int i = 0; i < 10; i++) {
+            authenticationThrottle.acquire(ADDRESS, "user");
+        }
+
+        assertThat(authenticationThrottle.size()).isZero();
+    }
+
+    private static ApplicationProperties.AuthenticationThrottling properties(
+        boolean enabled,
+        int addressCapacity,
+        Duration addressRefillPeriod,
+        int loginCapacity,
+        Duration loginRefillPeriod
+    ) {
+        ApplicationProperties.AuthenticationThrottling properties = new ApplicationProperties.AuthenticationThrottling();
+        properties.setEnabled(enabled);
+        properties.setAddressCapacity(addressCapacity);
+        properties.setAddressRefillPeriod(addressRefillPeriod);
+        properties.setLoginCapacity(loginCapacity);
+        properties.setLoginRefillPeriod(loginRefillPeriod);
+        properties.setMaxEntries(4);
+        return properties;
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
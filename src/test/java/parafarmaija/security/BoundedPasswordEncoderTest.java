@@ -0,0 +1,86 @@
+package parafarmaija.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class BoundedPasswordEncoderTest {
+
+    private static final int COST = 4;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private MeterRegistry meterRegistry;
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    public void setup() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        meterRegistry = new SimpleMeterRegistry();
+        passwordEncoder = new BoundedPasswordEncoder(COST, executor, meterRegistry);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testHashesAreTimed() {
+        String encoded = passwordEncoder.encode("password");
+
+        assertThat(passwordEncoder.matches("password", encoded)).isTrue();
+        assertThat(passwordEncoder.matches("other", encoded)).isFalse();
+        assertThat(meterRegistry.get(BoundedPasswordEncoder.HASHING_METER_NAME).tag("operation", "encode").timer().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get(BoundedPasswordEncoder.HASHING_METER_NAME).tag("operation", "matches").timer().count())
+            .isEqualTo(2);
+        assertThat(meterRegistry.get(BoundedPasswordEncoder.WAIT_METER_NAME).timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testPasswordsOfAnotherCostAreUpgraded() {
+        assertThat(passwordEncoder.upgradeEncoding(passwordEncoder.encode("password"))).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password"))).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding("not a bcrypt hash")).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(null)).isFalse();
+    }
+
+    @Test
+    void testHashesAreRejectedWhenTheQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        executor.execute(blocking);
+        started.await();
+        executor.execute(blocking);
+
+        try {
+            assertThatExceptionOfType(TaskRejectedException.class).isThrownBy(() -> passwordEncoder.encode("password"));
+            assertThat(meterRegistry.get(BoundedPasswordEncoder.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package parafarmaija.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.annotation.Transactional;
+import parafarmaija.IntegrationTest;
+import parafarmaija.repository.UserRepository;
+import parafarmaija.service.UserService;
+import parafarmaija.service.dto.AdminUserDTO;
+
+/**
+ * Integration tests for {@link UnknownUserCache}.
+ */
+@Transactional
+@IntegrationTest
+class UnknownUserCacheIT {
+
+    private static final String LOGIN = "unknown-user-cache";
+
+    private static final String EMAIL = "unknown-user-cache@localhost";
+
+    @Autowired
+    private UnknownUserCache unknownUserCache;
+
+    @Autowired
+    private UserDetailsService domainUserDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void init() {
+        cacheManager.getCache(UserRepository.UNKNOWN_LOGINS_CACHE).clear();
+        cacheManager.getCache(UserRepository.UNKNOWN_EMAILS_CACHE).clear();
+    }
+
+    @Test
+    void assertThatUnknownLoginsAreNotLookedUpAgain() {
+        AtomicInteger lookups = new AtomicInteger();
+        double hits = meterRegistry.get(UnknownUserCache.METER_NAME).tag("type", "login").tag("result", "hit").counter().count();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(
+                unknownUserCache.findByLogin(
+                    LOGIN,
+                    login -> {
+                        lookups.incrementAndGet();
+                        return Optional.empty();
+                    }
+                )
+            )
+                .isEmpty();
+        }
+
+        assertThat(lookups).hasValue(1);
+        assertThat(meterRegistry.get(UnknownUserCache.METER_NAME).tag("type", "login").tag("result", "hit").counter().count())
+            .isEqualTo(hits + 2);
+    }
+
+    @Test
+    void assertThatKnownEmailsAreLookedUpEveryTime() {
+        AtomicInteger lookups = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(
+                unknownUserCache.findByEmail(
+                    EMAIL,
+                    email -> {
+                        lookups.incrementAndGet();
+                        return Optional.of(email);
+                    }
+                )
+            )
+                .contains(EMAIL);
+        }
+
+        assertThat(lookups).hasValue(3);
+    }
+
+    @Test
+    void assertThatUnknownUsersAreForgottenOnceCreated() {
+        assertThatExceptionOfType(UsernameNotFoundException.class)
+            .isThrownBy(() -> domainUserDetailsService.loadUserByUsername(LOGIN));
+        assertThatExceptionOfType(UsernameNotFoundException.class)
+            .isThrownBy(() -> domainUserDetailsService.loadUserByUsername(EMAIL.toUpperCase()));
+
+        AdminUserDTO user = new AdminUserDTO();
+        user.setLogin(LOGIN);
+        user.setEmail(EMAIL);
+        user.setActivated(true);
+        userService.createUser(user);
+
+        assertThat(domainUserDetailsService.loadUserByUsername(LOGIN).getUsername()).isEqualTo(LOGIN);
+        assertThat(domainUserDetailsService.loadUserByUsername(EMAIL.toUpperCase()).getUsername()).isEqualTo(LOGIN);
+    }
+}
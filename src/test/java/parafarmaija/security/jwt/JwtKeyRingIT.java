@@ -0,0 +1,192 @@
+package parafarmaija.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.security.KeyPair;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import parafarmaija.IntegrationTest;
+import parafarmaija.config.ApplicationProperties;
+import parafarmaija.domain.JwtSigningKey;
+import parafarmaija.management.SecurityMetersService;
+import parafarmaija.repository.JwtSigningKeyRepository;
+import parafarmaija.security.AuthoritiesConstants;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Integration tests for {@link JwtKeyRing}.
+ */
+@IntegrationTest
+class JwtKeyRingIT {
+
+    @Autowired
+    private JwtSigningKeyRepository jwtSigningKeyRepository;
+
+    private JHipsterProperties jHipsterProperties;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanup() {
+        jwtSigningKeyRepository.deleteAll();
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8");
+    }
+
+    @Test
+    void assertThatTokensAreSignedAndVerifiedByKeyId() {
+        for (String algorithm : List.of("RS256", "ES256")) {
+            JwtKeyRing keyRing = keyRing(algorithm, Duration.ofDays(30));
+            TokenProvider tokenProvider = tokenProvider(keyRing);
+
+            String token = tokenProvider.createToken(authentication(), false);
+
+            String kid = keyRing.getSigningKey().getKid();
+            Header<?> header = Jwts.parserBuilder().build().parse(token.substring(0, token.lastIndexOf('.') + 1)).getHeader();
+            assertThat(header.get("kid")).isEqualTo(kid);
+            assertThat(header.get("alg")).isEqualTo(algorithm);
+            assertThat(tokenProvider.validateToken(token)).isTrue();
+            assertThat(tokenProvider.getAuthentication(token).getName()).isEqualTo("test-user");
+
+            // Another instance loads the key from the database
+            assertThat(tokenProvider(keyRing(algorithm, Duration.ofDays(30))).validateToken(token)).isTrue();
+            jwtSigningKeyRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void assertThatThePublicKeysArePublished() {
+        JwtKeyRing rsaKeyRing = keyRing("RS256", Duration.ofDays(30));
+        String rsaKid = rsaKeyRing.getSigningKey().getKid();
+        assertThat(rsaKeyRing.getPublicKeys())
+            .singleElement()
+            .satisfies(jwk -> {
+                assertThat(jwk).containsEntry("kty", "RSA").containsEntry("alg", "RS256").containsEntry("use", "sig");
+                assertThat(jwk).containsEntry("kid", rsaKid).containsEntry("e", "AQAB").containsKey("n");
+            });
+        jwtSigningKeyRepository.deleteAll();
+
+        JwtKeyRing ecKeyRing = keyRing("ES256", Duration.ofDays(30));
+        String ecKid = ecKeyRing.getSigningKey().getKid();
+        assertThat(ecKeyRing.getPublicKeys())
+            .singleElement()
+            .satisfies(jwk -> {
+                assertThat(jwk).containsEntry("kty", "EC").containsEntry("crv", "P-256").containsEntry("kid", ecKid);
+                assertThat((String) jwk.get("x")).hasSize(43);
+                assertThat((String) jwk.get("y")).hasSize(43);
+            });
+    }
+
+    @Test
+    void assertThatRotatedKeysKeepVerifyingUntilTheyExpire() {
+        // Shorter than the rotation check, so a new key is created right away
+        JwtKeyRing keyRing = keyRing("ES256", Duration.ofMinutes(30));
+        TokenProvider tokenProvider = tokenProvider(keyRing);
+        String token = tokenProvider.createToken(authentication(), false);
+        String firstKid = keyRing.getSigningKey().getKid();
+
+        keyRing.rotate();
+
+        String secondKid = keyRing.getSigningKey().getKid();
+        assertThat(secondKid).isNotEqualTo(firstKid);
+        assertThat(keyRing.getPublicKeys()).extracting(jwk -> jwk.get("kid")).containsExactlyInAnyOrder(firstKid, secondKid);
+        assertThat(tokenProvider.validateToken(token)).isTrue();
+
+        // Once expired, the first key is removed
+        JwtSigningKey first = jwtSigningKeyRepository
+            .findAll()
+            .stream()
+            .filter(key -> key.getKid().equals(firstKid))
+            .findFirst()
+            .orElseThrow();
+        first.setExpiresAt(Instant.now().minusSeconds(1));
+        jwtSigningKeyRepository.save(first);
+        keyRing.rotate();
+
+        assertThat(keyRing.getPublicKeys()).extracting(jwk -> jwk.get("kid")).doesNotContain(firstKid);
+        assertThat(tokenProvider.validateToken(token)).isFalse();
+    }
+
+    @Test
+    void assertThatTokensOfUnknownKeysAreRejected() {
+        JwtKeyRing keyRing = keyRing("ES256", Duration.ofDays(30));
+        TokenProvider tokenProvider = tokenProvider(keyRing);
+        keyRing.getSigningKey();
+        KeyPair otherKeyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+
+        String unknownKidToken = Jwts
+            .builder()
+            .setHeaderParam("kid", "unknown")
+            .setSubject("test-user")
+            .claim("auth", AuthoritiesConstants.ADMIN)
+            .setExpiration(new Date(System.currentTimeMillis() + 60000))
+            .signWith(otherKeyPair.getPrivate(), SignatureAlgorithm.ES256)
+            .compact();
+        String knownKidToken = Jwts
+            .builder()
+            .setHeaderParam("kid", keyRing.getSigningKey().getKid())
+            .setSubject("test-user")
+            .claim("auth", AuthoritiesConstants.ADMIN)
+            .setExpiration(new Date(System.currentTimeMillis() + 60000))
+            .signWith(otherKeyPair.getPrivate(), SignatureAlgorithm.ES256)
+            .compact();
+
+        assertThat(tokenProvider.validateToken(unknownKidToken)).isFalse();
+        assertThat(tokenProvider.validateToken(knownKidToken)).isFalse();
+    }
+
+    @Test
+    void assertThatThePublishDelayCoversTheReloads() {
+        ApplicationProperties applicationProperties = applicationProperties("ES256", Duration.ofDays(1));
+        applicationProperties.getJwt().setReloadInterval(Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> new JwtKeyRing(jwtSigningKeyRepository, jHipsterProperties, applicationProperties))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    private JwtKeyRing keyRing(String algorithm, Duration rotationInterval) {
+        return new JwtKeyRing(jwtSigningKeyRepository, jHipsterProperties, applicationProperties(algorithm, rotationInterval));
+    }
+
+    private static ApplicationProperties applicationProperties(String algorithm, Duration rotationInterval) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getJwt().setAlgorithm(algorithm);
+        applicationProperties.getJwt().setRotationInterval(rotationInterval);
+        applicationProperties.getJwt().setPublishDelay(Duration.ZERO);
+        applicationProperties.getJwt().setReloadInterval(Duration.ZERO);
+        return applicationProperties;
+    }
+
+    private TokenProvider tokenProvider(JwtKeyRing keyRing) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getTokenCache().setMaxEntries(0);
+        return new TokenProvider(jHipsterProperties, new SecurityMetersService(new SimpleMeterRegistry()), keyRing, applicationProperties);
+    }
+
+    private Authentication authentication() {
+        return new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+    }
+}
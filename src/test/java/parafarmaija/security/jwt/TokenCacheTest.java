@@ -0,0 +1,60 @@
+package parafarmaija.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+
+class TokenCacheTest {
+
+    private static final long ONE_MINUTE = 60000;
+
+    private final User principal = new User("test-user", "", Collections.emptyList());
+
+    @Test
+    void testCachedTokenIsReturnedUntilItExpires() {
+        TokenCache tokenCache = new TokenCache(10);
+
+        tokenCache.put("valid", principal, new Date(System.currentTimeMillis() + ONE_MINUTE));
+        tokenCache.put("expired", principal, new Date(System.currentTimeMillis() - 1));
+
+        assertThat(tokenCache.get("valid")).isSameAs(principal);
+        assertThat(tokenCache.get("expired")).isNull();
+        assertThat(tokenCache.get("unknown")).isNull();
+        assertThat(tokenCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testTokenWithoutExpirationIsNotCached() {
+        TokenCache tokenCache = new TokenCache(10);
+
+        tokenCache.put("token", principal, null);
+
+        assertThat(tokenCache.get("token")).isNull();
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        TokenCache tokenCache = new TokenCache(10);
+        tokenCache.put("expired", principal, new Date(System.currentTimeMillis() - 1));
+
+        for (int i = 0; i < 100; i++) {
+            tokenCache.put("token" + i, principal, new Date(System.currentTimeMillis() + ONE_MINUTE));
+        }
+
+        assertThat(tokenCache.size()).isEqualTo(10);
+        assertThat(tokenCache.get("token99")).isSameAs(principal);
+    }
+
+    @Test
+    void testCacheCanBeDisabled() {
+        TokenCache tokenCache = new TokenCache(0);
+
+        tokenCache.put("token", principal, new Date(System.currentTimeMillis() + ONE_MINUTE));
+
+        assertThat(tokenCache.get("token")).isNull();
+        assertThat(tokenCache.size()).isZero();
+    }
+}
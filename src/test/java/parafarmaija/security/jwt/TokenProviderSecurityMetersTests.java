@@ -28,6 +28,7 @@ class TokenProviderSecurityMetersTests {
 
     private static final long ONE_MINUTE = 60000;
     private static final String INVALID_TOKENS_METER_EXPECTED_NAME = "security.authentication.invalid-tokens";
+    private static final String TOKEN_CACHE_METER_EXPECTED_NAME = "security.authentication.token-cache";
 
     private MeterRegistry meterRegistry;
 
@@ -63,6 +64,28 @@ class TokenProviderSecurityMetersTests {
         assertThat(aggregate(counters)).isZero();
     }
 
+    @Test
+    void testValidTokenIsOnlyParsedOnce() {
+        String validToken = createValidToken();
+
+        assertThat(tokenProvider.validateToken(validToken)).isTrue();
+        assertThat(tokenProvider.validateToken(validToken)).isTrue();
+
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testInvalidTokenIsNotCached() {
+        String malformedToken = createMalformedToken();
+
+        tokenProvider.validateToken(malformedToken);
+        tokenProvider.validateToken(malformedToken);
+
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "hit").counter().count()).isZero();
+        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(2);
+    }
+
     @Test
     void testTokenExpiredCount() {
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "expired").counter().count()).isZero();
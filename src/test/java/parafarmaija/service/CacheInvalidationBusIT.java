@@ -0,0 +1,165 @@
+package parafarmaija.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import parafarmaija.IntegrationTest;
+import parafarmaija.domain.Tabela;
+import parafarmaija.repository.TabelaRepository;
+import parafarmaija.repository.UserRepository;
+
+/**
+ * Integration tests for {@link CacheInvalidationBus}.
+ */
+@IntegrationTest
+class CacheInvalidationBusIT {
+
+    private static final String LOGIN = "cache-invalidation-login";
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private QueryResultCache queryResultCache;
+
+    @Autowired
+    private TabelaRepository tabelaRepository;
+
+    @Autowired
+    private RegionTurnoverRollup regionTurnoverRollup;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Cache usersByLoginCache;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanup() {
+        tabelaRepository.deleteAll();
+        queryResultCache.invalidate(QueryResultCache.TABELA_PAGES_CACHE);
+        usersByLoginCache = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        usersByLoginCache.evict(LOGIN);
+        regionTurnoverRollup.rebuild();
+    }
+
+    @Test
+    void assertThatTheInvalidationsOfOtherInstancesAreApplied() {
+        Tabela tabela = tabelaRepository.saveAndFlush(new Tabela().regionName("cache-invalidation-region").promet(10));
+        usersByLoginCache.put(LOGIN, "cached");
+        AtomicInteger queries = new AtomicInteger();
+        cachedTabelas(queries);
+
+        cacheInvalidationBus.receive(
+            "{\"node\":\"other\",\"invalidations\":[[\"usersByLogin\",\"" +
+            LOGIN +
+            "\"],[\"parafarmaija.domain.Tabela\",\"" +
+            tabela.getId() +
+            "\"],[\"query.tabelaPages\"]]}"
+        );
+
+        assertThat(usersByLoginCache.get(LOGIN)).isNull();
+        // The second level cache is disabled in tests, only the eviction of the query result is visible.
+        cachedTabelas(queries);
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void assertThatTheTabelaChangesOfOtherInstancesReachTheRollup() {
+        Tabela tabela = tabelaRepository.saveAndFlush(new Tabela().regionName("cache-invalidation-region").promet(10));
+        Tabela other = tabelaRepository.saveAndFlush(new Tabela().regionName("cache-invalidation-region").promet(20));
+        // As if both were written by another instance
+        regionTurnoverRollup.onDeleted(tabela.getId());
+        regionTurnoverRollup.onDeleted(other.getId());
+
+        cacheInvalidationBus.receive(
+            "{\"node\":\"other\",\"invalidations\":[[\"parafarmaija.domain.Tabela\",\"" + tabela.getId() + "\"]]}"
+        );
+
+        assertThat(regionTurnoverRollup.getAggregates())
+            .singleElement()
+            .satisfies(aggregate -> assertThat(aggregate.getSum()).isEqualTo(10));
+
+        // Too many tabelas changed for their ids to be sent
+        cacheInvalidationBus.receive("{\"node\":\"other\",\"invalidations\":[[\"parafarmaija.domain.Tabela\"]]}");
+
+        assertThat(regionTurnoverRollup.getAggregates())
+            .singleElement()
+            .satisfies(aggregate -> assertThat(aggregate.getSum()).isEqualTo(30));
+    }
+
+    @Test
+    void assertThatItsOwnInvalidationsAreIgnored() {
+        usersByLoginCache.put(LOGIN, "cached");
+
+        cacheInvalidationBus
+            .toPayloads(List.of(new CacheInvalidationBus.Invalidation(UserRepository.USERS_BY_LOGIN_CACHE, LOGIN)))
+            .forEach(cacheInvalidationBus::receive);
+
+        assertThat(usersByLoginCache.get(LOGIN)).isNotNull();
+    }
+
+    @Test
+    void assertThatInvalidationsAreBatchedUnderThePayloadLimit() throws Exception {
+        String padding = "x".repeat(100);
+        List<CacheInvalidationBus.Invalidation> invalidations = IntStream
+            .range(0, 400)
+            .mapToObj(i -> new CacheInvalidationBus.Invalidation(UserRepository.USERS_BY_LOGIN_CACHE, padding + i))
+            .collect(Collectors.toList());
+        invalidations.add(new CacheInvalidationBus.Invalidation(UserRepository.USERS_BY_LOGIN_CACHE, padding + 0));
+
+        List<String> payloads = cacheInvalidationBus.toPayloads(invalidations);
+
+        assertThat(payloads).hasSizeGreaterThan(1);
+        List<String> keys = new ArrayList<>();
+        for (String payload : payloads) {
+            assertThat(payload.getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(CacheInvalidationBus.MAX_PAYLOAD_BYTES);
+            JsonNode message = objectMapper.readTree(payload);
+            assertThat(message.get("node").asText()).isEqualTo(cacheInvalidationBus.getNodeId());
+            message.get("invalidations").forEach(entry -> keys.add(entry.get(1).asText()));
+        }
+        assertThat(keys).hasSize(400).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void assertThatCachesWithTooManyKeysAreClearedInstead() throws Exception {
+        List<CacheInvalidationBus.Invalidation> invalidations = IntStream
+            .range(0, 1000)
+            .mapToObj(i -> new CacheInvalidationBus.Invalidation(UserRepository.USERS_BY_LOGIN_CACHE, "login" + i))
+            .collect(Collectors.toList());
+        invalidations.add(new CacheInvalidationBus.Invalidation(UserRepository.USERS_BY_EMAIL_CACHE, "user@localhost"));
+
+        List<String> payloads = cacheInvalidationBus.toPayloads(invalidations);
+
+        assertThat(payloads).hasSize(1);
+        assertThat(objectMapper.readTree(payloads.get(0)).get("invalidations").toString())
+            .isEqualTo("[[\"usersByLogin\"],[\"usersByEmail\",\"user@localhost\"]]");
+    }
+
+    private List<Tabela> cachedTabelas(AtomicInteger queries) {
+        return queryResultCache.get(
+            QueryResultCache.TABELA_PAGES_CACHE,
+            "cache-invalidation",
+            () -> {
+                queries.incrementAndGet();
+                return tabelaRepository.findAll();
+            }
+        );
+    }
+}
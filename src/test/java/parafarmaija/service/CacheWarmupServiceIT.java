@@ -0,0 +1,47 @@
+package parafarmaija.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import parafarmaija.IntegrationTest;
+import parafarmaija.repository.UserRepository;
+
+/**
+ * Integration tests for {@link CacheWarmupService}.
+ */
+@IntegrationTest
+class CacheWarmupServiceIT {
+
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache usersByLoginCache;
+
+    @BeforeEach
+    public void setup() {
+        usersByLoginCache = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        usersByLoginCache.clear();
+    }
+
+    @Test
+    void assertThatActivatedUsersAreLoadedInTheCache() {
+        long timed = meterRegistry.get(CacheWarmupService.WARMUP_METER_NAME).tag("task", "users").timer().count();
+
+        assertThat(cacheWarmupService.warmUp()).isTrue();
+
+        assertThat(usersByLoginCache.get("admin")).isNotNull();
+        assertThat(usersByLoginCache.get("user")).isNotNull();
+        assertThat(meterRegistry.get(CacheWarmupService.WARMUP_METER_NAME).tag("task", "users").timer().count()).isEqualTo(timed + 1);
+    }
+}
@@ -0,0 +1,160 @@
+package parafarmaija.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+import parafarmaija.IntegrationTest;
+import parafarmaija.config.ApplicationProperties;
+import parafarmaija.domain.EntityChange;
+import parafarmaija.domain.Tabela;
+import parafarmaija.repository.EntityChangeRepository;
+import parafarmaija.repository.TabelaRepository;
+import parafarmaija.service.dto.EntityChangesDTO;
+
+/**
+ * Integration tests for {@link DeltaSyncService}.
+ */
+@IntegrationTest
+class DeltaSyncServiceIT {
+
+    private static final String REGION = "delta-sync-region";
+
+    @Autowired
+    private DeltaSyncService deltaSyncService;
+
+    @Autowired
+    private TabelaImportService tabelaImportService;
+
+    @Autowired
+    private TabelaRepository tabelaRepository;
+
+    @Autowired
+    private EntityChangeRepository entityChangeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanup() {
+        tabelaRepository.deleteAll();
+    }
+
+    @Test
+    void assertThatRolledBackWritesAreNotRecorded() {
+        long token = deltaSyncService.getTabelaChanges(null).getToken();
+
+        transactionTemplate.execute(status -> {
+            tabelaRepository.saveAndFlush(new Tabela().regionName(REGION).promet(10));
+            status.setRollbackOnly();
+            return null;
+        });
+
+        EntityChangesDTO<Tabela> changes = deltaSyncService.getTabelaChanges(token);
+        assertThat(changes.isFull()).isFalse();
+        assertThat(changes.getToken()).isEqualTo(token);
+        assertThat(changes.getUpserted()).isEmpty();
+    }
+
+    @Test
+    void assertThatChangesCommittedOutOfOrderAreNotSkipped() throws Exception {
+        Duration commitLag = applicationProperties.getDeltaSync().getCommitLag();
+        applicationProperties.getDeltaSync().setCommitLag(Duration.ofMinutes(1));
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try {
+            long token = deltaSyncService.getTabelaChanges(null).getToken();
+
+            // The first transaction writes its change to the log, then waits before committing
+            CompletableFuture<Tabela> first = CompletableFuture.supplyAsync(() ->
+                transactionTemplate.execute(status -> {
+                    Tabela tabela = tabelaRepository.saveAndFlush(new Tabela().regionName(REGION).promet(1));
+                    em
+                        .unwrap(SessionImplementor.class)
+                        .getActionQueue()
+                        .registerProcess(
+                            (BeforeTransactionCompletionProcess) session -> {
+                                written.countDown();
+                                try {
+                                    commit.await(10, TimeUnit.SECONDS);
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                            }
+                        );
+                    return tabela;
+                })
+            );
+            assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // The second transaction gets a greater change id, but commits first
+            Tabela second = transactionTemplate.execute(status -> tabelaRepository.saveAndFlush(new Tabela().regionName(REGION).promet(2)));
+            EntityChangesDTO<Tabela> changes = deltaSyncService.getTabelaChanges(token);
+            assertThat(changes.getUpserted()).extracting(Tabela::getId).containsExactly(second.getId());
+
+            commit.countDown();
+            Tabela firstTabela = first.get(10, TimeUnit.SECONDS);
+
+            changes = deltaSyncService.getTabelaChanges(changes.getToken());
+            assertThat(changes.isFull()).isFalse();
+            assertThat(changes.getUpserted()).extracting(Tabela::getId).contains(firstTabela.getId());
+        } finally {
+            commit.countDown();
+            applicationProperties.getDeltaSync().setCommitLag(commitLag);
+        }
+    }
+
+    @Test
+    void assertThatEveryImportedRowIsRecordedOnce() throws Exception {
+        long token = deltaSyncService.getTabelaChanges(null).getToken();
+        String csv = "region;promet\n" + REGION + ";1\n" + REGION + ";2\n" + REGION + ";3\n";
+
+        tabelaImportService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        EntityChangesDTO<Tabela> changes = deltaSyncService.getTabelaChanges(token);
+        assertThat(changes.isFull()).isFalse();
+        assertThat(changes.getUpserted()).extracting(Tabela::getPromet).containsExactlyInAnyOrder(1, 2, 3);
+        assertThat(entityChangeRepository.findAll()).filteredOn(change -> change.getId() > token).hasSize(3);
+    }
+
+    @Test
+    void assertThatOldChangesAreRemovedButTheLastOne() {
+        tabelaRepository.saveAll(List.of(new Tabela().regionName(REGION), new Tabela().regionName(REGION)));
+        long lastId = entityChangeRepository.findLastId().orElseThrow();
+        entityChangeRepository
+            .findAll()
+            .forEach(change -> {
+                change.setChangedAt(Instant.now().minus(30, ChronoUnit.DAYS));
+                entityChangeRepository.save(change);
+            });
+
+        deltaSyncService.removeOldChanges();
+
+        assertThat(entityChangeRepository.findAll()).extracting(EntityChange::getId).containsExactly(lastId);
+        assertThat(deltaSyncService.getTabelaChanges(lastId - 2).isFull()).isTrue();
+        assertThat(deltaSyncService.getTabelaChanges(lastId - 1).getUpserted()).hasSize(1);
+        assertThat(deltaSyncService.getTabelaChanges(lastId).getUpserted()).isEmpty();
+    }
+}
@@ -0,0 +1,198 @@
+package parafarmaija.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.transaction.PlatformTransactionManager;
+import parafarmaija.IntegrationTest;
+import parafarmaija.config.ApplicationProperties;
+import parafarmaija.domain.MailOutboxMessage;
+import parafarmaija.repository.MailOutboxMessageRepository;
+
+/**
+ * Integration tests for {@link MailOutbox}.
+ */
+@IntegrationTest
+class MailOutboxIT {
+
+    private static final int MAX_ATTEMPTS = 2;
+
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(30);
+
+    @Autowired
+    private MailOutboxMessageRepository mailOutboxMessageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RecordingMailSender mailSender;
+
+    private MeterRegistry meterRegistry;
+
+    private MailOutbox mailOutbox;
+
+    @BeforeEach
+    public void setup() {
+        mailOutboxMessageRepository.deleteAll();
+        mailSender = new RecordingMailSender();
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getMailOutbox().setThreads(0);
+        applicationProperties.getMailOutbox().setQueueCapacity(10);
+        applicationProperties.getMailOutbox().setMaxAttempts(MAX_ATTEMPTS);
+        applicationProperties.getMailOutbox().setInitialBackoff(INITIAL_BACKOFF);
+        applicationProperties.getMailOutbox().setMaxBackoff(Duration.ofMinutes(1));
+        mailOutbox =
+            new MailOutbox(
+                mailOutboxMessageRepository,
+                mailSender,
+                Runnable::run,
+                transactionManager,
+                meterRegistry,
+                applicationProperties
+            );
+    }
+
+    @AfterEach
+    public void cleanup() {
+        mailOutboxMessageRepository.deleteAll();
+    }
+
+    @Test
+    void assertThatEmailsAreSentInOneBatch() throws Exception {
+        List<Long> ids = addAll("one@localhost", "two@localhost", "three@localhost");
+
+        mailOutbox.send(ids);
+
+        assertThat(mailSender.batches).hasSize(1);
+        assertThat(mailSender.batches.get(0)).extracting(MimeMessage::getSubject).containsExactly("one", "two", "three");
+        assertThat(mailOutboxMessageRepository.count()).isZero();
+        assertThat(meterRegistry.get(MailOutbox.LATENCY_METER_NAME).timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(MailOutbox.DELIVERIES_METER_NAME).tag("result", "sent").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void assertThatClaimedEmailsAreNotSentTwice() throws Exception {
+        List<Long> ids = addAll("one@localhost");
+
+        mailOutbox.send(ids);
+        mailOutbox.send(ids);
+
+        assertThat(mailSender.batches).hasSize(1);
+    }
+
+    @Test
+    void assertThatFailedEmailsAreRetriedUntilTheyRunOutOfAttempts() throws Exception {
+        List<Long> ids = addAll("one@localhost", "two@localhost");
+        mailSender.failingRecipients.add("two@localhost");
+
+        mailOutbox.send(ids);
+
+        MailOutboxMessage retried = mailOutboxMessageRepository.findById(ids.get(1)).orElseThrow();
+        assertThat(mailOutboxMessageRepository.findById(ids.get(0))).isEmpty();
+        assertThat(retried.getAttempts()).isEqualTo(1);
+        assertThat(retried.isFailed()).isFalse();
+        assertThat(retried.getLastError()).isEqualTo("refused");
+        assertThat(retried.getNextAttemptAt()).isAfter(Instant.now().plus(INITIAL_BACKOFF).minusSeconds(5));
+        assertThat(meterRegistry.get(MailOutbox.DELIVERIES_METER_NAME).tag("result", "retried").counter().count()).isEqualTo(1);
+
+        retried.setNextAttemptAt(Instant.now());
+        mailOutboxMessageRepository.saveAndFlush(retried);
+        mailOutbox.send(List.of(retried.getId()));
+
+        MailOutboxMessage failed = mailOutboxMessageRepository.findById(ids.get(1)).orElseThrow();
+        assertThat(failed.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(failed.isFailed()).isTrue();
+        assertThat(meterRegistry.get(MailOutbox.DELIVERIES_METER_NAME).tag("result", "failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void assertThatBackoffIsExponentialAndBounded() {
+        assertThat(mailOutbox.backoff(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(mailOutbox.backoff(2)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(mailOutbox.backoff(3)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(mailOutbox.backoff(100)).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void assertThatDueEmailsArePolledFromTheDatabase() {
+        Instant now = Instant.now();
+        mailOutboxMessageRepository.saveAndFlush(stored(now.minus(Duration.ofMinutes(2)), now));
+        mailOutboxMessageRepository.saveAndFlush(stored(now, now.plus(INITIAL_BACKOFF)));
+
+        mailOutbox.poll();
+
+        assertThat(meterRegistry.get(MailOutbox.QUEUE_METER_NAME).tag("store", "memory").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get(MailOutbox.QUEUE_METER_NAME).tag("store", "database").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get(MailOutbox.OLDEST_METER_NAME).timeGauge().value()).isGreaterThanOrEqualTo(120);
+    }
+
+    private static MailOutboxMessage stored(Instant createdDate, Instant nextAttemptAt) {
+        MailOutboxMessage message = new MailOutboxMessage();
+        message.setRecipient("stored@localhost");
+        message.setRawMessage("Subject: stored\r\n\r\ncontent");
+        message.setCreatedDate(createdDate);
+        message.setNextAttemptAt(nextAttemptAt);
+        return message;
+    }
+
+    private List<Long> addAll(String... recipients) throws MessagingException {
+        for (String recipient : recipients) {
+            MimeMessage mimeMessage = mailSender.createMimeMessage();
+            MimeMessageHelper message = new MimeMessageHelper(mimeMessage, false, "UTF-8");
+            message.setTo(recipient);
+            message.setFrom("test@localhost");
+            message.setSubject(recipient.substring(0, recipient.indexOf('@')));
+            message.setText("content", false);
+            mailOutbox.add(mimeMessage);
+        }
+        return mailOutboxMessageRepository
+            .findAll()
+            .stream()
+            .map(MailOutboxMessage::getId)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    private static class RecordingMailSender extends JavaMailSenderImpl {
+
+        private final List<List<MimeMessage>> batches = new ArrayList<>();
+
+        private final List<String> failingRecipients = new ArrayList<>();
+
+        @Override
+        public void send(MimeMessage... mimeMessages) {
+            batches.add(List.of(mimeMessages));
+            Map<Object, Exception> failedMessages = new HashMap<>();
+            for (MimeMessage mimeMessage : mimeMessages) {
+                try {
+                    if (failingRecipients.contains(mimeMessage.getAllRecipients()[0].toString())) {
+                        failedMessages.put(mimeMessage, new MessagingException("refused"));
+                    }
+                } catch (MessagingException e) {
+                    failedMessages.put(mimeMessage, e);
+                }
+            }
+            if (!failedMessages.isEmpty()) {
+                throw new MailSendException(failedMessages);
+            }
+        }
+    }
+}
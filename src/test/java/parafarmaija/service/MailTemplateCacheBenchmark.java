@@ -0,0 +1,100 @@
+package parafarmaija.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import parafarmaija.domain.User;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * JMH benchmark of the rendering cost of an email, from its template and from the {@link MailTemplateCache}.
+ * <p>
+ * Run it with the {@link #main(String[])} method, from the test classpath once {@code ./mvnw test-compile} has
+ * generated the benchmark classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailTemplateCacheBenchmark {
+
+    private static final Locale LOCALE = Locale.ENGLISH;
+
+    private static final String TITLE_KEY = "email.activation.title";
+
+    @Param({ "mail/activationEmail", "mail/creationEmail", "mail/passwordResetEmail" })
+    private String templateName;
+
+    private SpringTemplateEngine templateEngine;
+
+    private ResourceBundleMessageSource messageSource;
+
+    private MailTemplateCache mailTemplateCache;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private User user;
+
+    @Setup
+    public void setup() {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding(StandardCharsets.UTF_8.name());
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setBaseUrl("http://127.0.0.1:8080");
+        mailTemplateCache = new MailTemplateCache(templateEngine, messageSource, jHipsterProperties, true);
+        mailTemplateCache.precompile();
+        user = new User();
+        user.setLogin("john");
+        user.setEmail("john.doe@example.com");
+        user.setLangKey("en");
+        user.setActivationKey("12345678901234567890");
+        user.setResetKey("09876543210987654321");
+    }
+
+    @Benchmark
+    public String processTemplate() {
+        Context context = new Context(LOCALE);
+        context.setVariable("user", user);
+        context.setVariable("baseUrl", jHipsterProperties.getMail().getBaseUrl());
+        return templateEngine.process(templateName, context) + messageSource.getMessage(TITLE_KEY, null, LOCALE);
+    }
+
+    @Benchmark
+    public String renderCachedTemplate() {
+        return mailTemplateCache.render(templateName, LOCALE, user) + mailTemplateCache.getMessage(TITLE_KEY, LOCALE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MailTemplateCacheBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,91 @@
+package parafarmaija.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Locale;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import parafarmaija.IntegrationTest;
+import parafarmaija.domain.User;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Integration tests for {@link MailTemplateCache}.
+ */
+@IntegrationTest
+class MailTemplateCacheIT {
+
+    private static final Locale LOCALE = Locale.ENGLISH;
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private MessageSource messageSource;
+
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+
+    private MailTemplateCache mailTemplateCache;
+
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        mailTemplateCache = new MailTemplateCache(templateEngine, messageSource, jHipsterProperties, true);
+        mailTemplateCache.precompile();
+        user = new User();
+        user.setLogin("o'neil&co<b>");
+        user.setEmail("oneil@example.com");
+        user.setLangKey("en");
+        user.setActivationKey("activation123");
+        user.setResetKey("reset456");
+    }
+
+    @Test
+    void assertThatCachedTemplatesRenderLikeTheirTemplates() {
+        for (String templateName : MailTemplateCache.PRECOMPILED_TEMPLATES) {
+            assertThat(mailTemplateCache.render(templateName, LOCALE, user)).isEqualTo(process(templateName, user));
+        }
+        assertThat(mailTemplateCache.render("mail/testEmail", LOCALE, user)).isEqualTo(process("mail/testEmail", user));
+    }
+
+    @Test
+    void assertThatUserFieldsAreSubstitutedForEachUser() {
+        User other = new User();
+        other.setLogin("jane");
+        other.setLangKey("en");
+
+        String first = mailTemplateCache.render("mail/passwordResetEmail", LOCALE, user);
+        String second = mailTemplateCache.render("mail/passwordResetEmail", LOCALE, other);
+
+        assertThat(first).contains("o&#39;neil&amp;co&lt;b&gt;").contains("/account/reset/finish?key=reset456");
+        assertThat(second).isEqualTo(process("mail/passwordResetEmail", other)).contains("jane").doesNotContain("reset456");
+    }
+
+    @Test
+    void assertThatTemplatesAreRenderedEveryTimeWhenDisabled() {
+        mailTemplateCache = new MailTemplateCache(templateEngine, messageSource, jHipsterProperties, false);
+
+        assertThat(mailTemplateCache.render("mail/activationEmail", LOCALE, user)).isEqualTo(process("mail/activationEmail", user));
+        assertThat(mailTemplateCache.getMessage("email.activation.title", LOCALE))
+            .isEqualTo(messageSource.getMessage("email.activation.title", null, LOCALE));
+    }
+
+    @Test
+    void assertThatMessagesAreLocalized() {
+        assertThat(mailTemplateCache.getMessage("email.test.title", LOCALE)).isEqualTo("test title");
+        assertThat(mailTemplateCache.getMessage("email.test.title", LOCALE)).isEqualTo("test title");
+    }
+
+    private String process(String templateName, User user) {
+        Context context = new Context(LOCALE);
+        context.setVariable("user", user);
+        context.setVariable("baseUrl", jHipsterProperties.getMail().getBaseUrl());
+        return templateEngine.process(templateName, context);
+    }
+}
@@ -0,0 +1,147 @@
+package parafarmaija.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+import parafarmaija.IntegrationTest;
+import parafarmaija.domain.Grafikon;
+import parafarmaija.domain.Tabela;
+import parafarmaija.repository.GrafikonRepository;
+import parafarmaija.repository.TabelaRepository;
+
+/**
+ * Integration tests for {@link QueryResultCache}.
+ */
+@IntegrationTest
+class QueryResultCacheIT {
+
+    @Autowired
+    private QueryResultCache queryResultCache;
+
+    @Autowired
+    private TabelaRepository tabelaRepository;
+
+    @Autowired
+    private GrafikonRepository grafikonRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanup() {
+        tabelaRepository.deleteAll();
+        queryResultCache.invalidate(QueryResultCache.TABELA_PAGES_CACHE);
+        queryResultCache.invalidate(QueryResultCache.GRAFIKON_PAGES_CACHE);
+    }
+
+    @Test
+    void assertThatResultsAreCachedAndCounted() {
+        double hits = gets(QueryResultCache.TABELA_PAGES_CACHE, "hit");
+        double misses = gets(QueryResultCache.TABELA_PAGES_CACHE, "miss");
+        AtomicInteger queries = new AtomicInteger();
+
+        assertThat(cachedTabelas(queries)).isEmpty();
+        assertThat(cachedTabelas(queries)).isEmpty();
+
+        assertThat(queries).hasValue(1);
+        assertThat(gets(QueryResultCache.TABELA_PAGES_CACHE, "hit")).isEqualTo(hits + 1);
+        assertThat(gets(QueryResultCache.TABELA_PAGES_CACHE, "miss")).isEqualTo(misses + 1);
+    }
+
+    @Test
+    void assertThatCommittedWritesInvalidateTheirRegionOnly() {
+        AtomicInteger tabelaQueries = new AtomicInteger();
+        AtomicInteger grafikonQueries = new AtomicInteger();
+        cachedTabelas(tabelaQueries);
+        cachedGrafikons(grafikonQueries);
+
+        tabelaRepository.saveAndFlush(new Tabela().regionName("query-cache-region").promet(10));
+
+        assertThat(cachedTabelas(tabelaQueries)).extracting(Tabela::getPromet).containsExactly(10);
+        assertThat(tabelaQueries).hasValue(2);
+        cachedGrafikons(grafikonQueries);
+        assertThat(grafikonQueries).hasValue(1);
+    }
+
+    @Test
+    void assertThatUncommittedWritesBypassTheCache() {
+        AtomicInteger queries = new AtomicInteger();
+        cachedTabelas(queries);
+
+        transactionTemplate.execute(status -> {
+            tabelaRepository.saveAndFlush(new Tabela().regionName("query-cache-region").promet(10));
+            assertThat(cachedTabelas(queries)).hasSize(1);
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertThat(cachedTabelas(queries)).isEmpty();
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void assertThatResultsComputedBeforeAnInvalidationAreNotCached() {
+        AtomicInteger queries = new AtomicInteger();
+        queryResultCache.get(
+            QueryResultCache.TABELA_PAGES_CACHE,
+            "stale",
+            () -> {
+                queries.incrementAndGet();
+                queryResultCache.invalidate(QueryResultCache.TABELA_PAGES_CACHE);
+                return List.of();
+            }
+        );
+        queryResultCache.get(QueryResultCache.TABELA_PAGES_CACHE, "stale", () -> queries.incrementAndGet());
+
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void assertThatPageKeysAreNormalized() {
+        Pageable pageable = PageRequest.of(1, 20, Sort.by(Sort.Order.asc("promet"), Sort.Order.desc("id").ignoreCase()));
+
+        assertThat(QueryResultCache.pageKey(pageable)).isEqualTo("page=1&size=20&sort=promet,ASC;id,DESC,ignorecase");
+        assertThat(QueryResultCache.pageKey(Pageable.unpaged())).isEqualTo("unpaged");
+    }
+
+    private List<Tabela> cachedTabelas(AtomicInteger queries) {
+        Pageable pageable = PageRequest.of(0, 20);
+        return queryResultCache.get(
+            QueryResultCache.TABELA_PAGES_CACHE,
+            QueryResultCache.pageKey(pageable),
+            () -> {
+                queries.incrementAndGet();
+                return tabelaRepository.findAll(pageable).getContent();
+            }
+        );
+    }
+
+    private List<Grafikon> cachedGrafikons(AtomicInteger queries) {
+        return queryResultCache.get(
+            QueryResultCache.GRAFIKON_PAGES_CACHE,
+            "all",
+            () -> {
+                queries.incrementAndGet();
+                return grafikonRepository.findAll();
+            }
+        );
+    }
+
+    private double gets(String cacheName, String result) {
+        return meterRegistry.get(QueryResultCache.GETS_METER_NAME).tag("cache", cacheName).tag("result", result).counter().count();
+    }
+}
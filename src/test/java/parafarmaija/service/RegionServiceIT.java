@@ -0,0 +1,68 @@
+package parafarmaija.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+import parafarmaija.IntegrationTest;
+import parafarmaija.domain.Region;
+import parafarmaija.repository.RegionRepository;
+
+/**
+ * Integration tests for {@link RegionService}.
+ */
+@IntegrationTest
+class RegionServiceIT {
+
+    @Autowired
+    private RegionService regionService;
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String name;
+
+    @BeforeEach
+    public void initTest() {
+        name = "region-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        regionRepository.findOneByName(name).ifPresent(regionRepository::delete);
+    }
+
+    @Test
+    void assertThatRegionIsCreatedOnce() {
+        Region created = transactionTemplate.execute(status -> regionService.resolve(new Region().name(name)));
+        Region found = transactionTemplate.execute(status -> regionService.resolve(new Region().name(name)));
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(found.getId()).isEqualTo(created.getId());
+        assertThat(found.getName()).isEqualTo(name);
+    }
+
+    @Test
+    void assertThatRegionIsRolledBackWithItsTransaction() {
+        Long rolledBackId = transactionTemplate.execute(status -> {
+            Region region = regionService.resolve(new Region().name(name));
+            status.setRollbackOnly();
+            return region.getId();
+        });
+
+        assertThat(regionRepository.findOneByName(name)).isEmpty();
+
+        Region created = transactionTemplate.execute(status -> regionService.resolve(new Region().name(name)));
+
+        assertThat(created.getId()).isNotEqualTo(rolledBackId);
+        assertThat(regionRepository.findOneByName(name))
+            .hasValueSatisfying(region -> assertThat(region.getId()).isEqualTo(created.getId()));
+    }
+}
@@ -0,0 +1,109 @@
+package parafarmaija.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+import parafarmaija.IntegrationTest;
+import parafarmaija.domain.Tabela;
+import parafarmaija.repository.TabelaRepository;
+import parafarmaija.service.dto.RegionTurnoverDTO;
+
+/**
+ * Integration tests for {@link RegionTurnoverRollup}.
+ */
+@IntegrationTest
+class RegionTurnoverRollupIT {
+
+    private static final String REGION = "rollup-region";
+
+    private static final String OTHER_REGION = "rollup-other-region";
+
+    @Autowired
+    private TabelaRepository tabelaRepository;
+
+    @Autowired
+    private RegionTurnoverRollup regionTurnoverRollup;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanup() {
+        tabelaRepository.deleteAll();
+        regionTurnoverRollup.rebuild();
+    }
+
+    @Test
+    void assertThatCommittedWritesAreApplied() {
+        Tabela first = tabelaRepository.saveAndFlush(new Tabela().regionName(REGION).promet(10));
+        tabelaRepository.saveAndFlush(new Tabela().regionName(REGION).promet(30));
+
+        assertThat(findRegion(REGION))
+            .hasValueSatisfying(aggregate -> {
+                assertThat(aggregate.getCount()).isEqualTo(2);
+                assertThat(aggregate.getSum()).isEqualTo(40);
+                assertThat(aggregate.getMin()).isEqualTo(10);
+                assertThat(aggregate.getMax()).isEqualTo(30);
+                assertThat(aggregate.getAverage()).isEqualTo(20.0);
+            });
+
+        tabelaRepository.saveAndFlush(first.regionName(OTHER_REGION).promet(5));
+
+        assertThat(findRegion(REGION)).hasValueSatisfying(aggregate -> assertThat(aggregate.getMin()).isEqualTo(30));
+        assertThat(findRegion(OTHER_REGION)).hasValueSatisfying(aggregate -> assertThat(aggregate.getSum()).isEqualTo(5));
+
+        tabelaRepository.deleteById(first.getId());
+
+        assertThat(findRegion(OTHER_REGION)).isEmpty();
+        assertThat(regionTurnoverRollup.reconcile()).isFalse();
+    }
+
+    @Test
+    void assertThatRolledBackWritesAreIgnored() {
+        transactionTemplate.execute(status -> {
+            tabelaRepository.saveAndFlush(new Tabela().regionName(REGION).promet(10));
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertThat(findRegion(REGION)).isEmpty();
+    }
+
+    @Test
+    void assertThatConditionalUpdatesAreAppliedOnCommit() {
+        Tabela tabela = tabelaRepository.saveAndFlush(new Tabela().regionName(REGION).promet(10));
+
+        transactionTemplate.execute(status -> {
+            Tabela updated = new Tabela().id(tabela.getId()).regionName(OTHER_REGION).promet(20);
+            assertThat(tabelaRepository.updateIfExists(updated)).isEqualTo(1);
+            regionTurnoverRollup.onSavedAfterCommit(updated.getId(), updated.getRegionName(), updated.getPromet());
+            assertThat(findRegion(OTHER_REGION)).isEmpty();
+            return null;
+        });
+
+        assertThat(findRegion(REGION)).isEmpty();
+        assertThat(findRegion(OTHER_REGION)).hasValueSatisfying(aggregate -> assertThat(aggregate.getSum()).isEqualTo(20));
+        assertThat(tabelaRepository.updateIfExists(new Tabela().id(Long.MAX_VALUE).regionName(REGION))).isZero();
+        assertThat(regionTurnoverRollup.reconcile()).isFalse();
+    }
+
+    @Test
+    void assertThatDriftIsDetectedAndRepaired() {
+        tabelaRepository.saveAndFlush(new Tabela().regionName(REGION).promet(10));
+        regionTurnoverRollup.onSaved(Long.MAX_VALUE, REGION, 20);
+
+        assertThat(regionTurnoverRollup.reconcile()).isTrue();
+        assertThat(regionTurnoverRollup.getAggregates()).isEqualTo(regionTurnoverRollup.loadFromDatabase());
+        assertThat(regionTurnoverRollup.reconcile()).isFalse();
+    }
+
+    private Optional<RegionTurnoverDTO> findRegion(String region) {
+        return regionTurnoverRollup.getAggregates().stream().filter(aggregate -> region.equals(aggregate.getRegion())).findFirst();
+    }
+}
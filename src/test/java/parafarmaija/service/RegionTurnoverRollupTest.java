@@ -0,0 +1,88 @@
+package parafarmaija.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import parafarmaija.repository.RegionRepository;
+import parafarmaija.repository.TabelaRepository;
+import parafarmaija.service.dto.RegionTurnoverDTO;
+
+class RegionTurnoverRollupTest {
+
+    private static final String REGION = "rollup-region";
+
+    private static final String OTHER_REGION = "rollup-other-region";
+
+    private TabelaRepository tabelaRepository;
+
+    private RegionTurnoverRollup regionTurnoverRollup;
+
+    @BeforeEach
+    public void setup() {
+        tabelaRepository = mock(TabelaRepository.class);
+        regionTurnoverRollup =
+            new RegionTurnoverRollup(
+                tabelaRepository,
+                mock(RegionRepository.class),
+                mock(EntityManagerFactory.class),
+                new SimpleMeterRegistry()
+            );
+    }
+
+    @Test
+    void testWritesCommittedDuringRebuildAreKept() {
+        when(tabelaRepository.findAllTurnover())
+            .thenAnswer(invocation -> {
+                // Committed while the tabelas are read, after the first two were read
+                regionTurnoverRollup.onSaved(2L, OTHER_REGION, 25);
+                regionTurnoverRollup.onDeleted(1L);
+                regionTurnoverRollup.onSaved(3L, REGION, 30);
+                return List.of(turnover(1L, REGION, 10), turnover(2L, REGION, 20));
+            });
+
+        regionTurnoverRollup.rebuild();
+
+        assertThat(regionTurnoverRollup.getAggregates())
+            .containsExactly(
+                new RegionTurnoverDTO(OTHER_REGION, 1, 25, 25, 25, 25.0),
+                new RegionTurnoverDTO(REGION, 1, 30, 30, 30, 30.0)
+            );
+    }
+
+    @Test
+    void testWritesAfterRebuildAreNotReplayed() {
+        when(tabelaRepository.findAllTurnover()).thenReturn(List.of(turnover(1L, REGION, 10)));
+        regionTurnoverRollup.rebuild();
+        regionTurnoverRollup.onDeleted(1L);
+
+        when(tabelaRepository.findAllTurnover()).thenReturn(List.of(turnover(2L, REGION, 20)));
+        regionTurnoverRollup.rebuild();
+
+        assertThat(regionTurnoverRollup.getAggregates()).containsExactly(new RegionTurnoverDTO(REGION, 1, 20, 20, 20, 20.0));
+    }
+
+    private static TabelaRepository.TabelaTurnover turnover(Long id, String region, Integer promet) {
+        return new TabelaRepository.TabelaTurnover() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getRegion() {
+                return region;
+            }
+
+            @Override
+            public Integer getPromet() {
+                return promet;
+            }
+        };
+    }
+}
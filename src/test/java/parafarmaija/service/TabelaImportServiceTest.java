@@ -0,0 +1,32 @@
+package parafarmaija.service;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import parafarmaija.config.ApplicationProperties;
+
+class TabelaImportServiceTest {
+
+    @Test
+    void testBatchSizeMustBePositive() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getTabelaImport().setBatchSize(0);
+
+        assertThatThrownBy(() -> tabelaImportService(applicationProperties)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testChunkSizeMustBePositive() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getTabelaImport().setChunkSize(0);
+
+        assertThatThrownBy(() -> tabelaImportService(applicationProperties)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static TabelaImportService tabelaImportService(ApplicationProperties applicationProperties) {
+        return new TabelaImportService(mock(EntityManager.class), mock(PlatformTransactionManager.class), applicationProperties);
+    }
+}
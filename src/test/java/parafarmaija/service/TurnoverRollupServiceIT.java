@@ -0,0 +1,118 @@
+package parafarmaija.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+import parafarmaija.IntegrationTest;
+import parafarmaija.domain.TurnoverEntry;
+import parafarmaija.repository.TurnoverEntryRepository;
+import parafarmaija.service.dto.DailyTurnoverDTO;
+import parafarmaija.service.dto.MonthlyTurnoverDTO;
+
+/**
+ * Integration tests for {@link TurnoverRollupService}.
+ */
+@IntegrationTest
+class TurnoverRollupServiceIT {
+
+    private static final String REGION = "turnover-rollup-region";
+
+    private static final String OTHER_REGION = "turnover-rollup-other-region";
+
+    @Autowired
+    private TurnoverEntryRepository turnoverEntryRepository;
+
+    @Autowired
+    private TurnoverRollupService turnoverRollupService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    @AfterEach
+    public void cleanup() {
+        turnoverEntryRepository.deleteAll();
+        turnoverRollupService.refreshRollups();
+    }
+
+    @Test
+    void assertThatRollupsAreRefreshedWithTheChanges() {
+        TurnoverEntry entry = save(REGION, LocalDate.of(2026, 1, 15), 10L);
+        save(REGION, LocalDate.of(2026, 1, 15), 20L);
+        save(OTHER_REGION, LocalDate.of(2026, 1, 16), 5L);
+
+        assertThat(turnoverRollupService.getDailyTurnover(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31))).isEmpty();
+
+        turnoverRollupService.refreshRollups();
+
+        assertThat(turnoverRollupService.getDailyTurnover(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31)))
+            .extracting(DailyTurnoverDTO::getRegion, DailyTurnoverDTO::getDate, DailyTurnoverDTO::getCount, DailyTurnoverDTO::getSum)
+            .containsExactly(tuple(REGION, LocalDate.of(2026, 1, 15), 2L, 30L), tuple(OTHER_REGION, LocalDate.of(2026, 1, 16), 1L, 5L));
+        assertThat(turnoverRollupService.getMonthlyTurnover(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31)))
+            .extracting(MonthlyTurnoverDTO::getRegion, MonthlyTurnoverDTO::getMonth, MonthlyTurnoverDTO::getCount, MonthlyTurnoverDTO::getSum)
+            .containsExactly(tuple(OTHER_REGION, YearMonth.of(2026, 1), 1L, 5L), tuple(REGION, YearMonth.of(2026, 1), 2L, 30L));
+
+        // Moving an entry to another month refreshes both months
+        turnoverEntryRepository.saveAndFlush(entry.entryDate(LocalDate.of(2026, 2, 1)));
+        turnoverRollupService.refreshRollups();
+
+        assertThat(turnoverRollupService.getMonthlyTurnover(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 2, 28)))
+            .extracting(MonthlyTurnoverDTO::getRegion, MonthlyTurnoverDTO::getMonth, MonthlyTurnoverDTO::getCount, MonthlyTurnoverDTO::getSum)
+            .containsExactly(
+                tuple(OTHER_REGION, YearMonth.of(2026, 1), 1L, 5L),
+                tuple(REGION, YearMonth.of(2026, 1), 1L, 20L),
+                tuple(REGION, YearMonth.of(2026, 2), 1L, 10L)
+            );
+
+        turnoverEntryRepository.deleteById(entry.getId());
+        turnoverRollupService.refreshRollups();
+
+        assertThat(turnoverRollupService.getMonthlyTurnover(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 2, 28))).isEmpty();
+    }
+
+    @Test
+    void assertThatPartialMonthsAreReadFromTheDailyRollup() {
+        save(REGION, LocalDate.of(2026, 1, 5), 1L);
+        save(REGION, LocalDate.of(2026, 1, 20), 2L);
+        save(REGION, LocalDate.of(2026, 2, 10), 4L);
+        save(REGION, LocalDate.of(2026, 3, 31), 8L);
+        save(REGION, LocalDate.of(2026, 4, 1), 16L);
+        turnoverRollupService.refreshRollups();
+
+        assertThat(turnoverRollupService.getMonthlyTurnover(LocalDate.of(2026, 1, 10), LocalDate.of(2026, 3, 31)))
+            .extracting(MonthlyTurnoverDTO::getMonth, MonthlyTurnoverDTO::getSum)
+            .containsExactly(tuple(YearMonth.of(2026, 1), 2L), tuple(YearMonth.of(2026, 2), 4L), tuple(YearMonth.of(2026, 3), 8L));
+        assertThat(turnoverRollupService.getMonthlyTurnover(LocalDate.of(2026, 1, 10), LocalDate.of(2026, 1, 31)))
+            .extracting(MonthlyTurnoverDTO::getMonth, MonthlyTurnoverDTO::getSum)
+            .containsExactly(tuple(YearMonth.of(2026, 1), 2L));
+        assertThat(turnoverRollupService.getMonthlyTurnover(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 4, 1)))
+            .extracting(MonthlyTurnoverDTO::getMonth, MonthlyTurnoverDTO::getSum)
+            .containsExactly(tuple(YearMonth.of(2026, 2), 4L), tuple(YearMonth.of(2026, 3), 8L), tuple(YearMonth.of(2026, 4), 16L));
+    }
+
+    @Test
+    void assertThatRolledBackWritesAreIgnored() {
+        transactionTemplate.execute(status -> {
+            save(REGION, LocalDate.of(2026, 1, 15), 10L);
+            status.setRollbackOnly();
+            return null;
+        });
+        save(REGION, LocalDate.of(2026, 1, 16), 20L);
+        turnoverRollupService.refreshRollups();
+
+        assertThat(turnoverRollupService.getDailyTurnover(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31)))
+            .extracting(DailyTurnoverDTO::getDate, DailyTurnoverDTO::getSum)
+            .containsExactly(tuple(LocalDate.of(2026, 1, 16), 20L));
+    }
+
+    private TurnoverEntry save(String region, LocalDate entryDate, Long amount) {
+        return turnoverEntryRepository.saveAndFlush(new TurnoverEntry().regionName(region).entryDate(entryDate).amount(amount));
+    }
+}
@@ -0,0 +1,66 @@
+package parafarmaija.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import parafarmaija.config.ApplicationProperties;
+
+class TurnoverStreamServiceTest {
+
+    private static final int BUFFER_SIZE = 2;
+
+    private final List<Runnable> drains = new ArrayList<>();
+
+    private MeterRegistry meterRegistry;
+
+    private TurnoverStreamService turnoverStreamService;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getTurnoverStream().setBufferSize(BUFFER_SIZE);
+        applicationProperties.getTurnoverStream().setTimeout(Duration.ofMinutes(1));
+        turnoverStreamService =
+            new TurnoverStreamService(mock(RegionTurnoverRollup.class), drains::add, applicationProperties, meterRegistry);
+    }
+
+    @Test
+    void testSlowSubscriberIsDropped() {
+        turnoverStreamService.subscribe();
+
+        // The drains are never run, as if the subscriber did not read its events
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            turnoverStreamService.sendHeartbeat();
+        }
+        assertThat(turnoverStreamService.getSubscriberCount()).isEqualTo(1);
+        assertThat(drains).hasSize(1);
+
+        turnoverStreamService.sendHeartbeat();
+
+        assertThat(turnoverStreamService.getSubscriberCount()).isZero();
+        assertThat(meterRegistry.get(TurnoverStreamService.DROPPED_METER_NAME).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TurnoverStreamService.SUBSCRIBERS_METER_NAME).gauge().value()).isZero();
+    }
+
+    @Test
+    void testSubscriberKeepingUpIsKept() {
+        turnoverStreamService.subscribe();
+
+        for (int i = 0; i < 3 * BUFFER_SIZE; i++) {
+            turnoverStreamService.sendHeartbeat();
+            drains.forEach(Runnable::run);
+            drains.clear();
+        }
+
+        assertThat(turnoverStreamService.getSubscriberCount()).isEqualTo(1);
+        assertThat(meterRegistry.get(TurnoverStreamService.DROPPED_METER_NAME).counter().count()).isZero();
+    }
+}
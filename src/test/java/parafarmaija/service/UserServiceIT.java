@@ -7,21 +7,29 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import parafarmaija.IntegrationTest;
 import parafarmaija.config.Constants;
 import parafarmaija.domain.User;
 import parafarmaija.repository.UserRepository;
+import parafarmaija.security.UnknownUserCache;
 import parafarmaija.service.dto.AdminUserDTO;
 import tech.jhipster.security.RandomUtil;
 
@@ -53,6 +61,18 @@ class UserServiceIT {
     @Autowired
     private AuditingHandler auditingHandler;
 
+    @Autowired
+    private UnknownUserCache unknownUserCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     @MockBean
     private DateTimeProvider dateTimeProvider;
 
@@ -182,4 +202,50 @@ class UserServiceIT {
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
         assertThat(maybeDbUser).contains(dbUser);
     }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void assertThatUnknownLoginCachedBeforeCommitIsEvicted() {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(DEFAULT_LOGIN);
+        userDTO.setEmail(DEFAULT_EMAIL);
+        userDTO.setLangKey(DEFAULT_LANGKEY);
+        try {
+            new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    userService.registerUser(userDTO, RandomStringUtils.random(10));
+                    // A concurrent lookup does not see the new user until the transaction commits
+                    unknownUserCache.findByLogin(DEFAULT_LOGIN, login -> Optional.empty());
+                });
+
+            assertThat(unknownUserCache.findByLogin(DEFAULT_LOGIN, userRepository::findOneByLogin)).isPresent();
+        } finally {
+            userService.deleteUser(DEFAULT_LOGIN);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void assertThatUserCachedBeforePasswordUpgradeCommitIsEvicted() {
+        user.setPassword(passwordEncoder.encode("test"));
+        userRepository.saveAndFlush(user);
+        try {
+            UserDetails userDetails = org.springframework.security.core.userdetails.User
+                .withUsername(DEFAULT_LOGIN)
+                .password(user.getPassword())
+                .authorities(List.of())
+                .build();
+            new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    userService.updatePassword(userDetails, passwordEncoder.encode("test"));
+                    // A concurrent lookup still sees the old hash until the transaction commits
+                    Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).put(DEFAULT_LOGIN, user);
+                });
+
+            assertThat(Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).get(DEFAULT_LOGIN)).isNull();
+            assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN).orElseThrow().getPassword()).isNotEqualTo(user.getPassword());
+        } finally {
+            userService.deleteUser(DEFAULT_LOGIN);
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package parafarmaija.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Unit tests for the {@link TrustedProxiesForwardedHeaderFilter} class.
+ */
+class TrustedProxiesForwardedHeaderFilterTest {
+
+    private TrustedProxiesForwardedHeaderFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        filter = new TrustedProxiesForwardedHeaderFilter(List.of("10.0.0.0/8", "::1"));
+    }
+
+    @Test
+    void shouldResolveRightmostUntrustedAddress() throws Exception {
+        MockHttpServletRequest request = request("10.1.2.3", "6.6.6.6, 203.0.113.7, 10.4.5.6");
+
+        assertThat(filter(request).getRemoteAddr()).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void shouldResolveLeftmostAddressWhenAllAreTrusted() throws Exception {
+        MockHttpServletRequest request = request("::1", "10.7.8.9, 10.4.5.6");
+
+        assertThat(filter(request).getRemoteAddr()).isEqualTo("10.7.8.9");
+    }
+
+    @Test
+    void shouldStopAtInvalidAddress() throws Exception {
+        MockHttpServletRequest request = request("10.1.2.3", "203.0.113.7, localhost, 10.4.5.6");
+
+        assertThat(filter(request).getRemoteAddr()).isEqualTo("10.4.5.6");
+    }
+
+    @Test
+    void shouldIgnoreForwardedHeadersOfUntrustedAddress() throws Exception {
+        MockHttpServletRequest request = request("203.0.113.7", "10.4.5.6");
+        request.addHeader("X-Forwarded-Proto", "https");
+
+        HttpServletRequest filtered = filter(request);
+
+        assertThat(filtered.getRemoteAddr()).isEqualTo("203.0.113.7");
+        assertThat(filtered.getScheme()).isEqualTo("http");
+    }
+
+    @Test
+    void shouldKeepOtherForwardedHeadersOfTrustedProxy() throws Exception {
+        MockHttpServletRequest request = request("10.1.2.3", "203.0.113.7");
+        request.addHeader("X-Forwarded-Proto", "https");
+        request.addHeader("Forwarded", "for=6.6.6.6");
+
+        HttpServletRequest filtered = filter(request);
+
+        assertThat(filtered.getRemoteAddr()).isEqualTo("203.0.113.7");
+        assertThat(filtered.getScheme()).isEqualTo("https");
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/authenticate");
+        request.setRemoteAddr(remoteAddress);
+        request.addHeader(TrustedProxiesForwardedHeaderFilter.X_FORWARDED_FOR, forwardedFor);
+        return request;
+    }
+
+    private HttpServletRequest filter(MockHttpServletRequest request) throws Exception {
+        MockFilterChain filterChain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+        ServletRequest filtered = filterChain.getRequest();
+        return (HttpServletRequest) filtered;
+    }
+}
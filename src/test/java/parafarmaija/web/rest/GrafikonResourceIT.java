@@ -1,11 +1,18 @@
 package parafarmaija.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
+import java.util.Collections;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
@@ -13,13 +20,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import parafarmaija.IntegrationTest;
 import parafarmaija.domain.Grafikon;
 import parafarmaija.repository.GrafikonRepository;
+import parafarmaija.web.rest.util.KeysetPaginationUtil;
+import parafarmaija.web.rest.vm.BatchItemResultVM;
 
 /**
  * Integration tests for the {@link GrafikonResource} REST controller.
@@ -59,7 +70,7 @@ class GrafikonResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static Grafikon createEntity(EntityManager em) {
-        Grafikon grafikon = new Grafikon().region(DEFAULT_REGION).promet(DEFAULT_PROMET);
+        Grafikon grafikon = new Grafikon().regionName(DEFAULT_REGION).promet(DEFAULT_PROMET);
         return grafikon;
     }
 
@@ -70,7 +81,7 @@ class GrafikonResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static Grafikon createUpdatedEntity(EntityManager em) {
-        Grafikon grafikon = new Grafikon().region(UPDATED_REGION).promet(UPDATED_PROMET);
+        Grafikon grafikon = new Grafikon().regionName(UPDATED_REGION).promet(UPDATED_PROMET);
         return grafikon;
     }
 
@@ -92,7 +103,7 @@ class GrafikonResourceIT {
         List<Grafikon> grafikonList = grafikonRepository.findAll();
         assertThat(grafikonList).hasSize(databaseSizeBeforeCreate + 1);
         Grafikon testGrafikon = grafikonList.get(grafikonList.size() - 1);
-        assertThat(testGrafikon.getRegion()).isEqualTo(DEFAULT_REGION);
+        assertThat(testGrafikon.getRegionName()).isEqualTo(DEFAULT_REGION);
         assertThat(testGrafikon.getPromet()).isEqualTo(DEFAULT_PROMET);
     }
 
@@ -130,6 +141,44 @@ class GrafikonResourceIT {
             .andExpect(jsonPath("$.[*].promet").value(hasItem(DEFAULT_PROMET)));
     }
 
+    @Test
+    @Transactional
+    void getAllGrafikonsWithKeysetPagination() throws Exception {
+        // Initialize the database
+        grafikonRepository.saveAndFlush(grafikon);
+        Grafikon second = grafikonRepository.saveAndFlush(new Grafikon().regionName(UPDATED_REGION).promet(UPDATED_PROMET));
+        Grafikon third = grafikonRepository.saveAndFlush(new Grafikon().regionName(UPDATED_REGION).promet(UPDATED_PROMET));
+        String cursor = KeysetPaginationUtil.encodeCursor(grafikon.getId() - 1);
+
+        // Get the first page, which points to the next one
+        String link = restGrafikonMockMvc
+            .perform(get(ENTITY_API_URL + "?size=2&after=" + cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(grafikon.getId().intValue(), second.getId().intValue())))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LINK);
+
+        Matcher matcher = Pattern.compile("after=([^&>]+)").matcher(link);
+        assertThat(matcher.find()).isTrue();
+        assertThat(matcher.group(1)).isEqualTo(KeysetPaginationUtil.encodeCursor(second.getId()));
+
+        // Get the next page, which is the last one
+        restGrafikonMockMvc
+            .perform(get(ENTITY_API_URL + "?size=2&after=" + matcher.group(1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(third.getId().intValue())))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    void getAllGrafikonsWithInvalidCursor() throws Exception {
+        restGrafikonMockMvc.perform(get(ENTITY_API_URL + "?after=invalid")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getGrafikon() throws Exception {
@@ -146,6 +195,28 @@ class GrafikonResourceIT {
             .andExpect(jsonPath("$.promet").value(DEFAULT_PROMET));
     }
 
+    @Test
+    void exportGrafikonsAsCsv() throws Exception {
+        // Initialize the database, the export reads committed rows from its own transaction
+        grafikonRepository.saveAndFlush(grafikon);
+
+        try {
+            MvcResult result = restGrafikonMockMvc
+                .perform(get(ENTITY_API_URL + "/export?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restGrafikonMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("grafikons.csv")))
+                .andExpect(content().string(startsWith("id;region;promet\n")))
+                .andExpect(content().string(containsString(grafikon.getId() + ";" + DEFAULT_REGION + ";" + DEFAULT_PROMET + "\n")));
+        } finally {
+            grafikonRepository.deleteById(grafikon.getId());
+        }
+    }
+
     @Test
     @Transactional
     void getNonExistingGrafikon() throws Exception {
@@ -165,7 +236,7 @@ class GrafikonResourceIT {
         Grafikon updatedGrafikon = grafikonRepository.findById(grafikon.getId()).get();
         // Disconnect from session so that the updates on updatedGrafikon are not directly saved in db
         em.detach(updatedGrafikon);
-        updatedGrafikon.region(UPDATED_REGION).promet(UPDATED_PROMET);
+        updatedGrafikon.regionName(UPDATED_REGION).promet(UPDATED_PROMET);
 
         restGrafikonMockMvc
             .perform(
@@ -179,7 +250,7 @@ class GrafikonResourceIT {
         List<Grafikon> grafikonList = grafikonRepository.findAll();
         assertThat(grafikonList).hasSize(databaseSizeBeforeUpdate);
         Grafikon testGrafikon = grafikonList.get(grafikonList.size() - 1);
-        assertThat(testGrafikon.getRegion()).isEqualTo(UPDATED_REGION);
+        assertThat(testGrafikon.getRegionName()).isEqualTo(UPDATED_REGION);
         assertThat(testGrafikon.getPromet()).isEqualTo(UPDATED_PROMET);
     }
 
@@ -251,7 +322,7 @@ class GrafikonResourceIT {
         Grafikon partialUpdatedGrafikon = new Grafikon();
         partialUpdatedGrafikon.setId(grafikon.getId());
 
-        partialUpdatedGrafikon.region(UPDATED_REGION).promet(UPDATED_PROMET);
+        partialUpdatedGrafikon.regionName(UPDATED_REGION).promet(UPDATED_PROMET);
 
         restGrafikonMockMvc
             .perform(
@@ -265,7 +336,7 @@ class GrafikonResourceIT {
         List<Grafikon> grafikonList = grafikonRepository.findAll();
         assertThat(grafikonList).hasSize(databaseSizeBeforeUpdate);
         Grafikon testGrafikon = grafikonList.get(grafikonList.size() - 1);
-        assertThat(testGrafikon.getRegion()).isEqualTo(UPDATED_REGION);
+        assertThat(testGrafikon.getRegionName()).isEqualTo(UPDATED_REGION);
         assertThat(testGrafikon.getPromet()).isEqualTo(UPDATED_PROMET);
     }
 
@@ -281,7 +352,7 @@ class GrafikonResourceIT {
         Grafikon partialUpdatedGrafikon = new Grafikon();
         partialUpdatedGrafikon.setId(grafikon.getId());
 
-        partialUpdatedGrafikon.region(UPDATED_REGION).promet(UPDATED_PROMET);
+        partialUpdatedGrafikon.regionName(UPDATED_REGION).promet(UPDATED_PROMET);
 
         restGrafikonMockMvc
             .perform(
@@ -295,7 +366,7 @@ class GrafikonResourceIT {
         List<Grafikon> grafikonList = grafikonRepository.findAll();
         assertThat(grafikonList).hasSize(databaseSizeBeforeUpdate);
         Grafikon testGrafikon = grafikonList.get(grafikonList.size() - 1);
-        assertThat(testGrafikon.getRegion()).isEqualTo(UPDATED_REGION);
+        assertThat(testGrafikon.getRegionName()).isEqualTo(UPDATED_REGION);
         assertThat(testGrafikon.getPromet()).isEqualTo(UPDATED_PROMET);
     }
 
@@ -372,4 +443,288 @@ class GrafikonResourceIT {
         List<Grafikon> grafikonList = grafikonRepository.findAll();
         assertThat(grafikonList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void createGrafikonsInBatch() throws Exception {
+        int databaseSizeBeforeCreate = grafikonRepository.findAll().size();
+        Grafikon grafikonWithId = createEntity(em);
+        grafikonWithId.setId(count.incrementAndGet());
+
+        // Create the Grafikons, the one with an existing ID is rejected
+        restGrafikonMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(grafikon, grafikonWithId, createUpdatedEntity(em))))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].index").value(contains(0, 1, 2)))
+            .andExpect(jsonPath("$.[*].status").value(contains(201, 400, 201)))
+            .andExpect(jsonPath("$.[1].errorKey").value("idexists"))
+            .andExpect(jsonPath("$.[0].id").isNumber());
+
+        // Validate the Grafikons in the database
+        List<Grafikon> grafikonList = grafikonRepository.findAll();
+        assertThat(grafikonList).hasSize(databaseSizeBeforeCreate + 2);
+        assertThat(grafikonList).extracting(Grafikon::getRegionName).contains(DEFAULT_REGION, UPDATED_REGION);
+    }
+
+    @Test
+    @Transactional
+    void updateGrafikonsInBatch() throws Exception {
+        // Initialize the database
+        grafikonRepository.saveAndFlush(grafikon);
+        Grafikon updatedGrafikon = createUpdatedEntity(em);
+        updatedGrafikon.setId(grafikon.getId());
+        Grafikon nonExistingGrafikon = createUpdatedEntity(em);
+        nonExistingGrafikon.setId(count.incrementAndGet());
+
+        restGrafikonMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        TestUtil.convertObjectToJsonBytes(List.of(updatedGrafikon, nonExistingGrafikon, updatedGrafikon, createEntity(em)))
+                    )
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].status").value(contains(200, 404, 400, 400)))
+            .andExpect(jsonPath("$.[*].errorKey").value(contains("idnotfound", "idduplicate", "idnull")));
+        em.flush();
+        em.clear();
+
+        // Validate the Grafikon in the database
+        Grafikon testGrafikon = grafikonRepository.findById(grafikon.getId()).get();
+        assertThat(testGrafikon.getRegionName()).isEqualTo(UPDATED_REGION);
+        assertThat(testGrafikon.getPromet()).isEqualTo(UPDATED_PROMET);
+    }
+
+    @Test
+    @Transactional
+    void updateGrafikonsInBatchWithVersion() throws Exception {
+        // Initialize the database
+        Grafikon otherGrafikon = createEntity(em);
+        grafikonRepository.saveAllAndFlush(List.of(grafikon, otherGrafikon));
+        Grafikon updatedGrafikon = createUpdatedEntity(em).id(grafikon.getId()).version(grafikon.getVersion());
+        Grafikon staleGrafikon = createUpdatedEntity(em).id(otherGrafikon.getId()).version(otherGrafikon.getVersion() - 1);
+
+        restGrafikonMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(updatedGrafikon, staleGrafikon)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].status").value(contains(200, 412)))
+            .andExpect(jsonPath("$.[1].errorKey").value("versionmismatch"));
+        em.flush();
+        em.clear();
+
+        // Validate that only the grafikon with the current version was updated
+        assertThat(grafikonRepository.findById(grafikon.getId()).get().getPromet()).isEqualTo(UPDATED_PROMET);
+        assertThat(grafikonRepository.findById(otherGrafikon.getId()).get().getPromet()).isEqualTo(DEFAULT_PROMET);
+    }
+
+    @Test
+    @Transactional
+    void deleteGrafikonsInBatch() throws Exception {
+        // Initialize the database
+        grafikonRepository.saveAndFlush(grafikon);
+        int databaseSizeBeforeDelete = grafikonRepository.findAll().size();
+
+        restGrafikonMockMvc
+            .perform(
+                delete(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(grafikon.getId(), count.incrementAndGet())))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].status").value(contains(204, 404)));
+
+        // Validate the database contains one less item
+        List<Grafikon> grafikonList = grafikonRepository.findAll();
+        assertThat(grafikonList).hasSize(databaseSizeBeforeDelete - 1);
+    }
+
+    @Test
+    @Transactional
+    void createGrafikonsInTooLargeBatch() throws Exception {
+        List<Grafikon> grafikons = Collections.nCopies(BatchItemResultVM.MAX_BATCH_SIZE + 1, grafikon);
+
+        restGrafikonMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(grafikons))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getGrafikonWithETag() throws Exception {
+        // Initialize the database
+        grafikonRepository.saveAndFlush(grafikon);
+
+        // Get the grafikon, then get it again with its entity tag
+        String eTag = restGrafikonMockMvc
+            .perform(get(ENTITY_API_URL_ID, grafikon.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restGrafikonMockMvc
+            .perform(get(ENTITY_API_URL_ID, grafikon.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    void updateGrafikonWithIfMatch() throws Exception {
+        // Initialize the database
+        grafikonRepository.saveAndFlush(grafikon);
+        em.detach(grafikon);
+
+        Grafikon updatedGrafikon = createUpdatedEntity(em).id(grafikon.getId());
+
+        restGrafikonMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedGrafikon.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedGrafikon))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.version").value(1));
+
+        // The entity tag is now stale
+        restGrafikonMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedGrafikon.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedGrafikon.regionName(DEFAULT_REGION)))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        Grafikon testGrafikon = grafikonRepository.findById(grafikon.getId()).get();
+        assertThat(testGrafikon.getRegionName()).isEqualTo(UPDATED_REGION);
+        assertThat(testGrafikon.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @Transactional
+    void partialUpdateGrafikonWithIfMatch() throws Exception {
+        // Initialize the database
+        grafikonRepository.saveAndFlush(grafikon);
+        em.detach(grafikon);
+
+        Grafikon partialUpdatedGrafikon = new Grafikon().id(grafikon.getId()).promet(UPDATED_PROMET);
+
+        restGrafikonMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedGrafikon.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedGrafikon))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        restGrafikonMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedGrafikon.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\", \"1\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedGrafikon))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.region").value(DEFAULT_REGION))
+            .andExpect(jsonPath("$.promet").value(UPDATED_PROMET));
+    }
+
+    @Test
+    @Transactional
+    void updateGrafikonWithIfMatchOfNonExistingGrafikon() throws Exception {
+        grafikon.setId(count.incrementAndGet());
+
+        restGrafikonMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, grafikon.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(grafikon))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getGrafikonChanges() throws Exception {
+        // Get all the grafikons, with the first sync token
+        MvcResult result = restGrafikonMockMvc
+            .perform(get(ENTITY_API_URL + "/changes"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.full").value(true))
+            .andReturn();
+        long token = ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.token")).longValue();
+
+        // Initialize the database, only committed writes are recorded in the change log
+        grafikonRepository.saveAndFlush(grafikon);
+
+        try {
+            result =
+                restGrafikonMockMvc
+                    .perform(get(ENTITY_API_URL + "/changes?since=" + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.full").value(false))
+                    .andExpect(jsonPath("$.upserted.[*].id").value(contains(grafikon.getId().intValue())))
+                    .andExpect(jsonPath("$.deleted").isEmpty())
+                    .andReturn();
+            token = ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.token")).longValue();
+
+            // Update the grafikon through the single-statement update
+            restGrafikonMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, grafikon.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(createUpdatedEntity(em).id(grafikon.getId())))
+                )
+                .andExpect(status().isOk());
+
+            result =
+                restGrafikonMockMvc
+                    .perform(get(ENTITY_API_URL + "/changes?since=" + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.upserted.[*].region").value(contains(UPDATED_REGION)))
+                    .andReturn();
+            token = ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.token")).longValue();
+
+            // Nothing changed since
+            restGrafikonMockMvc
+                .perform(get(ENTITY_API_URL + "/changes?since=" + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value(token))
+                .andExpect(jsonPath("$.upserted").isEmpty());
+        } finally {
+            grafikonRepository.deleteById(grafikon.getId());
+        }
+
+        restGrafikonMockMvc
+            .perform(get(ENTITY_API_URL + "/changes?since=" + token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.full").value(false))
+            .andExpect(jsonPath("$.upserted").isEmpty())
+            .andExpect(jsonPath("$.deleted").value(contains(grafikon.getId().intValue())));
+
+        // A token unknown to the server gets all the grafikons
+        restGrafikonMockMvc
+            .perform(get(ENTITY_API_URL + "/changes?since=" + (token + 1000)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.full").value(true));
+    }
 }
@@ -0,0 +1,35 @@
+package parafarmaija.web.rest;
+
+import static org.hamcrest.Matchers.empty;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import parafarmaija.IntegrationTest;
+
+/**
+ * Integration tests for the {@link JwksResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+class JwksResourceIT {
+
+    @Autowired
+    private MockMvc restJwksMockMvc;
+
+    @Test
+    void getJwksWithoutAuthentication() throws Exception {
+        // The tests sign the tokens with the shared secret, which is never published
+        restJwksMockMvc
+            .perform(get("/.well-known/jwks.json"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=240, public"))
+            .andExpect(jsonPath("$.keys").value(empty()));
+    }
+}
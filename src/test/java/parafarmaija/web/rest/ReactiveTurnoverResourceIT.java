@@ -0,0 +1,218 @@
+package parafarmaija.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import parafarmaija.IntegrationTest;
+import parafarmaija.domain.Grafikon;
+import parafarmaija.domain.Tabela;
+import parafarmaija.repository.GrafikonRepository;
+import parafarmaija.repository.RegionRepository;
+import parafarmaija.repository.TabelaRepository;
+import parafarmaija.web.rest.util.KeysetPaginationUtil;
+
+/**
+ * Integration tests for the {@link ReactiveTurnoverResource} REST controller.
+ * <p>
+ * The reactive reads only see committed rows, so the tests are not transactional: they commit their rows, in regions of
+ * their own, and delete them afterwards.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ReactiveTurnoverResourceIT {
+
+    private static final String TABELA_API_URL = "/api/reactive/tabelas";
+    private static final String GRAFIKON_API_URL = "/api/reactive/grafikons";
+
+    @Autowired
+    private TabelaRepository tabelaRepository;
+
+    @Autowired
+    private GrafikonRepository grafikonRepository;
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private MockMvc restMockMvc;
+
+    private String region;
+
+    private String otherRegion;
+
+    @BeforeEach
+    public void initTest() {
+        region = "reactive-" + UUID.randomUUID();
+        otherRegion = "reactive-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        tabelaRepository.deleteAll(
+            tabelaRepository.findAll().stream().filter(tabela -> isTestRegion(tabela.getRegionName())).collect(Collectors.toList())
+        );
+        grafikonRepository.deleteAll(
+            grafikonRepository.findAll().stream().filter(grafikon -> isTestRegion(grafikon.getRegionName())).collect(Collectors.toList())
+        );
+        regionRepository.findOneByName(region).ifPresent(regionRepository::delete);
+        regionRepository.findOneByName(otherRegion).ifPresent(regionRepository::delete);
+    }
+
+    private boolean isTestRegion(String name) {
+        return region.equals(name) || otherRegion.equals(name);
+    }
+
+    @Test
+    void getTabelasWithKeysetPagination() throws Exception {
+        List<Tabela> tabelas = tabelaRepository.saveAllAndFlush(
+            List.of(
+                new Tabela().regionName(region).promet(1),
+                new Tabela().regionName(region).promet(2),
+                new Tabela().regionName(otherRegion).promet(3)
+            )
+        );
+        String cursor = KeysetPaginationUtil.encodeCursor(tabelas.get(0).getId() - 1);
+
+        // Get the first page, which points to the next one
+        String link = perform(get(TABELA_API_URL + "?size=2&after=" + cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(tabelas.get(0).getId().intValue(), tabelas.get(1).getId().intValue())))
+            .andExpect(jsonPath("$.[0].region").value(region))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LINK);
+
+        Matcher matcher = Pattern.compile("after=([^&>]+)").matcher(link);
+        assertThat(matcher.find()).isTrue();
+        assertThat(matcher.group(1)).isEqualTo(KeysetPaginationUtil.encodeCursor(tabelas.get(1).getId()));
+
+        // Get the next page, which starts with the third tabela
+        perform(get(TABELA_API_URL + "?size=2&after=" + matcher.group(1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(tabelas.get(2).getId().intValue()))
+            .andExpect(jsonPath("$.[0].region").value(otherRegion))
+            .andExpect(jsonPath("$.[0].promet").value(3));
+    }
+
+    @Test
+    void getTabelasWithInvalidCursor() throws Exception {
+        restMockMvc.perform(get(TABELA_API_URL + "?after=invalid")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getTabela() throws Exception {
+        Tabela tabela = tabelaRepository.saveAndFlush(new Tabela().regionName(region).promet(5));
+
+        perform(get(TABELA_API_URL + "/{id}", tabela.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + tabela.getVersion() + "\""))
+            .andExpect(jsonPath("$.id").value(tabela.getId().intValue()))
+            .andExpect(jsonPath("$.region").value(region))
+            .andExpect(jsonPath("$.promet").value(5));
+    }
+
+    @Test
+    void getNonExistingTabela() throws Exception {
+        perform(get(TABELA_API_URL + "/{id}", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getTabelaAggregates() throws Exception {
+        tabelaRepository.saveAllAndFlush(
+            List.of(
+                new Tabela().regionName(region).promet(2),
+                new Tabela().regionName(region).promet(6),
+                new Tabela().regionName(otherRegion)
+            )
+        );
+
+        perform(get(TABELA_API_URL + "/aggregate"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.region == '" + region + "')].count").value(contains(2)))
+            .andExpect(jsonPath("$[?(@.region == '" + region + "')].sum").value(contains(8)))
+            .andExpect(jsonPath("$[?(@.region == '" + region + "')].min").value(contains(2)))
+            .andExpect(jsonPath("$[?(@.region == '" + region + "')].max").value(contains(6)))
+            .andExpect(jsonPath("$[?(@.region == '" + region + "')].average").value(contains(4.0)))
+            .andExpect(jsonPath("$[?(@.region == '" + otherRegion + "')].count").value(contains(0)))
+            .andExpect(jsonPath("$[?(@.region == '" + otherRegion + "')].sum").value(contains(0)));
+    }
+
+    @Test
+    void exportTabelas() throws Exception {
+        Tabela tabela = tabelaRepository.saveAndFlush(new Tabela().regionName(region).promet(7));
+
+        String body = perform(get(TABELA_API_URL + "/export").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(body.lines())
+            .anySatisfy(line -> assertThat(line).contains("\"id\":" + tabela.getId()).contains("\"region\":\"" + region + "\""));
+    }
+
+    @Test
+    void getGrafikonsWithKeysetPagination() throws Exception {
+        List<Grafikon> grafikons = grafikonRepository.saveAllAndFlush(
+            List.of(new Grafikon().regionName(region).promet(1), new Grafikon().regionName(region).promet(2))
+        );
+        String cursor = KeysetPaginationUtil.encodeCursor(grafikons.get(0).getId() - 1);
+
+        perform(get(GRAFIKON_API_URL + "?size=1&after=" + cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(grafikons.get(0).getId().intValue())))
+            .andExpect(header().string(HttpHeaders.LINK, containsString(KeysetPaginationUtil.encodeCursor(grafikons.get(0).getId()))));
+    }
+
+    @Test
+    void getGrafikon() throws Exception {
+        Grafikon grafikon = grafikonRepository.saveAndFlush(new Grafikon().regionName(region).promet(5));
+
+        perform(get(GRAFIKON_API_URL + "/{id}", grafikon.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + grafikon.getVersion() + "\""))
+            .andExpect(jsonPath("$.region").value(region))
+            .andExpect(jsonPath("$.promet").value(5));
+    }
+
+    @Test
+    void getGrafikonAggregates() throws Exception {
+        grafikonRepository.saveAllAndFlush(
+            List.of(new Grafikon().regionName(region).promet(3), new Grafikon().regionName(region).promet(4))
+        );
+
+        perform(get(GRAFIKON_API_URL + "/aggregate"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[?(@.region == '" + region + "')].count").value(contains(2)))
+            .andExpect(jsonPath("$[?(@.region == '" + region + "')].sum").value(contains(7)));
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult result = restMockMvc.perform(requestBuilder).andExpect(request().asyncStarted()).andReturn();
+        return restMockMvc.perform(asyncDispatch(result));
+    }
+}
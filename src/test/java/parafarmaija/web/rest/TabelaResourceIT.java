@@ -1,11 +1,19 @@
 package parafarmaija.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
+import java.util.Collections;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
@@ -13,13 +21,20 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import parafarmaija.IntegrationTest;
+import parafarmaija.domain.Region;
 import parafarmaija.domain.Tabela;
+import parafarmaija.repository.RegionRepository;
 import parafarmaija.repository.TabelaRepository;
+import parafarmaija.service.TurnoverStreamService;
+import parafarmaija.web.rest.util.KeysetPaginationUtil;
+import parafarmaija.web.rest.vm.BatchItemResultVM;
 
 /**
  * Integration tests for the {@link TabelaResource} REST controller.
@@ -44,6 +59,12 @@ class TabelaResourceIT {
     @Autowired
     private TabelaRepository tabelaRepository;
 
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private TurnoverStreamService turnoverStreamService;
+
     @Autowired
     private EntityManager em;
 
@@ -59,7 +80,7 @@ class TabelaResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static Tabela createEntity(EntityManager em) {
-        Tabela tabela = new Tabela().region(DEFAULT_REGION).promet(DEFAULT_PROMET);
+        Tabela tabela = new Tabela().regionName(DEFAULT_REGION).promet(DEFAULT_PROMET);
         return tabela;
     }
 
@@ -70,7 +91,7 @@ class TabelaResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static Tabela createUpdatedEntity(EntityManager em) {
-        Tabela tabela = new Tabela().region(UPDATED_REGION).promet(UPDATED_PROMET);
+        Tabela tabela = new Tabela().regionName(UPDATED_REGION).promet(UPDATED_PROMET);
         return tabela;
     }
 
@@ -92,10 +113,37 @@ class TabelaResourceIT {
         List<Tabela> tabelaList = tabelaRepository.findAll();
         assertThat(tabelaList).hasSize(databaseSizeBeforeCreate + 1);
         Tabela testTabela = tabelaList.get(tabelaList.size() - 1);
-        assertThat(testTabela.getRegion()).isEqualTo(DEFAULT_REGION);
+        assertThat(testTabela.getRegionName()).isEqualTo(DEFAULT_REGION);
         assertThat(testTabela.getPromet()).isEqualTo(DEFAULT_PROMET);
     }
 
+    @Test
+    @Transactional
+    void createTabelasOfTheSameRegion() throws Exception {
+        String region = "region-" + count.incrementAndGet();
+        List<Tabela> tabelas = List.of(new Tabela().regionName(region).promet(DEFAULT_PROMET), new Tabela().regionName(region));
+
+        // Create the Tabelas of a region which does not exist yet
+        restTabelaMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(tabelas))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].status").value(contains(201, 201)));
+
+        // Validate that the region was created once, and is referenced by id
+        List<Region> regions = regionRepository
+            .findAll()
+            .stream()
+            .filter(found -> region.equals(found.getName()))
+            .collect(Collectors.toList());
+        assertThat(regions).hasSize(1);
+        assertThat(tabelaRepository.findAll())
+            .filteredOn(found -> region.equals(found.getRegionName()))
+            .hasSize(2)
+            .allSatisfy(found -> assertThat(found.getRegion().getId()).isEqualTo(regions.get(0).getId()));
+    }
+
     @Test
     @Transactional
     void createTabelaWithExistingId() throws Exception {
@@ -114,6 +162,52 @@ class TabelaResourceIT {
         assertThat(tabelaList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    void importTabelas() throws Exception {
+        String csv =
+            "id;region;promet\n" +
+            "1;" + DEFAULT_REGION + ";" + DEFAULT_PROMET + "\n" +
+            "2;\"" + DEFAULT_REGION + "\";" + UPDATED_PROMET + "\n" +
+            "3;" + DEFAULT_REGION + ";not a number\n" +
+            "\n" +
+            "4;" + DEFAULT_REGION + "\n";
+        int databaseSizeBeforeImport = tabelaRepository.findAll().size();
+
+        try {
+            restTabelaMockMvc
+                .perform(post(ENTITY_API_URL + "/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.rejectedLines.[*].line").value(contains(4, 6)))
+                .andExpect(jsonPath("$.elapsedMillis").isNumber())
+                .andExpect(jsonPath("$.rowsPerSecond").isNumber());
+
+            // Validate the Tabelas in the database
+            List<Tabela> tabelaList = tabelaRepository.findAll();
+            assertThat(tabelaList).hasSize(databaseSizeBeforeImport + 2);
+            assertThat(tabelaList)
+                .filteredOn(imported -> DEFAULT_REGION.equals(imported.getRegionName()))
+                .extracting(Tabela::getPromet)
+                .containsExactlyInAnyOrder(DEFAULT_PROMET, UPDATED_PROMET);
+        } finally {
+            tabelaRepository.deleteAll(
+                tabelaRepository
+                    .findAll()
+                    .stream()
+                    .filter(imported -> DEFAULT_REGION.equals(imported.getRegionName()))
+                    .collect(Collectors.toList())
+            );
+        }
+    }
+
+    @Test
+    void importTabelasWithInvalidHeader() throws Exception {
+        restTabelaMockMvc
+            .perform(post(ENTITY_API_URL + "/import").contentType("text/csv").content("id;name\n1;AAAAAAAAAA\n"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getAllTabelas() throws Exception {
@@ -130,6 +224,44 @@ class TabelaResourceIT {
             .andExpect(jsonPath("$.[*].promet").value(hasItem(DEFAULT_PROMET)));
     }
 
+    @Test
+    @Transactional
+    void getAllTabelasWithKeysetPagination() throws Exception {
+        // Initialize the database
+        tabelaRepository.saveAndFlush(tabela);
+        Tabela second = tabelaRepository.saveAndFlush(new Tabela().regionName(UPDATED_REGION).promet(UPDATED_PROMET));
+        Tabela third = tabelaRepository.saveAndFlush(new Tabela().regionName(UPDATED_REGION).promet(UPDATED_PROMET));
+        String cursor = KeysetPaginationUtil.encodeCursor(tabela.getId() - 1);
+
+        // Get the first page, which points to the next one
+        String link = restTabelaMockMvc
+            .perform(get(ENTITY_API_URL + "?size=2&after=" + cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(tabela.getId().intValue(), second.getId().intValue())))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LINK);
+
+        Matcher matcher = Pattern.compile("after=([^&>]+)").matcher(link);
+        assertThat(matcher.find()).isTrue();
+        assertThat(matcher.group(1)).isEqualTo(KeysetPaginationUtil.encodeCursor(second.getId()));
+
+        // Get the next page, which is the last one
+        restTabelaMockMvc
+            .perform(get(ENTITY_API_URL + "?size=2&after=" + matcher.group(1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(third.getId().intValue())))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    void getAllTabelasWithInvalidCursor() throws Exception {
+        restTabelaMockMvc.perform(get(ENTITY_API_URL + "?after=invalid")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getTabela() throws Exception {
@@ -146,6 +278,91 @@ class TabelaResourceIT {
             .andExpect(jsonPath("$.promet").value(DEFAULT_PROMET));
     }
 
+    @Test
+    void getTabelaAggregates() throws Exception {
+        // Initialize the database, the aggregates only reflect committed writes
+        List<Tabela> tabelas = tabelaRepository.saveAllAndFlush(
+            List.of(
+                tabela,
+                new Tabela().regionName(DEFAULT_REGION).promet(UPDATED_PROMET),
+                new Tabela().regionName(UPDATED_REGION).promet(UPDATED_PROMET)
+            )
+        );
+
+        try {
+            // Get the aggregates per region
+            restTabelaMockMvc
+                .perform(get(ENTITY_API_URL + "/aggregate"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.[?(@.region == '" + DEFAULT_REGION + "')].count").value(2))
+                .andExpect(jsonPath("$.[?(@.region == '" + DEFAULT_REGION + "')].sum").value(DEFAULT_PROMET + UPDATED_PROMET))
+                .andExpect(jsonPath("$.[?(@.region == '" + DEFAULT_REGION + "')].min").value(DEFAULT_PROMET))
+                .andExpect(jsonPath("$.[?(@.region == '" + DEFAULT_REGION + "')].max").value(UPDATED_PROMET))
+                .andExpect(jsonPath("$.[?(@.region == '" + DEFAULT_REGION + "')].average").value(1.5))
+                .andExpect(jsonPath("$.[?(@.region == '" + UPDATED_REGION + "')].sum").value(UPDATED_PROMET));
+        } finally {
+            tabelaRepository.deleteAll(tabelas);
+        }
+    }
+
+    @Test
+    void exportTabelasAsCsv() throws Exception {
+        // Initialize the database, the export reads committed rows from its own transaction
+        tabelaRepository.saveAndFlush(tabela);
+
+        try {
+            MvcResult result = restTabelaMockMvc
+                .perform(get(ENTITY_API_URL + "/export?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restTabelaMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("tabelas.csv")))
+                .andExpect(content().string(startsWith("id;region;promet\n")))
+                .andExpect(content().string(containsString(tabela.getId() + ";" + DEFAULT_REGION + ";" + DEFAULT_PROMET + "\n")));
+        } finally {
+            tabelaRepository.deleteById(tabela.getId());
+        }
+    }
+
+    @Test
+    void exportTabelasAsNdjson() throws Exception {
+        // Initialize the database, the export reads committed rows from its own transaction
+        tabelaRepository.saveAndFlush(tabela);
+
+        try {
+            MvcResult result = restTabelaMockMvc.perform(get(ENTITY_API_URL + "/export")).andExpect(request().asyncStarted()).andReturn();
+            restTabelaMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(
+                    content()
+                        .string(
+                            containsString(
+                                "{\"id\":" +
+                                tabela.getId() +
+                                ",\"region\":\"" +
+                                DEFAULT_REGION +
+                                "\",\"promet\":" +
+                                DEFAULT_PROMET +
+                                ",\"version\":0}\n"
+                            )
+                        )
+                );
+        } finally {
+            tabelaRepository.deleteById(tabela.getId());
+        }
+    }
+
+    @Test
+    void exportTabelasWithInvalidFormat() throws Exception {
+        restTabelaMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingTabela() throws Exception {
@@ -165,7 +382,7 @@ class TabelaResourceIT {
         Tabela updatedTabela = tabelaRepository.findById(tabela.getId()).get();
         // Disconnect from session so that the updates on updatedTabela are not directly saved in db
         em.detach(updatedTabela);
-        updatedTabela.region(UPDATED_REGION).promet(UPDATED_PROMET);
+        updatedTabela.regionName(UPDATED_REGION).promet(UPDATED_PROMET);
 
         restTabelaMockMvc
             .perform(
@@ -179,7 +396,7 @@ class TabelaResourceIT {
         List<Tabela> tabelaList = tabelaRepository.findAll();
         assertThat(tabelaList).hasSize(databaseSizeBeforeUpdate);
         Tabela testTabela = tabelaList.get(tabelaList.size() - 1);
-        assertThat(testTabela.getRegion()).isEqualTo(UPDATED_REGION);
+        assertThat(testTabela.getRegionName()).isEqualTo(UPDATED_REGION);
         assertThat(testTabela.getPromet()).isEqualTo(UPDATED_PROMET);
     }
 
@@ -251,7 +468,7 @@ class TabelaResourceIT {
         Tabela partialUpdatedTabela = new Tabela();
         partialUpdatedTabela.setId(tabela.getId());
 
-        partialUpdatedTabela.region(UPDATED_REGION).promet(UPDATED_PROMET);
+        partialUpdatedTabela.regionName(UPDATED_REGION).promet(UPDATED_PROMET);
 
         restTabelaMockMvc
             .perform(
@@ -265,7 +482,7 @@ class TabelaResourceIT {
         List<Tabela> tabelaList = tabelaRepository.findAll();
         assertThat(tabelaList).hasSize(databaseSizeBeforeUpdate);
         Tabela testTabela = tabelaList.get(tabelaList.size() - 1);
-        assertThat(testTabela.getRegion()).isEqualTo(UPDATED_REGION);
+        assertThat(testTabela.getRegionName()).isEqualTo(UPDATED_REGION);
         assertThat(testTabela.getPromet()).isEqualTo(UPDATED_PROMET);
     }
 
@@ -281,7 +498,7 @@ class TabelaResourceIT {
         Tabela partialUpdatedTabela = new Tabela();
         partialUpdatedTabela.setId(tabela.getId());
 
-        partialUpdatedTabela.region(UPDATED_REGION).promet(UPDATED_PROMET);
+        partialUpdatedTabela.regionName(UPDATED_REGION).promet(UPDATED_PROMET);
 
         restTabelaMockMvc
             .perform(
@@ -295,7 +512,7 @@ class TabelaResourceIT {
         List<Tabela> tabelaList = tabelaRepository.findAll();
         assertThat(tabelaList).hasSize(databaseSizeBeforeUpdate);
         Tabela testTabela = tabelaList.get(tabelaList.size() - 1);
-        assertThat(testTabela.getRegion()).isEqualTo(UPDATED_REGION);
+        assertThat(testTabela.getRegionName()).isEqualTo(UPDATED_REGION);
         assertThat(testTabela.getPromet()).isEqualTo(UPDATED_PROMET);
     }
 
@@ -372,4 +589,312 @@ class TabelaResourceIT {
         List<Tabela> tabelaList = tabelaRepository.findAll();
         assertThat(tabelaList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void createTabelasInBatch() throws Exception {
+        int databaseSizeBeforeCreate = tabelaRepository.findAll().size();
+        Tabela tabelaWithId = createEntity(em);
+        tabelaWithId.setId(count.incrementAndGet());
+
+        // Create the Tabelas, the one with an existing ID is rejected
+        restTabelaMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(tabela, tabelaWithId, createUpdatedEntity(em))))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].index").value(contains(0, 1, 2)))
+            .andExpect(jsonPath("$.[*].status").value(contains(201, 400, 201)))
+            .andExpect(jsonPath("$.[1].errorKey").value("idexists"))
+            .andExpect(jsonPath("$.[0].id").isNumber());
+
+        // Validate the Tabelas in the database
+        List<Tabela> tabelaList = tabelaRepository.findAll();
+        assertThat(tabelaList).hasSize(databaseSizeBeforeCreate + 2);
+        assertThat(tabelaList).extracting(Tabela::getRegionName).contains(DEFAULT_REGION, UPDATED_REGION);
+    }
+
+    @Test
+    @Transactional
+    void updateTabelasInBatch() throws Exception {
+        // Initialize the database
+        tabelaRepository.saveAndFlush(tabela);
+        Tabela updatedTabela = createUpdatedEntity(em);
+        updatedTabela.setId(tabela.getId());
+        Tabela nonExistingTabela = createUpdatedEntity(em);
+        nonExistingTabela.setId(count.incrementAndGet());
+
+        restTabelaMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        TestUtil.convertObjectToJsonBytes(List.of(updatedTabela, nonExistingTabela, updatedTabela, createEntity(em)))
+                    )
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].status").value(contains(200, 404, 400, 400)))
+            .andExpect(jsonPath("$.[*].errorKey").value(contains("idnotfound", "idduplicate", "idnull")));
+        em.flush();
+        em.clear();
+
+        // Validate the Tabela in the database
+        Tabela testTabela = tabelaRepository.findById(tabela.getId()).get();
+        assertThat(testTabela.getRegionName()).isEqualTo(UPDATED_REGION);
+        assertThat(testTabela.getPromet()).isEqualTo(UPDATED_PROMET);
+    }
+
+    @Test
+    @Transactional
+    void updateTabelasInBatchWithVersion() throws Exception {
+        // Initialize the database
+        Tabela otherTabela = createEntity(em);
+        tabelaRepository.saveAllAndFlush(List.of(tabela, otherTabela));
+        Tabela updatedTabela = createUpdatedEntity(em).id(tabela.getId()).version(tabela.getVersion());
+        Tabela staleTabela = createUpdatedEntity(em).id(otherTabela.getId()).version(otherTabela.getVersion() - 1);
+
+        restTabelaMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(updatedTabela, staleTabela)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].status").value(contains(200, 412)))
+            .andExpect(jsonPath("$.[1].errorKey").value("versionmismatch"));
+        em.flush();
+        em.clear();
+
+        // Validate that only the tabela with the current version was updated
+        assertThat(tabelaRepository.findById(tabela.getId()).get().getPromet()).isEqualTo(UPDATED_PROMET);
+        assertThat(tabelaRepository.findById(otherTabela.getId()).get().getPromet()).isEqualTo(DEFAULT_PROMET);
+    }
+
+    @Test
+    @Transactional
+    void deleteTabelasInBatch() throws Exception {
+        // Initialize the database
+        tabelaRepository.saveAndFlush(tabela);
+        int databaseSizeBeforeDelete = tabelaRepository.findAll().size();
+
+        restTabelaMockMvc
+            .perform(
+                delete(ENTITY_API_URL + "/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(tabela.getId(), count.incrementAndGet())))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].status").value(contains(204, 404)));
+
+        // Validate the database contains one less item
+        List<Tabela> tabelaList = tabelaRepository.findAll();
+        assertThat(tabelaList).hasSize(databaseSizeBeforeDelete - 1);
+    }
+
+    @Test
+    @Transactional
+    void createTabelasInTooLargeBatch() throws Exception {
+        List<Tabela> tabelas = Collections.nCopies(BatchItemResultVM.MAX_BATCH_SIZE + 1, tabela);
+
+        restTabelaMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(tabelas))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getTabelaWithETag() throws Exception {
+        // Initialize the database
+        tabelaRepository.saveAndFlush(tabela);
+
+        // Get the tabela, then get it again with its entity tag
+        String eTag = restTabelaMockMvc
+            .perform(get(ENTITY_API_URL_ID, tabela.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restTabelaMockMvc
+            .perform(get(ENTITY_API_URL_ID, tabela.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    void updateTabelaWithIfMatch() throws Exception {
+        // Initialize the database
+        tabelaRepository.saveAndFlush(tabela);
+        em.detach(tabela);
+
+        Tabela updatedTabela = createUpdatedEntity(em).id(tabela.getId());
+
+        restTabelaMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedTabela.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedTabela))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.version").value(1));
+
+        // The entity tag is now stale
+        restTabelaMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedTabela.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedTabela.regionName(DEFAULT_REGION)))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        Tabela testTabela = tabelaRepository.findById(tabela.getId()).get();
+        assertThat(testTabela.getRegionName()).isEqualTo(UPDATED_REGION);
+        assertThat(testTabela.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @Transactional
+    void partialUpdateTabelaWithIfMatch() throws Exception {
+        // Initialize the database
+        tabelaRepository.saveAndFlush(tabela);
+        em.detach(tabela);
+
+        Tabela partialUpdatedTabela = new Tabela().id(tabela.getId()).promet(UPDATED_PROMET);
+
+        restTabelaMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedTabela.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedTabela))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        restTabelaMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedTabela.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\", \"1\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedTabela))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.region").value(DEFAULT_REGION))
+            .andExpect(jsonPath("$.promet").value(UPDATED_PROMET));
+    }
+
+    @Test
+    @Transactional
+    void updateTabelaWithIfMatchOfNonExistingTabela() throws Exception {
+        tabela.setId(count.incrementAndGet());
+
+        restTabelaMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, tabela.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(tabela))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getTabelaChanges() throws Exception {
+        // Get all the tabelas, with the first sync token
+        MvcResult result = restTabelaMockMvc
+            .perform(get(ENTITY_API_URL + "/changes"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.full").value(true))
+            .andReturn();
+        long token = ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.token")).longValue();
+
+        // Initialize the database, only committed writes are recorded in the change log
+        tabelaRepository.saveAndFlush(tabela);
+
+        try {
+            result =
+                restTabelaMockMvc
+                    .perform(get(ENTITY_API_URL + "/changes?since=" + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.full").value(false))
+                    .andExpect(jsonPath("$.upserted.[*].id").value(contains(tabela.getId().intValue())))
+                    .andExpect(jsonPath("$.deleted").isEmpty())
+                    .andReturn();
+            token = ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.token")).longValue();
+
+            // Update the tabela through the single-statement update
+            restTabelaMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, tabela.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(createUpdatedEntity(em).id(tabela.getId())))
+                )
+                .andExpect(status().isOk());
+
+            result =
+                restTabelaMockMvc
+                    .perform(get(ENTITY_API_URL + "/changes?since=" + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.upserted.[*].region").value(contains(UPDATED_REGION)))
+                    .andReturn();
+            token = ((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.token")).longValue();
+
+            // Nothing changed since
+            restTabelaMockMvc
+                .perform(get(ENTITY_API_URL + "/changes?since=" + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value(token))
+                .andExpect(jsonPath("$.upserted").isEmpty());
+        } finally {
+            tabelaRepository.deleteById(tabela.getId());
+        }
+
+        restTabelaMockMvc
+            .perform(get(ENTITY_API_URL + "/changes?since=" + token))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.full").value(false))
+            .andExpect(jsonPath("$.upserted").isEmpty())
+            .andExpect(jsonPath("$.deleted").value(contains(tabela.getId().intValue())));
+
+        // A token unknown to the server gets all the tabelas
+        restTabelaMockMvc
+            .perform(get(ENTITY_API_URL + "/changes?since=" + (token + 1000)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.full").value(true));
+    }
+
+    @Test
+    void streamTurnoverChanges() throws Exception {
+        MvcResult result = restTabelaMockMvc
+            .perform(get(ENTITY_API_URL + "/stream"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Initialize the database, only committed writes are pushed
+        tabelaRepository.saveAndFlush(tabela);
+
+        try {
+            turnoverStreamService.publishPendingChanges();
+
+            String content = result.getResponse().getContentAsString();
+            // Earlier tests may have left committed changes to push, the event of this one can come after theirs
+            for (int i = 0; i < 50 && !content.contains(tabela.getId().toString()); i++) {
+                Thread.sleep(100);
+                content = result.getResponse().getContentAsString();
+            }
+            assertThat(result.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+            assertThat(content).contains("event:turnover").contains(tabela.getId().toString()).contains(DEFAULT_REGION);
+        } finally {
+            tabelaRepository.deleteById(tabela.getId());
+        }
+    }
 }
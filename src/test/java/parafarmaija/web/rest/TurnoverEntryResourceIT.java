@@ -0,0 +1,289 @@
+package parafarmaija.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import parafarmaija.IntegrationTest;
+import parafarmaija.domain.TurnoverEntry;
+import parafarmaija.repository.TurnoverEntryRepository;
+import parafarmaija.service.TurnoverRollupService;
+
+/**
+ * Integration tests for the {@link TurnoverEntryResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class TurnoverEntryResourceIT {
+
+    private static final String DEFAULT_REGION = "AAAAAAAAAA";
+    private static final String UPDATED_REGION = "BBBBBBBBBB";
+
+    private static final LocalDate DEFAULT_ENTRY_DATE = LocalDate.of(2026, 1, 15);
+    private static final LocalDate UPDATED_ENTRY_DATE = LocalDate.of(2026, 2, 15);
+
+    private static final Long DEFAULT_AMOUNT = 1L;
+    private static final Long UPDATED_AMOUNT = 2L;
+
+    private static final String ENTITY_API_URL = "/api/turnover-entries";
+    private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+
+    private static Random random = new Random();
+    private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
+
+    @Autowired
+    private TurnoverEntryRepository turnoverEntryRepository;
+
+    @Autowired
+    private TurnoverRollupService turnoverRollupService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restTurnoverEntryMockMvc;
+
+    private TurnoverEntry turnoverEntry;
+
+    /**
+     * Create an entity for this test.
+     *
+     * This is a static method, as tests for other entities might also need it,
+     * if they test an entity which requires the current entity.
+     */
+    public static TurnoverEntry createEntity(EntityManager em) {
+        TurnoverEntry turnoverEntry = new TurnoverEntry().regionName(DEFAULT_REGION).entryDate(DEFAULT_ENTRY_DATE).amount(DEFAULT_AMOUNT);
+        return turnoverEntry;
+    }
+
+    /**
+     * Create an updated entity for this test.
+     *
+     * This is a static method, as tests for other entities might also need it,
+     * if they test an entity which requires the current entity.
+     */
+    public static TurnoverEntry createUpdatedEntity(EntityManager em) {
+        TurnoverEntry turnoverEntry = new TurnoverEntry().regionName(UPDATED_REGION).entryDate(UPDATED_ENTRY_DATE).amount(UPDATED_AMOUNT);
+        return turnoverEntry;
+    }
+
+    @BeforeEach
+    public void initTest() {
+        turnoverEntry = createEntity(em);
+    }
+
+    @Test
+    @Transactional
+    void createTurnoverEntry() throws Exception {
+        int databaseSizeBeforeCreate = turnoverEntryRepository.findAll().size();
+        // Create the TurnoverEntry
+        restTurnoverEntryMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(turnoverEntry)))
+            .andExpect(status().isCreated());
+
+        // Validate the TurnoverEntry in the database
+        List<TurnoverEntry> turnoverEntryList = turnoverEntryRepository.findAll();
+        assertThat(turnoverEntryList).hasSize(databaseSizeBeforeCreate + 1);
+        TurnoverEntry testTurnoverEntry = turnoverEntryList.get(turnoverEntryList.size() - 1);
+        assertThat(testTurnoverEntry.getRegionName()).isEqualTo(DEFAULT_REGION);
+        assertThat(testTurnoverEntry.getEntryDate()).isEqualTo(DEFAULT_ENTRY_DATE);
+        assertThat(testTurnoverEntry.getAmount()).isEqualTo(DEFAULT_AMOUNT);
+    }
+
+    @Test
+    @Transactional
+    void checkEntryDateIsRequired() throws Exception {
+        int databaseSizeBeforeTest = turnoverEntryRepository.findAll().size();
+        turnoverEntry.setEntryDate(null);
+
+        restTurnoverEntryMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(turnoverEntry)))
+            .andExpect(status().isBadRequest());
+
+        assertThat(turnoverEntryRepository.findAll()).hasSize(databaseSizeBeforeTest);
+    }
+
+    @Test
+    @Transactional
+    void getTurnoverEntriesInRange() throws Exception {
+        // Initialize the database
+        turnoverEntryRepository.saveAndFlush(turnoverEntry);
+        TurnoverEntry nextMonth = turnoverEntryRepository.saveAndFlush(createUpdatedEntity(em));
+        TurnoverEntry otherRegion = turnoverEntryRepository.saveAndFlush(createEntity(em).regionName(UPDATED_REGION));
+
+        // Only the entries of the range are returned, the end of the range being included
+        restTurnoverEntryMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,asc&from=2026-01-01&to=2026-01-15"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(contains(turnoverEntry.getId().intValue(), otherRegion.getId().intValue())))
+            .andExpect(jsonPath("$.[0].region").value(DEFAULT_REGION))
+            .andExpect(jsonPath("$.[0].entryDate").value(DEFAULT_ENTRY_DATE.toString()))
+            .andExpect(jsonPath("$.[0].amount").value(DEFAULT_AMOUNT.intValue()));
+
+        // Filter on the region
+        restTurnoverEntryMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,asc&from=2026-01-01&to=2026-12-31&region=" + UPDATED_REGION))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(nextMonth.getId().intValue(), otherRegion.getId().intValue())));
+
+        // An unknown region has no entries
+        restTurnoverEntryMockMvc
+            .perform(get(ENTITY_API_URL + "?from=2026-01-01&to=2026-12-31&region=unknown-" + count.incrementAndGet()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    void getTurnoverEntriesWithInvalidRange() throws Exception {
+        restTurnoverEntryMockMvc
+            .perform(get(ENTITY_API_URL + "?from=2026-02-01&to=2026-01-01"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.rangeinvalid"));
+        restTurnoverEntryMockMvc.perform(get(ENTITY_API_URL)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getMonthlyTurnover() throws Exception {
+        // Initialize the database, the aggregates being read from the rollups the entries are committed
+        List<TurnoverEntry> entries = turnoverEntryRepository.saveAll(
+            List.of(
+                turnoverEntry,
+                createEntity(em).entryDate(DEFAULT_ENTRY_DATE.plusDays(1)).amount(UPDATED_AMOUNT),
+                createUpdatedEntity(em),
+                createEntity(em).entryDate(LocalDate.of(2025, 12, 31))
+            )
+        );
+        try {
+            turnoverRollupService.refreshRollups();
+
+            // Get the turnover per region and month
+            restTurnoverEntryMockMvc
+                .perform(get(ENTITY_API_URL + "/monthly?from=2026-01-01&to=2026-02-28"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.[*].month").value(contains("2026-01", "2026-02")))
+                .andExpect(jsonPath("$.[*].region").value(contains(DEFAULT_REGION, UPDATED_REGION)))
+                .andExpect(jsonPath("$.[*].count").value(contains(2, 1)))
+                .andExpect(jsonPath("$.[*].sum").value(contains(3, 2)));
+
+            // Get the turnover per region and day
+            restTurnoverEntryMockMvc
+                .perform(get(ENTITY_API_URL + "/daily?from=2026-01-01&to=2026-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.[*].date").value(contains("2026-01-15", "2026-01-16")))
+                .andExpect(jsonPath("$.[*].region").value(contains(DEFAULT_REGION, DEFAULT_REGION)))
+                .andExpect(jsonPath("$.[*].sum").value(contains(1, 2)));
+        } finally {
+            turnoverEntryRepository.deleteAll(entries);
+            turnoverRollupService.refreshRollups();
+        }
+    }
+
+    @Test
+    @Transactional
+    void getTurnoverEntry() throws Exception {
+        // Initialize the database
+        turnoverEntryRepository.saveAndFlush(turnoverEntry);
+
+        // Get the turnoverEntry
+        restTurnoverEntryMockMvc
+            .perform(get(ENTITY_API_URL_ID, turnoverEntry.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(turnoverEntry.getId().intValue()))
+            .andExpect(jsonPath("$.region").value(DEFAULT_REGION))
+            .andExpect(jsonPath("$.entryDate").value(DEFAULT_ENTRY_DATE.toString()))
+            .andExpect(jsonPath("$.amount").value(DEFAULT_AMOUNT.intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingTurnoverEntry() throws Exception {
+        // Get the turnoverEntry
+        restTurnoverEntryMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void putNewTurnoverEntry() throws Exception {
+        // Initialize the database
+        turnoverEntryRepository.saveAndFlush(turnoverEntry);
+
+        int databaseSizeBeforeUpdate = turnoverEntryRepository.findAll().size();
+
+        // Update the turnoverEntry
+        TurnoverEntry updatedTurnoverEntry = createUpdatedEntity(em).id(turnoverEntry.getId());
+        // Disconnect from session so that the updates on updatedTurnoverEntry are not directly saved in db
+        em.detach(turnoverEntry);
+
+        restTurnoverEntryMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedTurnoverEntry.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedTurnoverEntry))
+            )
+            .andExpect(status().isOk());
+
+        // Validate the TurnoverEntry in the database
+        List<TurnoverEntry> turnoverEntryList = turnoverEntryRepository.findAll();
+        assertThat(turnoverEntryList).hasSize(databaseSizeBeforeUpdate);
+        TurnoverEntry testTurnoverEntry = turnoverEntryList.get(turnoverEntryList.size() - 1);
+        assertThat(testTurnoverEntry.getRegionName()).isEqualTo(UPDATED_REGION);
+        assertThat(testTurnoverEntry.getEntryDate()).isEqualTo(UPDATED_ENTRY_DATE);
+        assertThat(testTurnoverEntry.getAmount()).isEqualTo(UPDATED_AMOUNT);
+    }
+
+    @Test
+    @Transactional
+    void putNonExistingTurnoverEntry() throws Exception {
+        int databaseSizeBeforeUpdate = turnoverEntryRepository.findAll().size();
+        turnoverEntry.setId(count.incrementAndGet());
+
+        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        restTurnoverEntryMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, turnoverEntry.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(turnoverEntry))
+            )
+            .andExpect(status().isBadRequest());
+
+        // Validate the TurnoverEntry in the database
+        assertThat(turnoverEntryRepository.findAll()).hasSize(databaseSizeBeforeUpdate);
+    }
+
+    @Test
+    @Transactional
+    void deleteTurnoverEntry() throws Exception {
+        // Initialize the database
+        turnoverEntryRepository.saveAndFlush(turnoverEntry);
+
+        int databaseSizeBeforeDelete = turnoverEntryRepository.findAll().size();
+
+        // Delete the turnoverEntry
+        restTurnoverEntryMockMvc
+            .perform(delete(ENTITY_API_URL_ID, turnoverEntry.getId()).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNoContent());
+
+        // Validate the database contains one less item
+        assertThat(turnoverEntryRepository.findAll()).hasSize(databaseSizeBeforeDelete - 1);
+    }
+}
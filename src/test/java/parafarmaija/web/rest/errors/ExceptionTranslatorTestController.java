@@ -1,12 +1,15 @@
 package parafarmaija.web.rest.errors;
 
+import java.time.Duration;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
+import parafarmaija.security.AuthenticationThrottledException;
 
 @RestController
 @RequestMapping("/api/exception-translator-test")
@@ -36,6 +39,16 @@ public class ExceptionTranslatorTestController {
         throw new BadCredentialsException("test authentication failed!");
     }
 
+    @GetMapping("/task-rejected")
+    public void taskRejected() {
+        throw new TaskRejectedException("test task rejected");
+    }
+
+    @GetMapping("/authentication-throttled")
+    public void authenticationThrottled() {
+        throw new AuthenticationThrottledException(Duration.ofMillis(1500));
+    }
+
     @GetMapping("/response-status")
     public void exceptionWithResponseStatus() {
         throw new TestResponseStatusException();